@@ -124,9 +124,20 @@ export const updateAlias = async (request: UpdateAliasRequest): Promise<void> =>
   }
 };
 
-export const getTransactionHistory = async (): Promise<unknown[]> => {
+export interface TransactionPage {
+  items: unknown[];
+  nextCursor: string | null;
+}
+
+/**
+ * Devuelve una página del historial. Para la siguiente se pasa el `nextCursor` recibido;
+ * `nextCursor` null significa que no hay más movimientos.
+ */
+export const getTransactionHistory = async (cursor?: string | null, limit?: number): Promise<TransactionPage> => {
   try {
-    const response = await api.get<ApiResponse<unknown[]>>('/transactions/history');
+    const response = await api.get<ApiResponse<TransactionPage>>('/transactions/history', {
+      params: { cursor: cursor ?? undefined, limit },
+    });
     return response.data.data;
   } catch (err: unknown) {
     const apiError = err as ApiError;
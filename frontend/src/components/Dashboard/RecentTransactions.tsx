@@ -44,6 +44,8 @@ const RecentTransactions: React.FC = () => {
   const [transactions, setTransactions] = React.useState<Transaction[]>([]);
   const [loading, setLoading] = React.useState(true);
   const [error, setError] = React.useState<string | null>(null);
+  const [nextCursor, setNextCursor] = React.useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = React.useState(false);
 
   // 🔍 LOGS ESTRATÉGICOS PARA DIAGNÓSTICO
   useEffect(() => {
@@ -61,8 +63,9 @@ const RecentTransactions: React.FC = () => {
       setError(null);
       if (!user?.token) { setError("Usuario no autenticado o token no disponible."); setLoading(false); return; }
       try {
-        const transactionsData = await getTransactionHistory();
-        setTransactions((transactionsData as Transaction[]) || []);
+        const page = await getTransactionHistory();
+        setTransactions((page.items as Transaction[]) || []);
+        setNextCursor(page.nextCursor);
       } catch (err: unknown) {
         const apiError = err as { response?: { data?: { detail?: string } } };
         const msg = apiError?.response?.data?.detail || "Error al obtener el historial de transacciones.";
@@ -74,6 +77,21 @@ const RecentTransactions: React.FC = () => {
     fetchTransactions();
   }, [user?.token]);
 
+  // Trae la página siguiente con el cursor recibido y la agrega al final
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await getTransactionHistory(nextCursor);
+      setTransactions((prev) => [...prev, ...((page.items as Transaction[]) || [])]);
+      setNextCursor(page.nextCursor);
+    } catch (err: unknown) {
+      setError(err instanceof Error ? err.message : "Error al obtener el historial de transacciones.");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const getIconForType = (type: string) => {
     switch (type) {
       case 'DEPOSIT': return <AccountBalanceIcon />;
@@ -151,6 +169,7 @@ const RecentTransactions: React.FC = () => {
           </Box>
         </Box>
       ) : (
+        <>
         <List dense>
           {transactions.map((tx, index) => (
             <React.Fragment key={index}>
@@ -182,6 +201,14 @@ const RecentTransactions: React.FC = () => {
             </React.Fragment>
           ))}
         </List>
+        {nextCursor && (
+          <Box display="flex" justifyContent="center" sx={{ mt: 2 }}>
+            <Button variant="outlined" size="small" onClick={loadMore} disabled={loadingMore}>
+              {loadingMore ? <CircularProgress size={18} /> : 'Ver más movimientos'}
+            </Button>
+          </Box>
+        )}
+        </>
       )}
     </Paper>
   );
@@ -0,0 +1,13 @@
+package com.cyberwallet.walletapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas @Scheduled (limpieza de tokens en blacklist, claves de idempotencia, etc.).
+ * El pool del scheduler se dimensiona con {@code spring.task.scheduling.pool.size}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,12 +1,14 @@
 package com.cyberwallet.walletapi.config;
 
 import com.cyberwallet.walletapi.security.CustomAuthenticationEntryPoint;
-import com.cyberwallet.walletapi.security.JwtAuthenticationFilter;
-import com.cyberwallet.walletapi.security.JwtBlacklistFilter;
+import com.cyberwallet.walletapi.security.IdempotencyFilter;
+import com.cyberwallet.walletapi.security.TokenAuthenticationFilter;
 import com.cyberwallet.walletapi.security.UserDetailsServiceImpl;
+import com.cyberwallet.walletapi.security.UserRateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,9 +19,9 @@
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -35,9 +37,11 @@ public class SecurityConfig {
     private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
     private final UserDetailsServiceImpl userDetailsService;
-    private final JwtBlacklistFilter jwtBlacklistFilter;
-    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final TokenAuthenticationFilter tokenAuthenticationFilter;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
+    private final IdempotencyFilter idempotencyFilter;
+    private final UserRateLimitFilter userRateLimitFilter;
+    private final PasswordEncoder passwordEncoder;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -72,19 +76,53 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtBlacklistFilter, UsernamePasswordAuthenticationFilter.class)
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(tokenAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(userRateLimitFilter, AuthorizationFilter.class)
+                .addFilterAfter(idempotencyFilter, AuthorizationFilter.class);
 
         log.debug("[SECURITY] Rutas públicas permitidas configuradas.");
         log.info("[SECURITY] SecurityFilterChain configurado correctamente.");
         return http.build();
     }
 
+    /**
+     * El filtro de idempotencia sólo debe correr dentro de la cadena de seguridad (necesita el usuario
+     * autenticado); se desactiva su registro automático como filtro del servlet container.
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(IdempotencyFilter filter) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Igual que el de idempotencia: el filtro de autenticación por token corre sólo en la cadena de seguridad.
+     */
+    @Bean
+    public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilterRegistration(TokenAuthenticationFilter filter) {
+        FilterRegistrationBean<TokenAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<UserRateLimitFilter> userRateLimitFilterRegistration(UserRateLimitFilter filter) {
+        FilterRegistrationBean<UserRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * El encoder es {@link com.cyberwallet.walletapi.security.BoundedPasswordEncoder}; con el
+     * UserDetailsPasswordService el provider re-hashea al costo vigente en cada login exitoso.
+     */
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
         log.debug("[SECURITY] AuthenticationProvider configurado.");
         return provider;
     }
@@ -94,11 +132,6 @@ public AuthenticationManager authenticationManager(AuthenticationConfiguration c
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public CorsConfiguration corsConfiguration() {
         CorsConfiguration config = new CorsConfiguration();
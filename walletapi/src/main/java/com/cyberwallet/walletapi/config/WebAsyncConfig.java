@@ -0,0 +1,50 @@
+package com.cyberwallet.walletapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Timeout de los requests asíncronos (StreamingResponseBody) por endpoint.
+ *
+ * El timeout global queda en el valor por defecto; un handler que necesita más tiempo (la exportación
+ * de transacciones) deja el suyo en el atributo {@link #ASYNC_TIMEOUT_ATTRIBUTE} y se aplica sólo a ese
+ * request, justo antes de iniciar el procesamiento asíncrono.
+ *
+ * Del mismo modo, un Runnable en {@link #ASYNC_COMPLETION_ATTRIBUTE} se ejecuta cuando el request
+ * asíncrono termina por cualquier motivo (fin normal, timeout, error o desconexión), aunque el
+ * cuerpo nunca se haya ejecutado. Sirve para liberar recursos tomados en el hilo del request.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    public static final String ASYNC_TIMEOUT_ATTRIBUTE = WebAsyncConfig.class.getName() + ".timeout";
+    public static final String ASYNC_COMPLETION_ATTRIBUTE = WebAsyncConfig.class.getName() + ".completion";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(ASYNC_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long timeoutMs && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeoutMs);
+                }
+            }
+
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                Object completion = request.getAttribute(ASYNC_COMPLETION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (completion instanceof Runnable callback) {
+                    callback.run();
+                }
+            }
+        });
+    }
+}
@@ -202,6 +202,27 @@ public ResponseEntity<ApiResponse<Void>> logout(
         return ResponseFactory.success("Sesión cerrada exitosamente.");
     }
 
+    // 🚪 Logout en todos los dispositivos
+    @Operation(summary = "Cerrar todas las sesiones", description = "Invalida todos los tokens emitidos para el usuario autenticado.")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Sesiones cerradas."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Token ausente o inválido.",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class)))
+    })
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse<Void>> logoutAll(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader
+    ) {
+        if (authHeader == null || authHeader.isBlank() || !authHeader.startsWith("Bearer ")) {
+            throw new BusinessException(ErrorCode.UNAUTHORIZED, "El token Authorization es requerido para cerrar sesión.");
+        }
+
+        String email = jwtService.extractUsername(authHeader.substring(7));
+        authService.logoutAll(email);
+
+        return ResponseFactory.success("Todas las sesiones fueron cerradas.");
+    }
+
     // 🧪 Endpoint temporal para crear usuario de prueba (SOLO DESARROLLO)
     @Operation(summary = "Crear usuario de prueba", description = "Crea un usuario de prueba para desarrollo. SOLO DISPONIBLE EN DESARROLLO.")
     @ApiResponses(value = {
@@ -1,22 +1,32 @@
 package com.cyberwallet.walletapi.controller;
 
+import com.cyberwallet.walletapi.config.WebAsyncConfig;
 import com.cyberwallet.walletapi.dto.response.ApiResponse;
-import com.cyberwallet.walletapi.dto.wallet.TransactionResponseDTO;
+import com.cyberwallet.walletapi.dto.wallet.TransactionExportFormat;
+import com.cyberwallet.walletapi.dto.wallet.TransactionPageResponseDTO;
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.service.TransactionService;
+import com.cyberwallet.walletapi.util.ExportLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -25,15 +35,24 @@
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final ExportLimiter exportLimiter;
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
-    @Operation(summary = "Obtener historial de transacciones", description = "Permite obtener el historial de transacciones del usuario autenticado.")
+    @Value("${cyberwallet.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
+
+    @Operation(summary = "Obtener historial de transacciones", description = "Devuelve el historial del usuario autenticado paginado por cursor: "
+            + "se piden `limit` transacciones y, para la página siguiente, se envía el `nextCursor` recibido.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Historial obtenido correctamente."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Parámetro limit o cursor inválido."),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Usuario no encontrado.")
     })
     @GetMapping("/history")
-    public ResponseEntity<ApiResponse<List<TransactionResponseDTO>>> getTransactionHistory(Authentication authentication) {
+    public ResponseEntity<ApiResponse<TransactionPageResponseDTO>> getTransactionHistory(
+            Authentication authentication,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
         String userEmail = authentication.getName();
         log.debug("[TRANSACTION] Iniciando obtención de historial para usuario: {}", userEmail);
 
@@ -42,10 +61,10 @@ public ResponseEntity<ApiResponse<List<TransactionResponseDTO>>> getTransactionH
             throw new BusinessException(ErrorCode.UNAUTHORIZED_ACCESS, "No se pudo identificar al usuario autenticado.");
         }
 
-        List<TransactionResponseDTO> history = transactionService.getTransactionHistory(userEmail);
-        log.info("[TRANSACTION] Historial obtenido. Total de transacciones: {}", history.size());
+        TransactionPageResponseDTO history = transactionService.getTransactionHistory(userEmail, limit, cursor);
+        log.info("[TRANSACTION] Historial obtenido. Transacciones en la página: {}", history.getItems().size());
 
-        ApiResponse<List<TransactionResponseDTO>> response = ApiResponse.<List<TransactionResponseDTO>>builder()
+        ApiResponse<TransactionPageResponseDTO> response = ApiResponse.<TransactionPageResponseDTO>builder()
                 .message("Historial obtenido correctamente.")
                 .data(history)
                 .timestamp(LocalDateTime.now())
@@ -53,4 +72,47 @@ public ResponseEntity<ApiResponse<List<TransactionResponseDTO>>> getTransactionH
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Exportar transacciones", description = "Descarga el historial completo del usuario autenticado en CSV o NDJSON. "
+            + "Las filas se envían a medida que se leen de la base; con `gzip=true` el archivo se entrega comprimido (.gz).")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Exportación en curso."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Formato no soportado."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Demasiadas exportaciones en curso.")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            Authentication authentication,
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String userEmail = authentication.getName();
+        TransactionExportFormat exportFormat = TransactionExportFormat.from(format);
+        log.info("[TRANSACTION] Exportación {} solicitada por: {} (gzip: {})", exportFormat, userEmail, gzip);
+
+        // El cupo se libera al terminar el streaming o, si el cuerpo nunca corre, al cerrar el request
+        // asíncrono; el timeout largo aplica sólo a este request
+        ExportLimiter.Permit permit = exportLimiter.acquire();
+        request.setAttribute(WebAsyncConfig.ASYNC_COMPLETION_ATTRIBUTE, (Runnable) permit::release);
+        request.setAttribute(WebAsyncConfig.ASYNC_TIMEOUT_ATTRIBUTE, exportTimeoutMs);
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                    transactionService.exportTransactions(userEmail, exportFormat, gzipOut);
+                    gzipOut.finish();
+                } else {
+                    transactionService.exportTransactions(userEmail, exportFormat, out);
+                }
+            } finally {
+                permit.release();
+            }
+        };
+
+        String filename = "transacciones-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
 }
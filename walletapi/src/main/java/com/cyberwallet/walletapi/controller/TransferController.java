@@ -1,6 +1,8 @@
 package com.cyberwallet.walletapi.controller;
 
 import com.cyberwallet.walletapi.dto.response.ApiResponse;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferRequestDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransferAliasRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransferCvuRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.WalletDetailsResponse;
@@ -88,6 +90,31 @@ public ResponseEntity<ApiResponse<WalletDetailsResponse>> transferByAlias(
         return ResponseFactory.success("Transferencia realizada correctamente.", updatedWallet);
     }
 
+    @Operation(summary = "Transferencia múltiple", description = "Transfiere fondos a varios destinatarios (alias o CVU) en una sola operación. "
+            + "Devuelve el resultado de cada tramo; los tramos válidos se aplican juntos o ninguno.")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Transferencia procesada; ver el resultado de cada tramo."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Demasiados tramos, límite diario superado o saldo insuficiente.")
+    })
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<ApiResponse<BatchTransferResponseDTO>> transferBatch(
+            @Valid @RequestBody BatchTransferRequestDTO requestDTO,
+            Authentication authentication) {
+
+        String senderEmail = authentication.getName();
+        String traceId = UUID.randomUUID().toString();
+
+        log.info("[TRANSFERENCIA-BATCH] Iniciando transferencia múltiple. TraceID: {}, Emisor: {}, Tramos: {}",
+                traceId, senderEmail, requestDTO.getLegs().size());
+
+        BatchTransferResponseDTO result = walletService.transferBatch(senderEmail, requestDTO, traceId);
+
+        log.info("[TRANSFERENCIA-BATCH] Transferencia múltiple procesada. TraceID: {}, Completados: {}, Rechazados: {}",
+                traceId, result.getCompleted(), result.getRejected());
+
+        return ResponseFactory.success("Transferencia múltiple procesada.", result);
+    }
+
     // 🔧 Validación de monto
     private void validateAmount(BigDecimal amount) {
         if (amount == null || amount.signum() <= 0) {
@@ -7,24 +7,26 @@
 import com.cyberwallet.walletapi.repository.UserRepository;
 import com.cyberwallet.walletapi.service.CountryValidationService;
 import com.cyberwallet.walletapi.service.ProvinceValidationService;
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import com.cyberwallet.walletapi.util.UserIdentifierFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/v1/validations")
-@RequiredArgsConstructor
 @Tag(name = "Validations", description = "Endpoints para validar datos específicos (países, provincias, email, username).")
 @Slf4j
 public class ValidationController {
@@ -32,11 +34,24 @@ public class ValidationController {
     private final ProvinceValidationService provinceValidationService;
     private final CountryValidationService countryValidationService;
     private final UserRepository userRepository;
-    
-    // Caché simple para evitar consultas duplicadas
-    private final Map<String, Boolean> validationCache = new ConcurrentHashMap<>();
-    private final Map<String, Long> cacheTimestamps = new ConcurrentHashMap<>();
-    private static final long CACHE_DURATION_MS = 30_000; // 30 segundos
+    private final UserIdentifierFilter userIdentifierFilter;
+
+    // Caché acotada para los posibles positivos del filtro (los que llegan a la base)
+    private final BoundedCache<String, Boolean> availabilityCache;
+
+    public ValidationController(ProvinceValidationService provinceValidationService,
+                                CountryValidationService countryValidationService,
+                                UserRepository userRepository,
+                                UserIdentifierFilter userIdentifierFilter,
+                                BoundedCacheFactory cacheFactory,
+                                @Value("${cyberwallet.availability-cache.max-entries:10000}") int maxEntries,
+                                @Value("${cyberwallet.availability-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.provinceValidationService = provinceValidationService;
+        this.countryValidationService = countryValidationService;
+        this.userRepository = userRepository;
+        this.userIdentifierFilter = userIdentifierFilter;
+        this.availabilityCache = cacheFactory.create("validation.availability", maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
 
     //Dolar cotizaciones
     @GetMapping("/dollar")
@@ -65,6 +80,11 @@ public ResponseEntity<ApiResponse<Boolean>> isUsernameAvailable(
             return ResponseEntity.badRequest().body(ApiResponse.fail("Parámetro username/value/email requerido"));
         }
 
+        if (!userIdentifierFilter.mightHaveUsername(userToCheck)) {
+            log.debug("[VALIDATION] Username '{}' disponible (filtro)", userToCheck);
+            return ResponseEntity.ok(ApiResponse.success("Disponibilidad verificada", true));
+        }
+
         String cacheKey = "username:" + userToCheck.trim();
         Boolean cachedResult = getCachedResult(cacheKey);
         if (cachedResult != null) {
@@ -92,6 +112,11 @@ public ResponseEntity<ApiResponse<Boolean>> isEmailAvailable(
             return ResponseEntity.badRequest().body(ApiResponse.fail("Parámetro email/value/username requerido"));
         }
 
+        if (!userIdentifierFilter.mightHaveEmail(emailToCheck)) {
+            log.debug("[VALIDATION] Email '{}' disponible (filtro)", emailToCheck);
+            return ResponseEntity.ok(ApiResponse.success("Disponibilidad verificada", true));
+        }
+
         String cacheKey = "email:" + emailToCheck.trim();
         Boolean cachedResult = getCachedResult(cacheKey);
         if (cachedResult != null) {
@@ -108,19 +133,11 @@ public ResponseEntity<ApiResponse<Boolean>> isEmailAvailable(
 
     // Métodos auxiliares para caché
     private Boolean getCachedResult(String key) {
-        Long timestamp = cacheTimestamps.get(key);
-        if (timestamp != null && (System.currentTimeMillis() - timestamp) < CACHE_DURATION_MS) {
-            return validationCache.get(key);
-        }
-        // Limpiar entrada expirada
-        validationCache.remove(key);
-        cacheTimestamps.remove(key);
-        return null;
+        return availabilityCache.getIfPresent(key);
     }
 
     private void cacheResult(String key, boolean result) {
-        validationCache.put(key, result);
-        cacheTimestamps.put(key, System.currentTimeMillis());
+        availabilityCache.put(key, result);
     }
 
     // --- 🌍 Validar si provincia es válida para país ---
@@ -14,10 +14,12 @@
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 import com.cyberwallet.walletapi.dto.wallet.WalletDetailsResponse;
 
@@ -45,6 +47,21 @@ public ResponseEntity<ApiResponse<WalletDetailsResponse>> getWalletDetails(Authe
         return ResponseEntity.ok(ApiResponse.success("Detalles de la billetera obtenidos correctamente.", walletDetails));
     }
 
+    @Operation(summary = "Saldo histórico", description = "Devuelve el saldo que tenía la billetera en el instante indicado (ISO-8601).")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Saldo histórico obtenido correctamente."),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Fecha inválida o futura.", content = @Content(schema = @Schema(implementation = ProblemDetails.class)))
+    })
+    @GetMapping("/balance-as-of")
+    public ResponseEntity<ApiResponse<BalanceAsOfResponseDTO>> getBalanceAsOf(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        String userEmail = extractUserEmail(authentication);
+        log.debug("[WALLET] Consultando saldo al {} para: {}", at, userEmail);
+        BalanceAsOfResponseDTO balance = walletService.getBalanceAsOf(userEmail, at);
+        return ResponseEntity.ok(ApiResponse.success("Saldo histórico obtenido correctamente.", balance));
+    }
+
     @Operation(summary = "Depositar fondos", description = "Permite depositar un monto en la billetera del usuario.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Depósito realizado correctamente.", content = @Content(schema = @Schema(implementation = ApiResponse.class))),
@@ -0,0 +1,27 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo histórico de la billetera a un instante dado, calculado desde el libro mayor.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAsOfResponseDTO {
+
+    private String alias;
+
+    private String cvu;
+
+    private LocalDateTime at;
+
+    private BigDecimal balance;
+}
@@ -0,0 +1,25 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Un destinatario dentro de una transferencia múltiple.
+ * Debe indicarse exactamente uno de targetAlias o targetCvu.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferLegDTO {
+
+    private String targetAlias;
+
+    private String targetCvu;
+
+    private BigDecimal amount;
+}
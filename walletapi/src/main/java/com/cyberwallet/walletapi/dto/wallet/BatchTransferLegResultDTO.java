@@ -0,0 +1,42 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de un tramo de la transferencia múltiple, en el mismo orden del request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferLegResultDTO {
+
+    public static final String COMPLETED = "COMPLETED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+
+    /**
+     * Alias o CVU destino, tal como se envió.
+     */
+    private String target;
+
+    private BigDecimal amount;
+
+    /**
+     * COMPLETED o REJECTED.
+     */
+    private String status;
+
+    /**
+     * Código de error (ErrorCode) si el tramo fue rechazado.
+     */
+    private String errorCode;
+
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Transferencia a múltiples destinatarios (p. ej. pago de sueldos) en una sola llamada.
+ * Cada tramo se valida por separado; la cantidad máxima de tramos es configurable.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequestDTO {
+
+    @NotEmpty(message = "La transferencia debe incluir al menos un destinatario.")
+    private List<BatchTransferLegDTO> legs;
+}
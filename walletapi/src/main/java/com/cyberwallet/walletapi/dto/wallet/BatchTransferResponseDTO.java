@@ -0,0 +1,29 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Respuesta de una transferencia múltiple: estado de la billetera del emisor y resultado por tramo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponseDTO {
+
+    private WalletDetailsResponse wallet;
+
+    private int completed;
+
+    private int rejected;
+
+    private BigDecimal totalTransferred;
+
+    private List<BatchTransferLegResultDTO> results;
+}
@@ -0,0 +1,33 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+
+/**
+ * Formatos soportados por la exportación de transacciones.
+ */
+public enum TransactionExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    TransactionExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() { return contentType; }
+    public String getExtension() { return extension; }
+
+    public static TransactionExportFormat from(String value) {
+        for (TransactionExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException(ErrorCode.INVALID_ARGUMENT, "Formato de exportación no soportado: " + value + ". Usa csv o ndjson.");
+    }
+}
@@ -0,0 +1,28 @@
+package com.cyberwallet.walletapi.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Página del historial de transacciones.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponseDTO {
+
+    /**
+     * Transacciones de la página, de la más reciente a la más antigua.
+     */
+    private List<TransactionResponseDTO> items;
+
+    /**
+     * Cursor opaco para pedir la página siguiente. Nulo si no hay más resultados.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,345 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Motor de saldos en memoria con escritura diferida (opcional, cyberwallet.balance-engine.enabled).
+ *
+ * Las billeteras se reparten entre particiones de un solo hilo ({@link BalanceShard}); cada
+ * operación queda en el journal local antes de confirmarse y {@link WriteBehindWriter} la vuelca
+ * a wallets/transacciones/ledger_entries en lotes. Al arrancar se reconstruye desde el snapshot de
+ * la base (saldos + balance_engine_state.last_seq) más la cola del journal.
+ *
+ * Con el motor activo, todas las mutaciones de saldo de la API deben pasar por acá: una escritura
+ * directa sobre wallets.balance no se reflejaría en memoria.
+ *
+ * Sólo una instancia puede tener el motor activo: al arrancar toma un advisory lock de sesión en
+ * Postgres (una conexión del pool queda retenida mientras el motor corre) y, si otra réplica ya lo
+ * tiene, la aplicación no arranca.
+ */
+@Component
+@Slf4j
+public class BalanceEngine {
+
+    // Saldo total = wallets.balance + sub-saldos (billeteras particionadas, ver HotWalletManager)
+    private static final String SNAPSHOT_SQL = """
+            SELECT w.id, w.balance + COALESCE(s.total, 0) AS balance
+            FROM wallets w
+            LEFT JOIN (SELECT wallet_id, SUM(balance) AS total FROM wallet_balance_slots GROUP BY wallet_id) s
+              ON s.wallet_id = w.id
+            """;
+    // Una sola sentencia: saldo y secuencia provienen del mismo snapshot de Postgres
+    private static final String LOAD_WALLET_SQL = """
+            SELECT w.balance + COALESCE((SELECT SUM(balance) FROM wallet_balance_slots WHERE wallet_id = w.id), 0) AS balance,
+                   (SELECT last_seq FROM balance_engine_state WHERE id = 1) AS last_seq
+            FROM wallets w WHERE w.id = ?
+            """;
+    private static final String LAST_SEQ_SQL = "SELECT last_seq FROM balance_engine_state WHERE id = 1";
+    // Clave del advisory lock que garantiza una única instancia con el motor activo
+    private static final long LEADER_LOCK_KEY = 0x4357_4245L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final LedgerWriter ledgerWriter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int shardCount;
+    private final int ringSize;
+    private final int shardBatchSize;
+    private final Path journalPath;
+    private final long ackTimeoutMs;
+    private final int flushBatchSize;
+    private final long flushIntervalMs;
+    private final long journalCompactBytes;
+    private final int flushMaxRetries;
+    private final long flushStalledRetryMs;
+
+    private Connection leaderConnection;
+    private BalanceShard[] shards;
+    private CommandJournal journal;
+    private WriteBehindWriter writer;
+    private volatile boolean started;
+
+    public BalanceEngine(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         LedgerWriter ledgerWriter,
+                         MeterRegistry meterRegistry,
+                         @Value("${cyberwallet.balance-engine.enabled:false}") boolean enabled,
+                         @Value("${cyberwallet.balance-engine.shards:4}") int shardCount,
+                         @Value("${cyberwallet.balance-engine.ring-size:8192}") int ringSize,
+                         @Value("${cyberwallet.balance-engine.shard-batch-size:256}") int shardBatchSize,
+                         @Value("${cyberwallet.balance-engine.journal-path:./data/balance-engine/journal.log}") String journalPath,
+                         @Value("${cyberwallet.balance-engine.ack-timeout-ms:5000}") long ackTimeoutMs,
+                         @Value("${cyberwallet.balance-engine.flush-batch-size:1000}") int flushBatchSize,
+                         @Value("${cyberwallet.balance-engine.flush-interval-ms:50}") long flushIntervalMs,
+                         @Value("${cyberwallet.balance-engine.journal-compact-bytes:67108864}") long journalCompactBytes,
+                         @Value("${cyberwallet.balance-engine.flush-max-retries:20}") int flushMaxRetries,
+                         @Value("${cyberwallet.balance-engine.flush-stalled-retry-ms:30000}") long flushStalledRetryMs) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones del motor de saldos debe ser positiva.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.ledgerWriter = ledgerWriter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.shardCount = shardCount;
+        this.ringSize = ringSize;
+        this.shardBatchSize = shardBatchSize;
+        this.journalPath = Path.of(journalPath);
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.flushBatchSize = flushBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.journalCompactBytes = journalCompactBytes;
+        this.flushMaxRetries = flushMaxRetries;
+        this.flushStalledRetryMs = flushStalledRetryMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || started) {
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        acquireLeaderLock();
+        journal = new CommandJournal(journalPath);
+        try {
+            List<EngineCommand> tail = journal.recover();
+            long lastSeq = jdbcTemplate.queryForObject(LAST_SEQ_SQL, Long.class);
+            journal.startAfter(lastSeq);
+
+            TransactionTemplate writeTemplate = new TransactionTemplate(transactionManager);
+            Counter flushFailures = Counter.builder("balance.engine.write_behind.failures")
+                    .description("Lotes del motor de saldos que fallaron al volcarse a la base")
+                    .register(meterRegistry);
+            writer = new WriteBehindWriter(jdbcTemplate, writeTemplate, ledgerWriter, journal, lastSeq,
+                    flushBatchSize, flushIntervalMs, journalCompactBytes, flushMaxRetries, flushStalledRetryMs, flushFailures);
+            shards = new BalanceShard[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new BalanceShard(i, this, journal, writer, this::loadWallet, ringSize, shardBatchSize);
+            }
+
+            int wallets = loadSnapshot(lastSeq);
+            int replayed = replay(tail, lastSeq);
+
+            writer.start();
+            Arrays.stream(shards).forEach(BalanceShard::start);
+            Gauge.builder("balance.engine.write_behind.backlog", writer, WriteBehindWriter::backlog)
+                    .description("Operaciones confirmadas pendientes de volcar a la base")
+                    .register(meterRegistry);
+            Gauge.builder("balance.engine.ring.pending", this, engine -> Arrays.stream(engine.shards).mapToInt(BalanceShard::pending).sum())
+                    .description("Operaciones en cola en las particiones del motor de saldos")
+                    .register(meterRegistry);
+            Gauge.builder("balance.engine.write_behind.stalled", writer, w -> w.isStalled() ? 1 : 0)
+                    .description("1 si el volcado a la base superó el límite de reintentos")
+                    .register(meterRegistry);
+            this.started = true;
+            log.info("[BALANCE-ENGINE] Motor iniciado en {} ms: {} billeteras, {} particiones, {} operaciones recuperadas del journal (last_seq {})",
+                    System.currentTimeMillis() - startMillis, wallets, shardCount, replayed, lastSeq);
+        } catch (IOException e) {
+            releaseLeaderLock();
+            throw new UncheckedIOException("No se pudo recuperar el journal del motor de saldos: " + journalPath, e);
+        } catch (RuntimeException e) {
+            releaseLeaderLock();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        try {
+            // Primero se drenan todas las particiones: lo que ya estaba en cola se aplica, se journaliza
+            // y se confirma (incluidos los créditos cruzados entre particiones); recién después se apaga
+            for (BalanceShard shard : shards) {
+                shard.close();
+            }
+            for (BalanceShard shard : shards) {
+                shard.awaitStopped();
+            }
+            started = false;
+            writer.stop();
+            journal.close();
+            log.info("[BALANCE-ENGINE] Motor detenido; volcado hasta la secuencia {}", writer.getFlushedSeq());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("[BALANCE-ENGINE] Error cerrando el journal", e);
+        } finally {
+            started = false;
+            releaseLeaderLock();
+        }
+    }
+
+    /**
+     * Aplica la operación y espera a que quede en el journal.
+     *
+     * @return saldo de la billetera origen después de la operación.
+     * @throws BusinessException.OperationPendingException si no hay confirmación dentro de ack-timeout-ms:
+     *         la operación puede aplicarse igual, así que el llamador no debe deshacer lo que ya reservó.
+     */
+    public BigDecimal submit(EngineCommand command) {
+        BalanceShard shard = shardFor(command.getWalletId());
+        if (writer.isStalled()) {
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE,
+                    "El motor de saldos no puede registrar operaciones en este momento. Intenta nuevamente más tarde.");
+        }
+        return await(shard.submit(command), true);
+    }
+
+    public BigDecimal balanceOf(UUID walletId) {
+        return await(shardFor(walletId).query(walletId), false);
+    }
+
+    // Sin chequear started: el crédito de una operación ya journalizada no puede fallar durante el apagado
+    void routeCredit(UUID walletId, long cents, long seq) {
+        shardForLoad(walletId).credit(walletId, cents, seq);
+    }
+
+    private BalanceShard shardFor(UUID walletId) {
+        if (!started) {
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El motor de saldos no está disponible.");
+        }
+        return shards[Math.floorMod(walletId.hashCode(), shards.length)];
+    }
+
+    private BigDecimal await(CompletableFuture<Long> future, boolean mutation) {
+        try {
+            return EngineCommand.fromCents(future.get(ackTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "Error en el motor de saldos.", e.getCause());
+        } catch (TimeoutException e) {
+            // La operación puede completarse igual: el resultado es desconocido, no un fallo
+            log.warn("[BALANCE-ENGINE] Sin confirmación tras {} ms", ackTimeoutMs);
+            if (!mutation) {
+                throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El motor de saldos no respondió a tiempo.");
+            }
+            throw new BusinessException.OperationPendingException(
+                    "La operación está en proceso. Consulta el saldo o los movimientos antes de reintentar.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "Operación interrumpida esperando el motor de saldos.", e);
+        }
+    }
+
+    private int loadSnapshot(long seq) {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        Integer count = snapshot.execute(status -> {
+            int[] loaded = {0};
+            jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+                UUID walletId = rs.getObject("id", UUID.class);
+                shardForLoad(walletId).preload(walletId, EngineCommand.toCents(rs.getBigDecimal("balance")), seq);
+                loaded[0]++;
+            });
+            return loaded[0];
+        });
+        return count == null ? 0 : count;
+    }
+
+    private int replay(List<EngineCommand> tail, long lastSeq) {
+        int replayed = 0;
+        for (EngineCommand command : tail) {
+            if (command.getSeq() <= lastSeq) {
+                continue;
+            }
+            shardForLoad(command.getWalletId()).replay(command.getWalletId(), command.sourceDelta(), command.getSeq());
+            for (EngineCommand.Leg leg : command.getLegs()) {
+                shardForLoad(leg.getWalletId()).replay(leg.getWalletId(), leg.getAmountCents(), command.getSeq());
+            }
+            writer.enqueue(List.of(command));
+            replayed++;
+        }
+        return replayed;
+    }
+
+    private BalanceShard shardForLoad(UUID walletId) {
+        return shards[Math.floorMod(walletId.hashCode(), shards.length)];
+    }
+
+    private void acquireLeaderLock() {
+        try {
+            Connection connection = jdbcTemplate.getDataSource().getConnection();
+            boolean acquired = false;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + LEADER_LOCK_KEY + ")")) {
+                acquired = rs.next() && rs.getBoolean(1);
+            } finally {
+                if (!acquired) {
+                    connection.close();
+                }
+            }
+            if (!acquired) {
+                throw new IllegalStateException("Otra instancia ya tiene el motor de saldos activo; "
+                        + "cyberwallet.balance-engine.enabled sólo puede estar activo en una réplica.");
+            }
+            leaderConnection = connection;
+            log.info("[BALANCE-ENGINE] Advisory lock {} tomado: esta instancia es la dueña del motor", LEADER_LOCK_KEY);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo tomar el advisory lock del motor de saldos.", e);
+        }
+    }
+
+    private void releaseLeaderLock() {
+        if (leaderConnection == null) {
+            return;
+        }
+        try (Connection connection = leaderConnection;
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_unlock(" + LEADER_LOCK_KEY + ")");
+        } catch (SQLException e) {
+            // Al cerrarse la sesión Postgres libera el lock igual
+            log.warn("[BALANCE-ENGINE] Error liberando el advisory lock: {}", e.getMessage());
+        } finally {
+            leaderConnection = null;
+        }
+    }
+
+    private BalanceShard.Snapshot loadWallet(UUID walletId) {
+        List<BalanceShard.Snapshot> rows = jdbcTemplate.query(LOAD_WALLET_SQL,
+                (rs, rowNum) -> new BalanceShard.Snapshot(EngineCommand.toCents(rs.getBigDecimal("balance")), rs.getLong("last_seq")),
+                walletId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
@@ -0,0 +1,314 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partición del motor de saldos: un único hilo es dueño de los saldos de sus billeteras
+ * (arrays de centavos) y procesa las operaciones en lotes tomados del ring buffer.
+ *
+ * Un lote se aplica en memoria, se escribe en el journal con un solo fsync y recién entonces se
+ * confirma. Los créditos de transferencias hacia billeteras de otra partición llegan por una cola
+ * interna sin límite, para que dos particiones nunca se bloqueen esperándose.
+ */
+@Slf4j
+class BalanceShard implements Runnable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Saldo en la base y última secuencia ya volcada al momento de leerlo.
+     */
+    interface Loader {
+        Snapshot load(UUID walletId);
+    }
+
+    record Snapshot(long cents, long seq) {
+    }
+
+    private final int id;
+    private final BalanceEngine engine;
+    private final CommandJournal journal;
+    private final WriteBehindWriter writer;
+    private final Loader loader;
+    private final int batchSize;
+    private final ArrayBlockingQueue<Task> ring;
+    private final ConcurrentLinkedQueue<Task> credits = new ConcurrentLinkedQueue<>();
+
+    private final Map<UUID, Integer> index = new HashMap<>();
+    private long[] balances = new long[INITIAL_CAPACITY];
+    // Secuencia incluida en el saldo cargado: los créditos con secuencia menor o igual ya están contados
+    private long[] baseSeqs = new long[INITIAL_CAPACITY];
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    BalanceShard(int id, BalanceEngine engine, CommandJournal journal, WriteBehindWriter writer,
+                 Loader loader, int ringSize, int batchSize) {
+        this.id = id;
+        this.engine = engine;
+        this.journal = journal;
+        this.writer = writer;
+        this.loader = loader;
+        this.batchSize = batchSize;
+        this.ring = new ArrayBlockingQueue<>(ringSize);
+    }
+
+    void start() {
+        thread = new Thread(this, "balance-shard-" + id);
+        thread.start();
+    }
+
+    /**
+     * Deja de aceptar operaciones; el hilo termina después de procesar lo que ya estaba en cola.
+     */
+    void close() {
+        running = false;
+        ring.offer(Task.WAKEUP);
+    }
+
+    /**
+     * Espera al hilo de la partición y rechaza lo que haya entrado al ring después del último drenado.
+     */
+    void awaitStopped() throws InterruptedException {
+        thread.join();
+        failLeftovers();
+    }
+
+    /**
+     * Carga inicial desde el snapshot de la base; sólo se llama antes de {@link #start()}.
+     */
+    void preload(UUID walletId, long cents, long seq) {
+        put(walletId, cents, seq);
+    }
+
+    /**
+     * Aplica una operación del journal durante la recuperación; sólo se llama antes de {@link #start()}.
+     */
+    void replay(UUID walletId, long delta, long seq) {
+        Integer slot = index.get(walletId);
+        if (slot == null) {
+            Snapshot snapshot = loader.load(walletId);
+            if (snapshot == null) {
+                log.error("[BALANCE-ENGINE] Billetera {} del journal no existe en la base", walletId);
+                return;
+            }
+            slot = put(walletId, snapshot.cents(), snapshot.seq());
+        }
+        if (seq > baseSeqs[slot]) {
+            balances[slot] += delta;
+        }
+    }
+
+    CompletableFuture<Long> submit(EngineCommand command) {
+        Task task = new Task(Task.Type.SUBMIT, command, command.getWalletId(), 0, 0);
+        offer(task);
+        return task.future;
+    }
+
+    CompletableFuture<Long> query(UUID walletId) {
+        Task task = new Task(Task.Type.QUERY, null, walletId, 0, 0);
+        offer(task);
+        return task.future;
+    }
+
+    void credit(UUID walletId, long cents, long seq) {
+        credits.add(new Task(Task.Type.CREDIT, null, walletId, cents, seq));
+        if (Thread.currentThread() != thread) {
+            ring.offer(Task.WAKEUP);
+        }
+    }
+
+    int pending() {
+        return ring.size();
+    }
+
+    private void offer(Task task) {
+        if (!running || !ring.offer(task)) {
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El motor de saldos está saturado. Intenta nuevamente.");
+        }
+        // Carrera con close(): si el hilo ya terminó nadie va a procesar la tarea
+        if (!running && !thread.isAlive() && ring.remove(task)) {
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El motor de saldos se está deteniendo. Intenta nuevamente.");
+        }
+    }
+
+    private void failLeftovers() {
+        List<Task> leftovers = new ArrayList<>();
+        ring.drainTo(leftovers);
+        leftovers.forEach(task -> task.future.completeExceptionally(new BusinessException(ErrorCode.SERVICE_UNAVAILABLE,
+                "El motor de saldos se está deteniendo. Intenta nuevamente.")));
+    }
+
+    @Override
+    public void run() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !ring.isEmpty() || !credits.isEmpty()) {
+            Task first;
+            try {
+                first = ring.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Task credit;
+            while ((credit = credits.poll()) != null) {
+                applyCredit(credit);
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            ring.drainTo(batch, batchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("[BALANCE-ENGINE] Error inesperado en la partición {}", id, e);
+                batch.forEach(task -> task.future.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        log.info("[BALANCE-ENGINE] Partición {} detenida", id);
+    }
+
+    private void process(List<Task> batch) {
+        List<Task> accepted = new ArrayList<>(batch.size());
+        List<Task> queries = new ArrayList<>();
+        for (Task task : batch) {
+            switch (task.type) {
+                case SUBMIT -> apply(task, accepted);
+                case QUERY -> queries.add(task);
+                default -> {
+                    // WAKEUP: sólo despierta al hilo para drenar créditos
+                }
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<EngineCommand> commands = new ArrayList<>(accepted.size());
+            accepted.forEach(task -> commands.add(task.command));
+            try {
+                journal.append(commands);
+            } catch (IOException e) {
+                log.error("[BALANCE-ENGINE] No se pudo escribir el journal; se revierten {} operaciones", accepted.size(), e);
+                for (int i = accepted.size() - 1; i >= 0; i--) {
+                    Task task = accepted.get(i);
+                    balances[index.get(task.walletId)] -= task.command.sourceDelta();
+                    task.future.completeExceptionally(new BusinessException(ErrorCode.SERVICE_UNAVAILABLE,
+                            "No se pudo registrar la operación. Intenta nuevamente."));
+                }
+                accepted.clear();
+            }
+            if (!accepted.isEmpty()) {
+                for (Task task : accepted) {
+                    for (EngineCommand.Leg leg : task.command.getLegs()) {
+                        engine.routeCredit(leg.getWalletId(), leg.getAmountCents(), task.command.getSeq());
+                    }
+                }
+                writer.enqueue(commands);
+                accepted.forEach(task -> task.future.complete(task.cents));
+            }
+        }
+
+        for (Task task : queries) {
+            try {
+                task.future.complete(balances[slot(task.walletId)]);
+            } catch (BusinessException e) {
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void apply(Task task, List<Task> accepted) {
+        try {
+            int slot = slot(task.walletId);
+            long delta = task.command.sourceDelta();
+            if (balances[slot] + delta < 0) {
+                throw new BusinessException(ErrorCode.INSUFFICIENT_FUNDS,
+                        "Saldo insuficiente: balance actual " + EngineCommand.fromCents(balances[slot])
+                                + ", se pidió " + EngineCommand.fromCents(-delta));
+            }
+            balances[slot] += delta;
+            // Saldo resultante de esta operación, sin las siguientes del mismo lote
+            task.cents = balances[slot];
+            accepted.add(task);
+        } catch (BusinessException e) {
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    private void applyCredit(Task credit) {
+        Integer slot = index.get(credit.walletId);
+        try {
+            if (slot == null) {
+                slot = slot(credit.walletId);
+            }
+        } catch (BusinessException e) {
+            log.error("[BALANCE-ENGINE] Crédito de la secuencia {} hacia billetera inexistente {}", credit.seq, credit.walletId);
+            return;
+        }
+        if (credit.seq > baseSeqs[slot]) {
+            balances[slot] += credit.cents;
+        }
+    }
+
+    private int slot(UUID walletId) {
+        Integer slot = index.get(walletId);
+        if (slot != null) {
+            return slot;
+        }
+        // Billetera creada después del arranque: se lee una vez desde la base
+        Snapshot snapshot = loader.load(walletId);
+        if (snapshot == null) {
+            throw new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada: " + walletId);
+        }
+        return put(walletId, snapshot.cents(), snapshot.seq());
+    }
+
+    private int put(UUID walletId, long cents, long seq) {
+        int slot = index.size();
+        if (slot == balances.length) {
+            balances = Arrays.copyOf(balances, slot * 2);
+            baseSeqs = Arrays.copyOf(baseSeqs, slot * 2);
+        }
+        balances[slot] = cents;
+        baseSeqs[slot] = seq;
+        index.put(walletId, slot);
+        return slot;
+    }
+
+    private static final class Task {
+
+        enum Type { SUBMIT, QUERY, CREDIT, WAKEUP }
+
+        static final Task WAKEUP = new Task(Type.WAKEUP, null, null, 0, 0);
+
+        final Type type;
+        final EngineCommand command;
+        final UUID walletId;
+        final long seq;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        long cents;
+
+        Task(Type type, EngineCommand command, UUID walletId, long cents, long seq) {
+            this.type = type;
+            this.command = command;
+            this.walletId = walletId;
+            this.cents = cents;
+            this.seq = seq;
+        }
+    }
+}
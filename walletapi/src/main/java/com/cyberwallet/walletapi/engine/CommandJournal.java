@@ -0,0 +1,208 @@
+package com.cyberwallet.walletapi.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Journal secuencial de operaciones aceptadas por el motor de saldos.
+ *
+ * Cada registro es [largo][crc32][payload]. Un lote se escribe con una sola llamada y un único
+ * fsync (group commit); recién después se confirma a los llamadores. Al leer, un registro
+ * incompleto o con CRC inválido marca el final del journal (escritura cortada por una caída).
+ */
+@Slf4j
+class CommandJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private long lastSeq;
+
+    CommandJournal(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal del motor de saldos: " + path, e);
+        }
+    }
+
+    /**
+     * Lee todas las operaciones válidas y deja el archivo posicionado para seguir escribiendo.
+     */
+    synchronized List<EngineCommand> recover() throws IOException {
+        List<EngineCommand> commands = new ArrayList<>();
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (checksum(payload.array()) != crc) {
+                break;
+            }
+            EngineCommand command = decode(payload.array());
+            commands.add(command);
+            lastSeq = Math.max(lastSeq, command.getSeq());
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            log.warn("[BALANCE-ENGINE] Journal truncado en el byte {} de {} (registro incompleto)", position, size);
+            channel.truncate(position);
+        }
+        channel.position(position);
+        return commands;
+    }
+
+    /**
+     * Continúa la numeración a partir de la última secuencia persistida en la base.
+     */
+    synchronized void startAfter(long seq) {
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    /**
+     * Asigna secuencias a las operaciones, las escribe y fuerza el fsync antes de volver.
+     */
+    synchronized void append(List<EngineCommand> commands) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(commands.size() * 128);
+        long seq = lastSeq;
+        for (EngineCommand command : commands) {
+            command.assignSeq(++seq);
+            byte[] payload = encode(command);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.length).putInt(checksum(payload));
+            out.write(header.array());
+            out.write(payload);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Descarta la escritura parcial para que el próximo lote no quede detrás de basura
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+        lastSeq = seq;
+    }
+
+    /**
+     * Vacía el journal si todo lo escrito ya está en la base y el archivo superó el umbral.
+     */
+    synchronized void truncateIfDrained(long flushedSeq, long thresholdBytes) throws IOException {
+        if (flushedSeq >= lastSeq && channel.size() > thresholdBytes) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            log.info("[BALANCE-ENGINE] Journal compactado hasta la secuencia {}", flushedSeq);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(EngineCommand command) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(command.getSeq());
+        out.writeByte(command.getKind().ordinal());
+        out.writeLong(command.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        writeUuid(out, command.getWalletId());
+        writeUuid(out, command.getUserId());
+        out.writeLong(command.getAmountCents());
+        writeString(out, command.getTransactionType());
+        writeString(out, command.getCounterpart());
+        out.writeInt(command.getLegs().size());
+        for (EngineCommand.Leg leg : command.getLegs()) {
+            writeUuid(out, leg.getWalletId());
+            writeUuid(out, leg.getUserId());
+            out.writeLong(leg.getAmountCents());
+            writeString(out, leg.getOutCounterpart());
+            writeString(out, leg.getInCounterpart());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static EngineCommand decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long seq = in.readLong();
+        EngineCommand.Kind kind = EngineCommand.Kind.values()[in.readByte()];
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneOffset.UTC);
+        UUID walletId = readUuid(in);
+        UUID userId = readUuid(in);
+        long amountCents = in.readLong();
+        String transactionType = readString(in);
+        String counterpart = readString(in);
+        int legCount = in.readInt();
+        List<EngineCommand.Leg> legs = new ArrayList<>(legCount);
+        for (int i = 0; i < legCount; i++) {
+            legs.add(new EngineCommand.Leg(readUuid(in), readUuid(in), in.readLong(), readString(in), readString(in)));
+        }
+        return new EngineCommand(seq, kind, createdAt, walletId, userId, amountCents, transactionType, counterpart, legs);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
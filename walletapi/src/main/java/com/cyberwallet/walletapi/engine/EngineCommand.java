@@ -0,0 +1,97 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.util.TransferUtils;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operación de saldo procesada por el {@link BalanceEngine}. Los montos se manejan en centavos.
+ * El número de secuencia lo asigna el journal al aceptar la operación.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class EngineCommand {
+
+    public enum Kind {
+        DEPOSIT, WITHDRAW, CARD_LOAD, TRANSFER
+    }
+
+    private long seq;
+    private final Kind kind;
+    private final LocalDateTime createdAt;
+    // Billetera origen (emisor en TRANSFER, destino de la operación en el resto)
+    private final UUID walletId;
+    private final UUID userId;
+    private final long amountCents;
+    private final String transactionType;
+    private final String counterpart;
+    private final List<Leg> legs;
+
+    public static EngineCommand deposit(UUID walletId, UUID userId, BigDecimal amount) {
+        return single(Kind.DEPOSIT, walletId, userId, amount, "DEPOSIT", null);
+    }
+
+    public static EngineCommand withdrawal(UUID walletId, UUID userId, BigDecimal amount) {
+        return single(Kind.WITHDRAW, walletId, userId, amount, "WITHDRAW", null);
+    }
+
+    public static EngineCommand cardLoad(UUID walletId, UUID userId, BigDecimal amount, String transactionType, String counterpart) {
+        return single(Kind.CARD_LOAD, walletId, userId, amount, transactionType, counterpart);
+    }
+
+    public static EngineCommand transfer(UUID senderWalletId, UUID senderUserId, List<TransferUtils.TransferLeg> legs) {
+        List<Leg> converted = new ArrayList<>(legs.size());
+        long total = 0;
+        for (TransferUtils.TransferLeg leg : legs) {
+            long cents = toCents(leg.getAmount());
+            total = Math.addExact(total, cents);
+            converted.add(new Leg(leg.getReceiverWalletId(), leg.getReceiverUserId(), cents, leg.getOutCounterpart(), leg.getInCounterpart()));
+        }
+        return new EngineCommand(0, Kind.TRANSFER, LocalDateTime.now(), senderWalletId, senderUserId, total, "TRANSFER", null, converted);
+    }
+
+    private static EngineCommand single(Kind kind, UUID walletId, UUID userId, BigDecimal amount, String transactionType, String counterpart) {
+        return new EngineCommand(0, kind, LocalDateTime.now(), walletId, userId, toCents(amount), transactionType, counterpart, List.of());
+    }
+
+    /**
+     * Delta que la operación aplica sobre la billetera origen.
+     */
+    long sourceDelta() {
+        return kind == Kind.DEPOSIT || kind == Kind.CARD_LOAD ? amountCents : -amountCents;
+    }
+
+    void assignSeq(long seq) {
+        this.seq = seq;
+    }
+
+    // Mismo redondeo que NUMERIC(38, 2) en Postgres
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Crédito de una transferencia hacia una billetera destino.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Leg {
+        private final UUID walletId;
+        private final UUID userId;
+        private final long amountCents;
+        private final String outCounterpart;
+        private final String inCounterpart;
+    }
+}
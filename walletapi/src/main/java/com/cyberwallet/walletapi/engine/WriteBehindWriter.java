@@ -0,0 +1,252 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import com.cyberwallet.walletapi.util.WalletLockManager;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vuelca a Postgres las operaciones ya confirmadas por el motor de saldos.
+ *
+ * Las operaciones llegan desde varias particiones fuera de orden; sólo se escribe el prefijo
+ * contiguo de secuencias, de modo que balance_engine_state.last_seq siempre significa "todo lo
+ * anterior ya está en la base". Cada lote es una transacción: deltas de wallets (ordenados por id),
+ * movimientos, asientos del ledger y la secuencia. Los asientos quedan con created_at = hora del
+ * volcado (ver {@link LedgerWriter}) y la hora de la operación en occurred_at, para que un volcado
+ * atrasado no caiga antes del último checkpoint.
+ *
+ * Un lote que falla se reintenta cada {@code intervalMs} hasta {@code maxRetries} veces seguidas;
+ * después el volcado queda "trabado": se alerta, el motor deja de aceptar operaciones nuevas (el
+ * journal no sigue creciendo) y se reintenta cada {@code stalledRetryMs} hasta que la base acepte el lote.
+ */
+@Slf4j
+class WriteBehindWriter implements Runnable {
+
+    private static final int JDBC_BATCH_SIZE = 100;
+    private static final String UPDATE_BALANCE_SQL = "UPDATE wallets SET balance = balance + ? WHERE id = ?";
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transacciones (id, type, amount, counterpart, date, user_id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATE_SQL = "UPDATE balance_engine_state SET last_seq = ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerWriter ledgerWriter;
+    private final CommandJournal journal;
+    private final int batchSize;
+    private final long intervalMs;
+    private final long journalCompactBytes;
+    private final int maxRetries;
+    private final long stalledRetryMs;
+    private final Counter failures;
+
+    private final LinkedBlockingQueue<EngineCommand> incoming = new LinkedBlockingQueue<>();
+    private final PriorityQueue<EngineCommand> pending = new PriorityQueue<>(Comparator.comparingLong(EngineCommand::getSeq));
+    private volatile long flushedSeq;
+    private volatile boolean running = true;
+    private volatile boolean stalled;
+    private int consecutiveFailures;
+    private Thread thread;
+
+    WriteBehindWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, LedgerWriter ledgerWriter,
+                      CommandJournal journal, long flushedSeq, int batchSize, long intervalMs, long journalCompactBytes,
+                      int maxRetries, long stalledRetryMs, Counter failures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerWriter = ledgerWriter;
+        this.journal = journal;
+        this.flushedSeq = flushedSeq;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.journalCompactBytes = journalCompactBytes;
+        this.maxRetries = maxRetries;
+        this.stalledRetryMs = stalledRetryMs;
+        this.failures = failures;
+    }
+
+    void start() {
+        thread = new Thread(this, "balance-write-behind");
+        thread.start();
+    }
+
+    /**
+     * Detiene el volcado tras escribir todo lo pendiente (las particiones ya deben estar detenidas).
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        if (stalled) {
+            // No esperar la pausa larga entre reintentos: lo pendiente queda en el journal
+            thread.interrupt();
+        }
+        thread.join();
+    }
+
+    void enqueue(List<EngineCommand> commands) {
+        incoming.addAll(commands);
+    }
+
+    long getFlushedSeq() {
+        return flushedSeq;
+    }
+
+    int backlog() {
+        return incoming.size() + pending.size();
+    }
+
+    /**
+     * true si el volcado superó el límite de reintentos y todavía no se recuperó.
+     */
+    boolean isStalled() {
+        return stalled;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                EngineCommand first = incoming.poll(intervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.add(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            incoming.drainTo(pending);
+
+            List<EngineCommand> batch = nextBatch();
+            if (batch.isEmpty()) {
+                if (!running && incoming.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                write(batch);
+                flushedSeq = batch.get(batch.size() - 1).getSeq();
+                recovered();
+                journal.truncateIfDrained(flushedSeq, journalCompactBytes);
+            } catch (RuntimeException | IOException e) {
+                if (flushedSeq < batch.get(batch.size() - 1).getSeq()) {
+                    pending.addAll(batch);
+                }
+                failed(batch, e);
+                if (!running) {
+                    // Al apagar no se insiste: el journal conserva lo pendiente para el próximo arranque
+                    break;
+                }
+                sleepQuietly(stalled ? stalledRetryMs : intervalMs);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.warn("[BALANCE-ENGINE] {} operaciones quedan sólo en el journal hasta el próximo arranque", pending.size());
+        }
+    }
+
+    private void failed(List<EngineCommand> batch, Exception e) {
+        failures.increment();
+        consecutiveFailures++;
+        if (stalled) {
+            log.warn("[BALANCE-ENGINE] Volcado trabado: falló el reintento {} de las secuencias {}-{}: {}", consecutiveFailures,
+                    batch.get(0).getSeq(), batch.get(batch.size() - 1).getSeq(), e.getMessage());
+        } else if (consecutiveFailures >= maxRetries) {
+            stalled = true;
+            log.error("[BALANCE-ENGINE] ALERTA: el volcado de las secuencias {}-{} falló {} veces seguidas; "
+                            + "el motor rechaza operaciones nuevas hasta que la base acepte el lote ({} pendientes en el journal)",
+                    batch.get(0).getSeq(), batch.get(batch.size() - 1).getSeq(), consecutiveFailures, backlog(), e);
+        } else {
+            log.error("[BALANCE-ENGINE] Error volcando {} operaciones a la base; reintento {} de {}",
+                    batch.size(), consecutiveFailures, maxRetries, e);
+        }
+    }
+
+    private void recovered() {
+        if (stalled) {
+            log.info("[BALANCE-ENGINE] Volcado recuperado tras {} intentos fallidos", consecutiveFailures);
+            stalled = false;
+        }
+        consecutiveFailures = 0;
+    }
+
+    private List<EngineCommand> nextBatch() {
+        List<EngineCommand> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        long expected = flushedSeq + 1;
+        while (batch.size() < batchSize && !pending.isEmpty() && pending.peek().getSeq() == expected) {
+            batch.add(pending.poll());
+            expected++;
+        }
+        return batch;
+    }
+
+    private void write(List<EngineCommand> batch) {
+        // Mismo orden que ORDER BY id en Postgres, para no cruzar row locks con otros caminos
+        Map<UUID, Long> deltas = new TreeMap<>(WalletLockManager.DB_ORDER);
+        List<Object[]> transactions = new ArrayList<>(batch.size() * 2);
+        LedgerWriter.Batch ledger = ledgerWriter.batch();
+
+        for (EngineCommand command : batch) {
+            deltas.merge(command.getWalletId(), command.sourceDelta(), Long::sum);
+            Timestamp date = Timestamp.valueOf(command.getCreatedAt());
+            BigDecimal amount = EngineCommand.fromCents(command.getAmountCents());
+            switch (command.getKind()) {
+                case DEPOSIT -> ledger.deposit(command.getWalletId(), amount, command.getCreatedAt());
+                case WITHDRAW -> ledger.withdrawal(command.getWalletId(), amount, command.getCreatedAt());
+                case CARD_LOAD -> ledger.cardLoad(command.getWalletId(), amount, command.getCreatedAt());
+                case TRANSFER -> {
+                    Map<UUID, BigDecimal> credits = new LinkedHashMap<>();
+                    for (EngineCommand.Leg leg : command.getLegs()) {
+                        BigDecimal legAmount = EngineCommand.fromCents(leg.getAmountCents());
+                        deltas.merge(leg.getWalletId(), leg.getAmountCents(), Long::sum);
+                        credits.merge(leg.getWalletId(), legAmount, BigDecimal::add);
+                        transactions.add(new Object[]{UUID.randomUUID(), "TRANSFER_OUT", legAmount, leg.getOutCounterpart(), date, command.getUserId()});
+                        transactions.add(new Object[]{UUID.randomUUID(), "TRANSFER_IN", legAmount, leg.getInCounterpart(), date, leg.getUserId()});
+                    }
+                    ledger.transfers(command.getWalletId(), credits, command.getCreatedAt());
+                }
+            }
+            if (command.getKind() != EngineCommand.Kind.TRANSFER) {
+                transactions.add(new Object[]{UUID.randomUUID(), command.getTransactionType(), amount, command.getCounterpart(), date, command.getUserId()});
+            }
+        }
+
+        long lastSeq = batch.get(batch.size() - 1).getSeq();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, deltas.entrySet(), JDBC_BATCH_SIZE, (ps, delta) -> {
+                ps.setBigDecimal(1, EngineCommand.fromCents(delta.getValue()));
+                ps.setObject(2, delta.getKey());
+            });
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, transactions, JDBC_BATCH_SIZE, (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+            ledger.flush();
+            jdbcTemplate.update(UPDATE_STATE_SQL, lastSeq);
+        });
+        log.debug("[BALANCE-ENGINE] Volcadas las secuencias hasta {} ({} operaciones)", lastSeq, batch.size());
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
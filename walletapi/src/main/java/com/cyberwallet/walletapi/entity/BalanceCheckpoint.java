@@ -0,0 +1,35 @@
+package com.cyberwallet.walletapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Saldo de una billetera a un instante: incluye todos sus movimientos del libro mayor
+ * con createdAt menor o igual a asOf.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+}
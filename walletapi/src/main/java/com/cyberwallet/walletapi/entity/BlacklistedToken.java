@@ -22,6 +22,12 @@ public class BlacklistedToken {
     @Column(nullable = false, unique = true, length = 512)
     private String token;
 
+    /**
+     * Id del JWT (claim jti). Es la clave de revocación; NULL sólo en filas anteriores a V12.
+     */
+    @Column(unique = true, length = 64)
+    private String jti;
+
     @Column(nullable = false)
     private LocalDateTime blacklistedAt;
 
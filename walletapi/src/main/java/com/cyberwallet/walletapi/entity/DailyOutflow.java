@@ -0,0 +1,27 @@
+package com.cyberwallet.walletapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Total transferido (TRANSFER_OUT) por un usuario en un día.
+ * Se incrementa en la misma transacción que cada transferencia y se usa para el límite diario.
+ */
+@Entity
+@Table(name = "daily_outflow")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyOutflow {
+
+    @EmbeddedId
+    private DailyOutflowId id;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private BigDecimal total = BigDecimal.ZERO;
+}
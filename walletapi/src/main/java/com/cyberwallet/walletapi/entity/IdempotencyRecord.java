@@ -0,0 +1,44 @@
+package com.cyberwallet.walletapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta almacenada para una Idempotency-Key de un usuario.
+ * Mientras la primera ejecución está en curso, {@code completed} es false y no hay respuesta.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 400)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    private Integer statusCode;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,62 @@
+package com.cyberwallet.walletapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Movimiento del libro mayor de doble entrada. Los movimientos de un mismo asiento comparten
+ * journalId y suman cero. La tabla es append-only (un trigger rechaza UPDATE y DELETE).
+ */
+@Entity
+@Table(name = "ledger_entries")
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntry {
+
+    public static final String ACCOUNT_WALLET = "WALLET";
+    public static final String ACCOUNT_SYSTEM = "SYSTEM";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID journalId;
+
+    /**
+     * Id de la billetera o de la {@link SystemAccount}.
+     */
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false, length = 10)
+    private String accountType;
+
+    @Column(nullable = false, length = 30)
+    private String entryType; // "DEPOSIT", "WITHDRAW", "LOAD_CARD", "TRANSFER", "OPENING_BALANCE"
+
+    /**
+     * Positivo acredita la cuenta, negativo la debita.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * Cuándo se insertó el movimiento; es lo que recorren los checkpoints.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Cuándo ocurrió la operación (anterior a createdAt con escritura diferida); null donde coinciden.
+     */
+    private LocalDateTime occurredAt;
+}
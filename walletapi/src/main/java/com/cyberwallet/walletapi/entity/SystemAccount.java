@@ -0,0 +1,31 @@
+package com.cyberwallet.walletapi.entity;
+
+import java.util.UUID;
+
+/**
+ * Cuentas del sistema usadas como contrapartida en el libro mayor (tabla system_accounts, migración V6).
+ *
+ * <ul>
+ *   <li>{@link #CASH_IN} - Origen de los depósitos.</li>
+ *   <li>{@link #CASH_OUT} - Destino de las extracciones.</li>
+ *   <li>{@link #CARD_SETTLEMENT} - Origen de las cargas con tarjeta.</li>
+ *   <li>{@link #OPENING_BALANCE} - Contrapartida de los saldos previos al libro mayor.</li>
+ * </ul>
+ */
+public enum SystemAccount {
+
+    CASH_IN("00000000-0000-0000-0000-000000000001"),
+    CASH_OUT("00000000-0000-0000-0000-000000000002"),
+    CARD_SETTLEMENT("00000000-0000-0000-0000-000000000003"),
+    OPENING_BALANCE("00000000-0000-0000-0000-000000000004");
+
+    private final UUID id;
+
+    SystemAccount(String id) {
+        this.id = UUID.fromString(id);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -77,6 +77,13 @@ public class User {
     @Builder.Default
     private boolean enabled = false;
 
+    /**
+     * Época de tokens (claim "tep"). Sólo la modifica {@code TokenEpochRegistry} con un UPDATE atómico;
+     * JPA nunca la escribe para que un save con la entidad en memoria no pise un incremento.
+     */
+    @Column(name = "token_epoch", nullable = false, insertable = false, updatable = false)
+    private int tokenEpoch;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private java.time.LocalDateTime createdAt = java.time.LocalDateTime.now();
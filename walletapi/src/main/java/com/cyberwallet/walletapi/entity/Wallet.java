@@ -2,12 +2,14 @@
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "wallets") // ✨ ¡Agrega esta línea!
+@DynamicUpdate // El saldo se modifica con UPDATE atómicos: un save() de otro campo no debe reescribirlo
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +30,14 @@ public class Wallet {
     @Column(unique = true, nullable = false, length = 20)
     private String alias;
 
+    /**
+     * Cantidad de sub-saldos (wallet_balance_slots) para billeteras con alto volumen de créditos.
+     * 0 = deshabilitado; el saldo está entero en {@link #balance}.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int balanceSlots = 0;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
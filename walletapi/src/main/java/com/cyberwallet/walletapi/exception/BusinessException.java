@@ -123,4 +123,14 @@ public InvalidFieldException(ErrorCode errorCode, String detail) {
             super(errorCode, detail);
         }
     }
+
+    /**
+     * Operación aceptada cuyo resultado todavía no se conoce (puede completarse después).
+     * Los servicios la excluyen del rollback para no deshacer lo que ya reservaron.
+     */
+    public static class OperationPendingException extends BusinessException {
+        public OperationPendingException(String detail) {
+            super(ErrorCode.OPERATION_PENDING, detail);
+        }
+    }
 }
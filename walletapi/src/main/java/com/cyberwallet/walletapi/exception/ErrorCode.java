@@ -133,6 +133,24 @@ public enum ErrorCode {
             "Has excedido el límite de solicitudes permitidas. Intenta de nuevo más tarde.",
             HttpStatus.TOO_MANY_REQUESTS
     ),
+    IDEMPOTENCY_KEY_REUSED(
+            "urn:cyberwallet:problems:idempotency-key-reused",
+            "Idempotency-Key reutilizada",
+            "La Idempotency-Key ya se usó con una solicitud distinta.",
+            HttpStatus.UNPROCESSABLE_ENTITY
+    ),
+    IDEMPOTENCY_REQUEST_IN_PROGRESS(
+            "urn:cyberwallet:problems:idempotency-request-in-progress",
+            "Solicitud en curso",
+            "Ya hay una solicitud en curso con la misma Idempotency-Key. Intenta nuevamente en unos segundos.",
+            HttpStatus.CONFLICT
+    ),
+    PAYLOAD_TOO_LARGE(
+            "urn:cyberwallet:problems:payload-too-large",
+            "Solicitud demasiado grande",
+            "El cuerpo de la solicitud supera el tamaño permitido.",
+            HttpStatus.PAYLOAD_TOO_LARGE
+    ),
     INVALID_AMOUNT(
             "urn:cyberwallet:problems:invalid-amount",
             "Monto inválido",
@@ -291,6 +309,13 @@ public enum ErrorCode {
             "Servicio no disponible",
             "El servicio no está disponible temporalmente. Intenta nuevamente más tarde.",
             HttpStatus.SERVICE_UNAVAILABLE
+    ),
+
+    OPERATION_PENDING(
+            "urn:cyberwallet:problems:operation-pending",
+            "Operación en proceso",
+            "La operación fue recibida pero todavía no está confirmada. Consulta el saldo o los movimientos antes de reintentar.",
+            HttpStatus.ACCEPTED
     );
 
     private final String type;
@@ -0,0 +1,44 @@
+package com.cyberwallet.walletapi.repository;
+
+import com.cyberwallet.walletapi.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(UUID walletId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(c.asOf) FROM BalanceCheckpoint c")
+    Optional<LocalDateTime> findLatestAsOf();
+
+    /**
+     * Crea un checkpoint en {@code cutoff} para cada billetera con movimientos en (since, cutoff]:
+     * su último checkpoint más la cola de movimientos posteriores. Las billeteras sin movimientos
+     * conservan su último checkpoint, que sigue siendo válido.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_checkpoints (wallet_id, as_of, balance)
+            SELECT e.account_id, :cutoff, COALESCE(cp.balance, 0) + SUM(e.amount)
+            FROM ledger_entries e
+            LEFT JOIN LATERAL (
+                SELECT c.as_of, c.balance FROM balance_checkpoints c
+                WHERE c.wallet_id = e.account_id
+                ORDER BY c.as_of DESC LIMIT 1
+            ) cp ON true
+            WHERE e.account_type = 'WALLET'
+              AND e.created_at > :since AND e.created_at <= :cutoff
+              AND (cp.as_of IS NULL OR e.created_at > cp.as_of)
+            GROUP BY e.account_id, cp.balance
+            ON CONFLICT (wallet_id, as_of) DO NOTHING
+            """, nativeQuery = true)
+    int createCheckpoints(@Param("since") LocalDateTime since, @Param("cutoff") LocalDateTime cutoff);
+}
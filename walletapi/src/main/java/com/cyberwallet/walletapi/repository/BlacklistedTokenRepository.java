@@ -5,6 +5,7 @@
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,5 +13,8 @@
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, UUID> {
     Optional<BlacklistedToken> findByToken(String token);
     boolean existsByToken(String token);
+    boolean existsByJti(String jti);
     int deleteByExpiresAtBefore(LocalDateTime now);
+    List<BlacklistedToken> findByExpiresAtAfter(LocalDateTime now);
+    List<BlacklistedToken> findByBlacklistedAtGreaterThanEqualAndExpiresAtAfter(LocalDateTime since, LocalDateTime now);
 }
@@ -0,0 +1,32 @@
+package com.cyberwallet.walletapi.repository;
+
+import com.cyberwallet.walletapi.entity.DailyOutflow;
+import com.cyberwallet.walletapi.entity.DailyOutflowId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DailyOutflowRepository extends JpaRepository<DailyOutflow, DailyOutflowId> {
+
+    /**
+     * Suma el monto al contador del día sólo si el total resultante no supera el límite.
+     * Devuelve el nuevo total, o vacío si la transferencia excede el límite diario.
+     * El upsert deja tomada la fila del contador hasta el fin de la transacción.
+     */
+    @Query(value = """
+            INSERT INTO daily_outflow AS d (user_id, day, total)
+            SELECT :userId, :day, :amount WHERE :amount <= :limit
+            ON CONFLICT (user_id, day) DO UPDATE SET total = d.total + EXCLUDED.total
+            WHERE d.total + EXCLUDED.total <= :limit
+            RETURNING d.total
+            """, nativeQuery = true)
+    Optional<BigDecimal> addIfWithinLimit(@Param("userId") UUID userId, @Param("day") LocalDate day,
+                                          @Param("amount") BigDecimal amount, @Param("limit") BigDecimal limit);
+}
@@ -0,0 +1,49 @@
+package com.cyberwallet.walletapi.repository;
+
+import com.cyberwallet.walletapi.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reserva la clave para la ejecución actual. Devuelve 0 si otra ejecución ya la tomó.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO idempotency_keys (id, fingerprint, completed, created_at, expires_at)
+            VALUES (:id, :fingerprint, false, :now, :expiresAt)
+            ON CONFLICT (id) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("id") String id, @Param("fingerprint") String fingerprint,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE idempotency_keys
+            SET completed = true, status_code = :statusCode, content_type = :contentType, response_body = :body
+            WHERE id = :id
+            """, nativeQuery = true)
+    int complete(@Param("id") String id, @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType, @Param("body") String body);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.completed = false")
+    int release(@Param("id") String id);
+
+    // Un solo DELETE; la versión derivada carga cada registro y lo borra de a uno
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteByExpiresAtBefore(@Param("now") LocalDateTime now);
+}
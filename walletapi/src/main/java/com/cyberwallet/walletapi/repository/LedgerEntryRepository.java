@@ -0,0 +1,24 @@
+package com.cyberwallet.walletapi.repository;
+
+import com.cyberwallet.walletapi.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * Suma de los movimientos de una cuenta en (from, to]. Usa el índice (account_id, created_at).
+     */
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.accountId = :accountId AND e.createdAt > :from AND e.createdAt <= :to")
+    BigDecimal sumBetween(@Param("accountId") UUID accountId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.accountId = :accountId AND e.createdAt <= :to")
+    BigDecimal sumUntil(@Param("accountId") UUID accountId, @Param("to") LocalDateTime to);
+}
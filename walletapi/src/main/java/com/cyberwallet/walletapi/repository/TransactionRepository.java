@@ -5,14 +5,33 @@
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import java.math.BigDecimal;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     List<Transaction> findByUserOrderByDateDesc(User user);
 
-    @Query("SELECT COALESCE(SUM(t.amount),0) FROM Transaction t WHERE t.user.id = :userId AND t.type = 'TRANSFER_OUT' AND DATE(t.date) = :date")
-    BigDecimal sumTransfersByUserAndDate(@Param("userId") java.util.UUID userId, @Param("date") java.time.LocalDate date);
+    // === Historial paginado por cursor (keyset) ===
+    // Usan el índice (user_id, date DESC, id DESC): el costo depende del tamaño de página,
+    // no de la longitud del historial.
+
+    @Query(value = """
+            SELECT * FROM transacciones t
+            WHERE t.user_id = :userId
+            ORDER BY t.date DESC, t.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findFirstPageByUserId(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM transacciones t
+            WHERE t.user_id = :userId AND (t.date, t.id) < (:date, :id)
+            ORDER BY t.date DESC, t.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findPageByUserIdBefore(@Param("userId") UUID userId, @Param("date") LocalDateTime date,
+                                             @Param("id") UUID id, @Param("limit") int limit);
 }
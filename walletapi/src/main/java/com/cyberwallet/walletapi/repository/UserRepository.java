@@ -21,9 +21,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByWallet_Alias(String alias);
 
     @Modifying
-    @Query("UPDATE User u SET u.deleted = true, u.status = 'ELIMINADO' WHERE u.id = :id")
+    @Query("UPDATE User u SET u.deleted = true, u.status = 'ELIMINADO', u.updatedAt = LOCAL DATETIME WHERE u.id = :id")
     void softDeleteById(@Param("id") UUID id);
 
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.wallet WHERE u.email = :email")
     Optional<User> findByEmailWithWallet(@Param("email") String email);
     Optional<User> findByEmailIgnoreCase(String email);
@@ -1,9 +1,16 @@
 package com.cyberwallet.walletapi.repository;
 
 import com.cyberwallet.walletapi.entity.Wallet;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import com.cyberwallet.walletapi.repository.projection.WalletIdentityView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +22,82 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     Optional<Wallet> findByUser(com.cyberwallet.walletapi.entity.User user);
     Optional<Wallet> findByCvu(String cvu); // <--- CAMBIO: Nuevo método para buscar por CVU
     boolean existsByCvu(String cvu); // Opcional, pero bueno tenerlo si lo necesitas para otras validaciones de unicidad
-}
\ No newline at end of file
+
+    // === Mutaciones atómicas de saldo ===
+    // Cada método es una única sentencia: el saldo se ajusta en la base y sólo se aplica
+    // si el resultado no queda negativo. Si no devuelve fila, la billetera no existe o
+    // no tiene fondos suficientes.
+
+    @Query(value = """
+            UPDATE wallets SET balance = balance + :delta
+            WHERE id = :id AND balance + :delta >= 0
+            RETURNING id, user_id AS "userId", balance, alias, cvu
+            """, nativeQuery = true)
+    Optional<WalletBalanceView> applyBalanceDelta(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
+    @Query(value = """
+            UPDATE wallets w SET balance = w.balance + :delta
+            WHERE w.user_id = :userId AND w.balance + :delta >= 0
+            RETURNING w.id, w.user_id AS "userId", w.balance, w.alias, w.cvu
+            """, nativeQuery = true)
+    Optional<WalletBalanceView> applyBalanceDeltaByUserId(@Param("userId") UUID userId, @Param("delta") BigDecimal delta);
+
+    @Query(value = """
+            UPDATE wallets w SET balance = w.balance + :delta
+            FROM users u
+            WHERE w.user_id = u.id AND u.email = :email AND u.deleted = false
+              AND w.balance + :delta >= 0
+            RETURNING w.id, w.user_id AS "userId", w.balance, w.alias, w.cvu
+            """, nativeQuery = true)
+    Optional<WalletBalanceView> applyBalanceDeltaByEmail(@Param("email") String email, @Param("delta") BigDecimal delta);
+
+    /**
+     * Resuelve en una sola consulta los destinatarios de una transferencia múltiple.
+     * Ninguna de las colecciones puede estar vacía (Postgres no acepta IN ()).
+     */
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.balance, w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE u.deleted = false AND (w.alias IN (:aliases) OR w.cvu IN (:cvus))
+            """, nativeQuery = true)
+    List<WalletBalanceView> findByAliasInOrCvuIn(@Param("aliases") Collection<String> aliases, @Param("cvus") Collection<String> cvus);
+
+    // Variantes para cuando el lote sólo trae alias o sólo CVUs; tampoco aceptan colecciones vacías
+
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.balance, w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE u.deleted = false AND w.alias IN (:aliases)
+            """, nativeQuery = true)
+    List<WalletBalanceView> findByAliasIn(@Param("aliases") Collection<String> aliases);
+
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.balance, w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE u.deleted = false AND w.cvu IN (:cvus)
+            """, nativeQuery = true)
+    List<WalletBalanceView> findByCvuIn(@Param("cvus") Collection<String> cvus);
+
+    // === Resolución de identidad (una sola consulta por identificador) ===
+
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE u.email = :email AND u.deleted = false
+            """, nativeQuery = true)
+    Optional<WalletIdentityView> findIdentityByEmail(@Param("email") String email);
+
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE w.alias = :alias AND u.deleted = false
+            """, nativeQuery = true)
+    Optional<WalletIdentityView> findIdentityByAlias(@Param("alias") String alias);
+
+    @Query(value = """
+            SELECT w.id, w.user_id AS "userId", w.alias, w.cvu
+            FROM wallets w JOIN users u ON u.id = w.user_id
+            WHERE w.cvu = :cvu AND u.deleted = false
+            """, nativeQuery = true)
+    Optional<WalletIdentityView> findIdentityByCvu(@Param("cvu") String cvu);
+}
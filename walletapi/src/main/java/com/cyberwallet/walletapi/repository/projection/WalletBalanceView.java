@@ -0,0 +1,22 @@
+package com.cyberwallet.walletapi.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Proyección devuelta por las mutaciones atómicas de saldo (UPDATE ... RETURNING).
+ * Contiene lo necesario para responder al cliente y registrar la transacción
+ * sin volver a cargar las entidades Wallet/User.
+ */
+public interface WalletBalanceView {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    BigDecimal getBalance();
+
+    String getAlias();
+
+    String getCvu();
+}
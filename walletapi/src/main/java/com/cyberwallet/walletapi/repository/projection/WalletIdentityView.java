@@ -0,0 +1,18 @@
+package com.cyberwallet.walletapi.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Identidad de una billetera (ids, alias y CVU) sin el saldo.
+ * Es lo que se resuelve antes de cada operación y lo que guarda {@code WalletIdentityCache}.
+ */
+public interface WalletIdentityView {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    String getAlias();
+
+    String getCvu();
+}
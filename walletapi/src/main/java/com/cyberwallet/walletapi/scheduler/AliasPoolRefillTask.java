@@ -0,0 +1,61 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.util.AliasPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carga el filtro de alias tomados al iniciar y mantiene lleno el pool de alias reservados.
+ */
+@Component
+@Slf4j
+public class AliasPoolRefillTask {
+
+    private final AliasPool aliasPool;
+    private final long reservationTtlHours;
+
+    public AliasPoolRefillTask(AliasPool aliasPool,
+                               @Value("${cyberwallet.alias-pool.reservation-ttl-hours:24}") long reservationTtlHours) {
+        this.aliasPool = aliasPool;
+        this.reservationTtlHours = reservationTtlHours;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            aliasPool.loadTakenAliases();
+            aliasPool.refill();
+        } catch (RuntimeException e) {
+            log.error("[ALIAS-POOL] Error precargando el pool de alias", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.alias-pool.refill-interval-ms:1000}",
+            initialDelayString = "${cyberwallet.alias-pool.refill-interval-ms:1000}")
+    public void refill() {
+        if (!aliasPool.needsRefill()) {
+            return;
+        }
+        try {
+            aliasPool.refill();
+        } catch (RuntimeException e) {
+            log.error("[ALIAS-POOL] Error reponiendo el pool de alias", e);
+        }
+    }
+
+    @Scheduled(cron = "0 45 * * * *")
+    public void purgeReservations() {
+        try {
+            int purged = aliasPool.purgeReservations(reservationTtlHours);
+            if (purged > 0) {
+                log.info("[ALIAS-POOL] Reservas de alias purgadas: {}", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("[ALIAS-POOL] Error purgando reservas de alias", e);
+        }
+    }
+}
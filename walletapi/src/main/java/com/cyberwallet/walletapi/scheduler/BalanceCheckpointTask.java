@@ -0,0 +1,29 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointTask {
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Genera checkpoints de saldo periódicamente (por defecto cada 15 minutos), de modo que
+     * las consultas de saldo histórico sólo recorran una cola corta de movimientos.
+     */
+    @Scheduled(fixedDelayString = "${cyberwallet.ledger.checkpoint-interval-ms:900000}",
+            initialDelayString = "${cyberwallet.ledger.checkpoint-interval-ms:900000}")
+    public void createCheckpoints() {
+        try {
+            ledgerService.createCheckpoints();
+        } catch (RuntimeException e) {
+            log.error("[LEDGER] Error generando checkpoints de saldo", e);
+        }
+    }
+}
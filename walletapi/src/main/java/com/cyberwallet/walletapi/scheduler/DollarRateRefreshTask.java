@@ -0,0 +1,36 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.service.DollarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresca las cotizaciones del dólar al iniciar y luego periódicamente. Si el upstream falla se
+ * mantiene la última foto buena y se reintenta en la próxima pasada.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DollarRateRefreshTask {
+
+    private final DollarService dollarService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.dollar.refresh-interval-ms:60000}",
+            initialDelayString = "${cyberwallet.dollar.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            dollarService.refresh();
+        } catch (RuntimeException e) {
+            log.error("[DOLLAR] Error actualizando cotizaciones; se siguen sirviendo las anteriores: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.util.HotWalletManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mantiene las billeteras particionadas: al iniciar habilita las configuradas por alias
+ * y luego vuelca periódicamente sus sub-saldos en wallets.balance.
+ */
+@Component
+@Slf4j
+public class HotWalletConsolidationTask {
+
+    private final HotWalletManager hotWalletManager;
+    private final WalletRepository walletRepository;
+    private final List<String> aliases;
+    private final int slots;
+
+    public HotWalletConsolidationTask(HotWalletManager hotWalletManager,
+                                      WalletRepository walletRepository,
+                                      @Value("${cyberwallet.hot-wallets.aliases:}") List<String> aliases,
+                                      @Value("${cyberwallet.hot-wallets.slots:16}") int slots) {
+        this.hotWalletManager = hotWalletManager;
+        this.walletRepository = walletRepository;
+        this.aliases = aliases;
+        this.slots = slots;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void designate() {
+        hotWalletManager.refresh();
+        for (String alias : aliases) {
+            if (alias.isBlank()) {
+                continue;
+            }
+            walletRepository.findByAlias(alias.trim()).ifPresentOrElse(
+                    wallet -> hotWalletManager.enable(wallet.getId(), slots),
+                    () -> log.warn("[HOT-WALLET] Alias configurado sin billetera: {}", alias));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.hot-wallets.consolidate-interval-ms:5000}",
+            initialDelayString = "${cyberwallet.hot-wallets.consolidate-interval-ms:5000}")
+    public void consolidate() {
+        try {
+            hotWalletManager.refresh();
+            for (UUID walletId : hotWalletManager.hotWalletIds()) {
+                BigDecimal moved = hotWalletManager.consolidateInTransaction(walletId);
+                if (moved.signum() != 0) {
+                    log.debug("[HOT-WALLET] {} consolidado en la billetera {}", moved, walletId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("[HOT-WALLET] Error consolidando sub-saldos", e);
+        }
+    }
+}
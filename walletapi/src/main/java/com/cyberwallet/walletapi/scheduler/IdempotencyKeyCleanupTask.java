@@ -0,0 +1,26 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyCleanupTask {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    /**
+     * Elimina cada hora las Idempotency-Key vencidas.
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void cleanupExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        log.info("[CLEANUP] Eliminadas {} Idempotency-Key vencidas", deleted);
+    }
+}
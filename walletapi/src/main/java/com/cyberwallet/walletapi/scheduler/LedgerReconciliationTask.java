@@ -0,0 +1,66 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.service.LedgerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compara periódicamente el saldo guardado de cada billetera con el libro mayor.
+ *
+ * Las diferencias se reportan siempre (log de error y {@code ledger.reconciliation.drift}); la
+ * corrección con {@link LedgerService#rebuildWalletBalance} es opcional ({@code repair}) y nunca se
+ * aplica con el motor de saldos activo, porque ahí wallets.balance lo escribe sólo el volcado diferido.
+ */
+@Component
+@Slf4j
+public class LedgerReconciliationTask {
+
+    private final LedgerService ledgerService;
+    private final boolean repair;
+    private final int maxWallets;
+    private final Counter drifted;
+
+    public LedgerReconciliationTask(LedgerService ledgerService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cyberwallet.ledger.reconciliation.repair:false}") boolean repair,
+                                    @Value("${cyberwallet.ledger.reconciliation.max-wallets:100}") int maxWallets,
+                                    @Value("${cyberwallet.balance-engine.enabled:false}") boolean balanceEngineEnabled) {
+        this.ledgerService = ledgerService;
+        this.repair = repair && !balanceEngineEnabled;
+        this.maxWallets = maxWallets;
+        this.drifted = Counter.builder("ledger.reconciliation.drift")
+                .description("Billeteras cuyo saldo no coincide con el libro mayor")
+                .register(meterRegistry);
+        if (repair && balanceEngineEnabled) {
+            log.warn("[LEDGER] Motor de saldos activo: la conciliación sólo reporta diferencias, no las corrige");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.ledger.reconciliation.interval-ms:3600000}",
+            initialDelayString = "${cyberwallet.ledger.reconciliation.interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            List<UUID> wallets = ledgerService.findDriftedWallets(maxWallets);
+            if (wallets.isEmpty()) {
+                log.debug("[LEDGER] Conciliación sin diferencias");
+                return;
+            }
+            drifted.increment(wallets.size());
+            log.error("[LEDGER] {} billeteras con saldo distinto al libro mayor: {}", wallets.size(), wallets);
+            if (repair) {
+                for (UUID walletId : wallets) {
+                    ledgerService.rebuildWalletBalance(walletId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("[LEDGER] Error en la conciliación de saldos", e);
+        }
+    }
+}
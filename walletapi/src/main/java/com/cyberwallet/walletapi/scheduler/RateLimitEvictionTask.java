@@ -0,0 +1,32 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.security.RateLimitRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * En modo distribuido, borra de rate_limit_buckets los buckets que quedaron sin uso (ya están llenos).
+ * Los buckets en memoria vencen solos en su cache acotado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitEvictionTask {
+
+    private final RateLimitRegistry rateLimitRegistry;
+
+    @Scheduled(fixedDelayString = "${cyberwallet.ratelimit.eviction-interval-ms:60000}",
+            initialDelayString = "${cyberwallet.ratelimit.eviction-interval-ms:60000}")
+    public void purgeIdleShared() {
+        try {
+            int purged = rateLimitRegistry.purgeIdleShared();
+            if (purged > 0) {
+                log.debug("[RATE LIMITER] Buckets compartidos sin uso descartados: {}", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("[RATE LIMITER] Error descartando buckets compartidos sin uso", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.security.TokenRevocationRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene el registro de JWT revocados: carga al iniciar, incorpora las revocaciones de otras
+ * instancias y descarta las de tokens ya expirados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationSyncTask {
+
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            tokenRevocationRegistry.load();
+        } catch (RuntimeException e) {
+            log.error("[REVOCATION] Error cargando revocaciones; se reintenta en la próxima sincronización", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.token-revocation.sync-interval-ms:2000}",
+            initialDelayString = "${cyberwallet.token-revocation.sync-interval-ms:2000}")
+    public void sync() {
+        try {
+            tokenRevocationRegistry.sync();
+        } catch (RuntimeException e) {
+            log.error("[REVOCATION] Error sincronizando revocaciones", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        int evicted = tokenRevocationRegistry.evictExpired();
+        if (evicted > 0) {
+            log.debug("[REVOCATION] Revocaciones de tokens expirados descartadas: {}", evicted);
+        }
+    }
+}
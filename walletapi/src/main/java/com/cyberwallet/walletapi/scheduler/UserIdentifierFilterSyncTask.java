@@ -0,0 +1,50 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.util.UserIdentifierFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carga los filtros de username/email al iniciar, los sincroniza con los cambios de otras
+ * instancias y los reconstruye una vez por día para descartar valores liberados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserIdentifierFilterSyncTask {
+
+    private final UserIdentifierFilter userIdentifierFilter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            userIdentifierFilter.rebuild();
+        } catch (RuntimeException e) {
+            // Sin filtro cargado todas las consultas van a la base
+            log.error("[IDENTIFIER-FILTER] Error cargando filtros de username/email", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cyberwallet.identifier-filter.sync-interval-ms:5000}",
+            initialDelayString = "${cyberwallet.identifier-filter.sync-interval-ms:5000}")
+    public void sync() {
+        try {
+            userIdentifierFilter.sync();
+        } catch (RuntimeException e) {
+            log.error("[IDENTIFIER-FILTER] Error sincronizando filtros de username/email", e);
+        }
+    }
+
+    @Scheduled(cron = "0 30 4 * * *")
+    public void rebuild() {
+        try {
+            userIdentifierFilter.rebuild();
+        } catch (RuntimeException e) {
+            log.error("[IDENTIFIER-FILTER] Error reconstruyendo filtros de username/email", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cyberwallet.walletapi.scheduler;
+
+import com.cyberwallet.walletapi.util.WalletIdentityCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propaga al cache de identidad los cambios de alias, CVU, email y bajas hechos en otras instancias.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletIdentityCacheSyncTask {
+
+    private final WalletIdentityCache walletIdentityCache;
+
+    @Scheduled(fixedDelayString = "${cyberwallet.identity-cache.sync-interval-ms:2000}",
+            initialDelayString = "${cyberwallet.identity-cache.sync-interval-ms:2000}")
+    public void sync() {
+        try {
+            walletIdentityCache.sync();
+        } catch (RuntimeException e) {
+            // Sin sincronización el TTL sigue acotando lo desactualizado
+            log.error("[IDENTITY-CACHE] Error sincronizando el cache de identidad", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt con costo configurable, ejecutado en un pool propio y acotado.
+ *
+ * Hashear y verificar contraseñas es CPU pura y lenta a propósito: con una ráfaga de logins en los
+ * hilos de Tomcat no queda nadie para atender el resto de la API. Acá a lo sumo {@code threads}
+ * hashes corren a la vez y hasta {@code queue-capacity} esperan; si la cola está llena el request
+ * se rechaza en el acto con 503 en lugar de acumular hilos bloqueados.
+ *
+ * {@link #upgradeEncoding} reporta los hashes con un costo menor al configurado, y Spring Security
+ * los vuelve a hashear en el próximo login exitoso (ver {@link UserDetailsServiceImpl#updatePassword}).
+ */
+@Component
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry,
+                                  @Value("${cyberwallet.password-hashing.strength:10}") int strength,
+                                  @Value("${cyberwallet.password-hashing.threads:0}") int threads,
+                                  @Value("${cyberwallet.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${cyberwallet.password-hashing.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waitTimeoutMs = waitTimeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("password.hash.rejected")
+                .description("Hashes rechazados por cola llena o espera vencida")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Hashes esperando un hilo libre")
+                .register(meterRegistry);
+        log.info("[PASSWORD] BCrypt costo {} con {} hilos y cola de {}", strength, poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Ejecuta el hash en el pool y espera el resultado. La latencia medida es la del hash en sí;
+     * la espera en cola se ve en {@code password.hash.queue}.
+     */
+    private <T> T run(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("[PASSWORD] Cola de hashing llena ({}), se rechaza el request", executor.getQueue().size());
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El servicio está saturado. Intenta nuevamente en unos segundos.");
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("[PASSWORD] El hash no terminó en {} ms", waitTimeoutMs);
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "El servicio está saturado. Intenta nuevamente en unos segundos.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "La operación fue interrumpida.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash")
+                .tag("operation", operation)
+                .description("Duración de BCrypt por operación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.cyberwallet.walletapi.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resuelve la IP real del cliente teniendo en cuenta sólo los proxies de confianza.
+ *
+ * X-Forwarded-For lo puede escribir cualquiera: se lee únicamente si la conexión viene de un proxy
+ * confiable, y se recorre de derecha a izquierda (cada proxy agrega al final) hasta la primera IP
+ * que no sea de un proxy confiable. Así un cliente no puede elegir su propia clave de rate limiting.
+ * Por defecto sólo se confía en loopback; los proxies reales se configuran explícitamente.
+ */
+@Component
+@Slf4j
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<IpRange> trustedProxies;
+
+    public ClientIpResolver(@Value("${cyberwallet.ratelimit.trusted-proxies:127.0.0.1/32,::1/128}")
+                            List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream().map(String::trim).filter(s -> !s.isEmpty()).map(IpRange::parse).toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String client = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || forwardedFor.isBlank() || !isTrusted(parseLiteral(client))) {
+            return client;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            InetAddress hop = parseLiteral(hops[i].trim());
+            if (hop == null) {
+                // Entrada que no es una IP: lo que sigue a la izquierda no es confiable
+                log.debug("[RATE LIMITER] X-Forwarded-For con entrada inválida: {}", hops[i].trim());
+                break;
+            }
+            client = hop.getHostAddress();
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(InetAddress address) {
+        if (address == null) {
+            return false;
+        }
+        for (IpRange range : trustedProxies) {
+            if (range.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sólo literales IP: InetAddress.getByName con un nombre haría una consulta DNS
+    private static InetAddress parseLiteral(String value) {
+        if (value == null || !(IPV4.matcher(value).matches() || IPV6.matcher(value).matches())) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record IpRange(byte[] network, int prefixLength) {
+
+        private static IpRange parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress address = parseLiteral(slash < 0 ? cidr : cidr.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Proxy de confianza inválido: " + cidr);
+            }
+            byte[] network = address.getAddress();
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+            return new IpRange(network, prefixLength);
+        }
+
+        private boolean contains(InetAddress address) {
+            byte[] candidate = address.getAddress();
+            if (candidate.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (candidate[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (candidate[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buckets de rate limiting compartidos entre instancias, guardados en rate_limit_buckets.
+ *
+ * Cada instancia no pide los tokens de a uno: toma un lote ("lease") con un compare-and-swap sobre
+ * la columna version y lo consume en memoria hasta agotarlo o hasta que venza ({@code lease-ttl-ms}).
+ * Cuando la base responde que el bucket está vacío, el rechazo se cachea hasta el fin de la ventana,
+ * así que ni el tráfico normal ni un ataque repetido consultan la base en cada request.
+ * Los tokens de un lote que vence sin usarse se pierden: el límite real puede quedar algo por debajo
+ * del configurado, nunca por encima.
+ *
+ * Las ventanas se miden con el reloj de la base ({@code now()}), no con el de cada instancia, para
+ * que un desfase entre relojes no corra la ventana compartida. Si la base falla, un circuit breaker
+ * deja de consultarla durante {@code breaker-open-ms} y el llamador usa sus buckets locales; pasado
+ * ese tiempo un único request prueba de nuevo.
+ */
+@Component
+@Slf4j
+public class DistributedRateLimitStore {
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+    private static final String DB_NOW_MS = "(EXTRACT(EPOCH FROM now()) * 1000)::bigint";
+    // Tope de vida de un rechazo cacheado; cada entrada vence antes, al fin de su ventana
+    private static final Duration MAX_DENIAL_TTL = Duration.ofHours(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedCache<String, Lease> leases;
+    private final BoundedCache<String, Long> denials;
+    private final double leaseFraction;
+    private final long breakerOpenNanos;
+    private final AtomicLong breakerOpenUntil = new AtomicLong();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final Counter granted;
+    private final Counter denied;
+    private final Counter conflicts;
+    private final Counter failures;
+
+    public DistributedRateLimitStore(JdbcTemplate jdbcTemplate,
+                                     BoundedCacheFactory cacheFactory,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cyberwallet.ratelimit.distributed.lease-fraction:0.1}") double leaseFraction,
+                                     @Value("${cyberwallet.ratelimit.distributed.lease-ttl-ms:1000}") long leaseTtlMs,
+                                     @Value("${cyberwallet.ratelimit.distributed.lease-cache-size:100000}") int leaseCacheSize,
+                                     @Value("${cyberwallet.ratelimit.distributed.breaker-open-ms:5000}") long breakerOpenMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseFraction = leaseFraction;
+        this.breakerOpenNanos = Duration.ofMillis(breakerOpenMs).toNanos();
+        this.leases = cacheFactory.create("ratelimit.leases", leaseCacheSize, Duration.ofMillis(leaseTtlMs));
+        this.denials = cacheFactory.create("ratelimit.denials", leaseCacheSize, MAX_DENIAL_TTL);
+        this.granted = leaseCounter(meterRegistry, "granted");
+        this.denied = leaseCounter(meterRegistry, "denied");
+        this.conflicts = leaseCounter(meterRegistry, "conflict");
+        this.failures = leaseCounter(meterRegistry, "error");
+        Gauge.builder("ratelimit.store.open", breakerOpenUntil, until -> until.get() == 0 ? 0 : 1)
+                .description("1 si el circuit breaker del store distribuido está abierto")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true/false si hay o no cupo; null si la base no está disponible (el llamador decide el respaldo).
+     */
+    public Boolean tryConsume(String key, int capacity, Duration period) {
+        long now = System.nanoTime();
+        Long deniedUntil = denials.getIfPresent(key);
+        if (deniedUntil != null) {
+            if (now - deniedUntil < 0) {
+                return false;
+            }
+            denials.invalidate(key);
+        }
+        Lease lease = leases.getIfPresent(key);
+        if (lease != null && lease.remaining.getAndDecrement() > 0) {
+            return true;
+        }
+        if (!allowStoreCall(now)) {
+            return null;
+        }
+        try {
+            Grant grant = acquire(key, capacity, period.toMillis(), leaseSize(capacity));
+            closeBreaker();
+            if (grant == null) {
+                return null;
+            }
+            if (grant.tokens() == 0) {
+                denials.put(key, System.nanoTime() + Duration.ofMillis(grant.remainingWindowMs()).toNanos());
+                return false;
+            }
+            leases.put(key, new Lease(grant.tokens() - 1));
+            return true;
+        } catch (DataAccessException e) {
+            openBreaker(e);
+            return null;
+        }
+    }
+
+    public void reset() {
+        leases.invalidateAll();
+        denials.invalidateAll();
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets");
+    }
+
+    public void reset(List<String> keys) {
+        keys.forEach(key -> {
+            leases.invalidate(key);
+            denials.invalidate(key);
+        });
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE bucket_key = ANY (?::varchar[])",
+                (Object) keys.toArray(String[]::new));
+    }
+
+    /**
+     * Borra los buckets sin actividad desde {@code idleFor}: ya estarían llenos.
+     */
+    public int purgeIdle(Duration idleFor) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE updated_at < now() - ?::interval",
+                idleFor.toSeconds() + " seconds");
+    }
+
+    /**
+     * Toma hasta {@code want} tokens de la ventana vigente (la renueva si ya venció) con
+     * compare-and-swap sobre version. Devuelve null si no lo logra tras varios intentos.
+     */
+    private Grant acquire(String key, int capacity, long periodMs, int want) {
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            List<long[]> rows = jdbcTemplate.query(
+                    "SELECT tokens, window_start_ms, version, " + DB_NOW_MS + " FROM rate_limit_buckets WHERE bucket_key = ?",
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)},
+                    key);
+
+            if (rows.isEmpty()) {
+                int take = Math.min(want, capacity);
+                List<Long> inserted = jdbcTemplate.queryForList("""
+                        INSERT INTO rate_limit_buckets (bucket_key, tokens, window_start_ms)
+                        VALUES (?, ?, %s) ON CONFLICT (bucket_key) DO NOTHING
+                        RETURNING window_start_ms
+                        """.formatted(DB_NOW_MS), Long.class, key, capacity - take);
+                if (!inserted.isEmpty()) {
+                    granted.increment();
+                    return new Grant(take, periodMs);
+                }
+                conflicts.increment();
+                continue;
+            }
+
+            long tokens = rows.get(0)[0];
+            long windowStart = rows.get(0)[1];
+            long version = rows.get(0)[2];
+            long dbNow = rows.get(0)[3];
+            if (dbNow >= windowStart + periodMs) {
+                tokens = capacity;
+                windowStart = dbNow;
+            }
+            long take = Math.min(want, tokens);
+            if (take == 0) {
+                denied.increment();
+                return new Grant(0, windowStart + periodMs - dbNow);
+            }
+            int updated = jdbcTemplate.update("""
+                    UPDATE rate_limit_buckets
+                    SET tokens = ?, window_start_ms = ?, version = version + 1, updated_at = now()
+                    WHERE bucket_key = ? AND version = ?
+                    """, tokens - take, windowStart, key, version);
+            if (updated == 1) {
+                granted.increment();
+                return new Grant((int) take, windowStart + periodMs - dbNow);
+            }
+            conflicts.increment();
+        }
+        log.warn("[RATE LIMITER] Contención en el bucket {}: sin lease tras {} intentos", key, MAX_CAS_ATTEMPTS);
+        return null;
+    }
+
+    // Cerrado: siempre. Abierto: nunca hasta que vence; después, un único request de prueba a la vez.
+    private boolean allowStoreCall(long now) {
+        long openUntil = breakerOpenUntil.get();
+        if (openUntil == 0) {
+            return true;
+        }
+        return now - openUntil >= 0 && probing.compareAndSet(false, true);
+    }
+
+    private void closeBreaker() {
+        if (breakerOpenUntil.getAndSet(0) != 0) {
+            log.info("[RATE LIMITER] Store distribuido disponible de nuevo");
+        }
+        probing.set(false);
+    }
+
+    private void openBreaker(DataAccessException e) {
+        failures.increment();
+        if (breakerOpenUntil.getAndSet(System.nanoTime() + breakerOpenNanos) == 0) {
+            log.warn("[RATE LIMITER] Store distribuido no disponible, se usan buckets locales: {}", e.getMessage());
+        }
+        probing.set(false);
+    }
+
+    private int leaseSize(int capacity) {
+        return Math.max(1, (int) (capacity * leaseFraction));
+    }
+
+    private static Counter leaseCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ratelimit.lease.acquire").tag("result", result)
+                .description("Pedidos de lotes de tokens al store distribuido")
+                .register(meterRegistry);
+    }
+
+    private record Grant(int tokens, long remainingWindowMs) {
+    }
+
+    private static final class Lease {
+        private final AtomicLong remaining;
+
+        private Lease(long remaining) {
+            this.remaining = new AtomicLong(remaining);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.exception.FilterExceptionHandler;
+import com.cyberwallet.walletapi.security.util.CachedBodyHttpServletRequest;
+import com.cyberwallet.walletapi.service.IdempotencyService;
+import com.cyberwallet.walletapi.service.IdempotencyService.Decision;
+import com.cyberwallet.walletapi.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Soporte de Idempotency-Key para los endpoints que mueven dinero (depósito, extracción,
+ * carga con tarjeta y transferencias). Corre dentro de la cadena de seguridad, después de la
+ * autorización, así que las claves quedan aisladas por usuario autenticado.
+ *
+ * Una repetición con la misma clave y el mismo body devuelve la respuesta registrada sin
+ * volver a ejecutar la operación; con otro body se rechaza con 422.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final Set<String> MONEY_PATHS = Set.of(
+            "/api/v1/wallet/deposit",
+            "/api/v1/wallet/withdraw",
+            "/api/v1/wallet/load-card"
+    );
+    private static final String TRANSFER_PREFIX = "/api/v1/wallet/transfer/";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private final IdempotencyService idempotencyService;
+    private final FilterExceptionHandler filterExceptionHandler;
+
+    // El body se guarda en memoria para el fingerprint; los de las operaciones de dinero son chicos
+    @Value("${cyberwallet.idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !(MONEY_PATHS.contains(path) || path.startsWith(TRANSFER_PREFIX));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            filterExceptionHandler.resolveException(request, response, null, new BusinessException(ErrorCode.VALIDATION_ERROR,
+                    "La Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres."));
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String owner = authentication.getName();
+        CachedBodyHttpServletRequest cachedRequest;
+        try {
+            cachedRequest = new CachedBodyHttpServletRequest(request, maxBodyBytes);
+        } catch (BusinessException e) {
+            log.warn("[IDEMPOTENCY] Body rechazado por tamaño en {} {}", request.getMethod(), request.getRequestURI());
+            filterExceptionHandler.resolveException(request, response, null, e);
+            return;
+        }
+        String fingerprint = fingerprint(cachedRequest);
+        Decision decision = idempotencyService.begin(owner, key, fingerprint);
+
+        switch (decision.getOutcome()) {
+            case REPLAY -> {
+                log.info("[IDEMPOTENCY] Respuesta repetida para {} {} (clave {})", request.getMethod(), request.getRequestURI(), key);
+                writeStoredResponse(response, decision.getResponse());
+            }
+            case MISMATCH -> filterExceptionHandler.resolveException(request, response, null,
+                    new BusinessException(ErrorCode.IDEMPOTENCY_KEY_REUSED, "La Idempotency-Key ya se usó con una solicitud distinta."));
+            case IN_PROGRESS -> filterExceptionHandler.resolveException(request, response, null,
+                    new BusinessException(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS, "Ya hay una solicitud en curso con esta Idempotency-Key."));
+            case PROCEED -> execute(cachedRequest, response, filterChain, owner, key, fingerprint);
+        }
+    }
+
+    private void execute(CachedBodyHttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String owner, String key, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            int status = responseWrapper.getStatus();
+            if (isReplayable(status)) {
+                Charset charset = Charset.forName(responseWrapper.getCharacterEncoding());
+                idempotencyService.complete(owner, key, new StoredResponse(fingerprint, status,
+                        responseWrapper.getContentType(), new String(responseWrapper.getContentAsByteArray(), charset)));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(owner, key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Se registran los resultados definitivos de la operación (éxito o error de negocio).
+     * Los errores transitorios (5xx, 408, 409, 429) y los de autenticación se liberan para permitir reintentar.
+     * Un 202 (operación sin confirmar) también se guarda: liberar la clave permitiría ejecutarla dos veces.
+     */
+    private boolean isReplayable(int status) {
+        return status < 500 && status != 401 && status != 403 && status != 408 && status != 409 && status != 429;
+    }
+
+    private void writeStoredResponse(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = stored.getBody() == null ? new byte[0] : stored.getBody().getBytes(StandardCharsets.UTF_8);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+
+    private String fingerprint(CachedBodyHttpServletRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(request.getBody());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
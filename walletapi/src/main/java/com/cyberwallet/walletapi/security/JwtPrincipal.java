@@ -0,0 +1,71 @@
+package com.cyberwallet.walletapi.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Usuario autenticado armado a partir de los claims del JWT (sub = email, uid, rol), sin cargar la
+ * entidad. Que la cuenta siga activa y el token no esté revocado lo verifica {@link TokenEpochRegistry}.
+ */
+@Getter
+public class JwtPrincipal implements UserDetails {
+
+    private final UUID id;
+    private final String email;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(UUID id, String email, List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.authorities = authorities;
+    }
+
+    static JwtPrincipal fromClaims(Claims claims, UUID userId) {
+        List<?> roles = claims.get(JwtService.ROLES_CLAIM, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString())).toList();
+        return new JwtPrincipal(userId, claims.getSubject(), authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -2,40 +2,84 @@
 
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Emisión y verificación de JWT.
+ *
+ * La clave de firma y el parser se construyen una sola vez. Los claims verificados se guardan en un
+ * cache acotado indexado por el SHA-256 del token: un token en uso se verifica (HMAC) una vez y las
+ * lecturas siguientes sólo comprueban su exp, así que nunca se sirve un token vencido desde el cache.
+ */
 @Service
 public class JwtService {
 
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TOKEN_EPOCH_CLAIM = "tep";
+    public static final String ROLES_CLAIM = "rol";
+
     @Value("${JWT_SECRET}")
     private String jwtSecretHex;
 
     @Value("${JWT_EXPIRATION_MS:86400000}")
     private long jwtExpirationMs;
 
+    private final BoundedCache<String, Claims> verifiedClaims;
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
+    public JwtService(BoundedCacheFactory cacheFactory,
+                      @Value("${cyberwallet.jwt.claims-cache-size:10000}") int claimsCacheSize,
+                      @Value("${cyberwallet.jwt.claims-cache-ttl-seconds:300}") long claimsCacheTtlSeconds) {
+        this.verifiedClaims = cacheFactory.create("jwt.claims", claimsCacheSize, Duration.ofSeconds(claimsCacheTtlSeconds));
+    }
+
     public String generateToken(UserDetails userDetails) {
         log.debug("[JWT] Generando token para usuario: {}", userDetails.getUsername());
+        return baseToken(userDetails).compact();
+    }
+
+    /**
+     * Token con el id del usuario y su época de tokens vigente: si la época cambia, el token deja de valer.
+     */
+    public String generateToken(UserDetails userDetails, UUID userId, int tokenEpoch) {
+        log.debug("[JWT] Generando token para usuario: {} (época {})", userDetails.getUsername(), tokenEpoch);
+        return baseToken(userDetails)
+                .claim(USER_ID_CLAIM, userId.toString())
+                .claim(TOKEN_EPOCH_CLAIM, tokenEpoch)
+                .compact();
+    }
+
+    private JwtBuilder baseToken(UserDetails userDetails) {
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
                 .setId(UUID.randomUUID().toString())
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256);
     }
 
     public String extractUsername(String token) {
@@ -43,53 +87,104 @@ public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public String extractJti(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
+    /**
+     * @return id del usuario (claim "uid"), o null en tokens emitidos antes de la época de tokens.
+     */
+    public UUID extractUserId(String token) {
+        return extractClaim(token, JwtService::userIdOf);
+    }
+
+    /**
+     * @return época de tokens del token (claim "tep"); 0 si no la tiene.
+     */
+    public int extractTokenEpoch(String token) {
+        return extractClaim(token, JwtService::tokenEpochOf);
+    }
+
     public Date getExpirationDate(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = parseAllClaimsWithExceptionHandling(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseClaims(token));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            final String username = claims.getSubject();
-            final Date expiration = claims.getExpiration();
-
-            if (username == null) {
-                log.warn("[JWT] Token sin username.");
-                return false;
-            }
-
-            boolean valid = username.equals(userDetails.getUsername()) && !expiration.before(new Date());
-            if (valid) {
-                log.debug("[JWT] Token válido para usuario: {}", userDetails.getUsername());
-            } else {
-                log.warn("[JWT] Token inválido por expiración o mismatch.");
-            }
-
-            return valid;
-
-        } catch (JwtException | IllegalArgumentException e) {
+            return isTokenValid(parseClaims(token), userDetails);
+        } catch (BusinessException e) {
             log.warn("[JWT] Token inválido: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Valida claims ya verificados (ver {@link #parseClaims}) contra el usuario cargado.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        final Date expiration = claims.getExpiration();
+
+        if (username == null) {
+            log.warn("[JWT] Token sin username.");
+            return false;
+        }
+
+        boolean valid = username.equals(userDetails.getUsername()) && !expiration.before(new Date());
+        if (valid) {
+            log.debug("[JWT] Token válido para usuario: {}", userDetails.getUsername());
+        } else {
+            log.warn("[JWT] Token inválido por expiración o mismatch.");
+        }
+
+        return valid;
+    }
+
+    /**
+     * Claims del token con firma verificada y sin vencer. Un token ya verificado se sirve desde el cache.
+     *
+     * @throws BusinessException INVALID_TOKEN si el token es inválido o expiró.
+     */
+    public Claims parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            throw new BusinessException(ErrorCode.INVALID_TOKEN, "Token inválido");
+        }
+        String key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims == null) {
+            claims = parseAllClaimsWithExceptionHandling(token);
+            verifiedClaims.put(key, claims);
+        } else if (claims.getExpiration() != null && !claims.getExpiration().after(new Date())) {
+            verifiedClaims.invalidate(key);
+            log.warn("[JWT] Token expirado: {}", claims.getExpiration());
+            throw new BusinessException(ErrorCode.INVALID_TOKEN, "Token expirado");
+        }
+        return claims;
+    }
+
+    /**
+     * @return id del usuario (claim "uid"), o null en tokens emitidos antes de la época de tokens.
+     */
+    public static UUID userIdOf(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return userId == null ? null : UUID.fromString(userId);
+    }
+
+    /**
+     * @return época de tokens (claim "tep"); 0 si el token no la tiene.
+     */
+    public static int tokenEpochOf(Claims claims) {
+        Integer epoch = claims.get(TOKEN_EPOCH_CLAIM, Integer.class);
+        return epoch == null ? 0 : epoch;
+    }
+
     private Claims parseAllClaimsWithExceptionHandling(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser().parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException ex) {
             log.warn("[JWT] Token expirado: {}", ex.getMessage());
             throw new BusinessException(ErrorCode.INVALID_TOKEN, "Token expirado");
@@ -100,7 +195,30 @@ private Claims parseAllClaimsWithExceptionHandling(String token) {
     }
 
     public Key getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretHex));
+        Key key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretHex));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 
     public String extractUsernameFromBearer(String bearerToken) {
@@ -115,6 +233,9 @@ public String extractUsernameFromBearer(String bearerToken) {
 
     public void setJwtSecretHex(String jwtSecretHex) {
         this.jwtSecretHex = jwtSecretHex;
+        this.signingKey = null;
+        this.parser = null;
+        this.verifiedClaims.invalidateAll();
     }
 
     public void setJwtExpirationMs(long jwtExpirationMs) {
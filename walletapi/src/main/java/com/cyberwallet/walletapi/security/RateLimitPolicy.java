@@ -0,0 +1,29 @@
+package com.cyberwallet.walletapi.security;
+
+/**
+ * Políticas de rate limiting. Cada una se configura en {@code cyberwallet.ratelimit.policies.<clave>}
+ * con {@code capacity} (solicitudes) y {@code period-seconds}; los valores de acá son los por defecto.
+ * Login se limita por IP de cliente; el resto, por usuario autenticado.
+ */
+public enum RateLimitPolicy {
+
+    LOGIN("login", 5, 60),
+    TRANSFER("transfer", 10, 60),
+    DEPOSIT("deposit", 10, 60),
+    WITHDRAW("withdraw", 10, 60),
+    LOAD_CARD("load-card", 5, 60);
+
+    private final String key;
+    private final int defaultCapacity;
+    private final long defaultPeriodSeconds;
+
+    RateLimitPolicy(String key, int defaultCapacity, long defaultPeriodSeconds) {
+        this.key = key;
+        this.defaultCapacity = defaultCapacity;
+        this.defaultPeriodSeconds = defaultPeriodSeconds;
+    }
+
+    public String getKey() { return key; }
+    public int getDefaultCapacity() { return defaultCapacity; }
+    public long getDefaultPeriodSeconds() { return defaultPeriodSeconds; }
+}
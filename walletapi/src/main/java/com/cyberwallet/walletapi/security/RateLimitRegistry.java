@@ -0,0 +1,131 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Buckets de rate limiting por política y sujeto (IP o usuario), acotados en memoria.
+ *
+ * Cada política guarda sus buckets en un {@link BoundedCache} de {@code max-buckets} entradas cuyo
+ * vencimiento es el período de la política: a esa altura un bucket ya se habría recargado entero,
+ * así que descartarlo no cambia el límite. Con el cache lleno se desaloja por frecuencia de uso
+ * (W-TinyLFU): una ráfaga de sujetos nuevos (IPs rotadas) no desplaza a los buckets activos ni
+ * obliga a compartir cupo entre clientes distintos.
+ *
+ * Con {@code cyberwallet.ratelimit.distributed.enabled} el cupo se comparte entre instancias a través
+ * de {@link DistributedRateLimitStore}; si la base no responde se usan los buckets locales.
+ */
+@Component
+public class RateLimitRegistry {
+
+    private final Map<RateLimitPolicy, Limit> limits = new EnumMap<>(RateLimitPolicy.class);
+    private final Map<RateLimitPolicy, BoundedCache<String, Bucket>> buckets = new EnumMap<>(RateLimitPolicy.class);
+    private final Map<RateLimitPolicy, Counter> rejected = new EnumMap<>(RateLimitPolicy.class);
+    private final Environment environment;
+    private final DistributedRateLimitStore distributedStore;
+    private final boolean rateLimitEnabled;
+    private final boolean distributed;
+
+    public RateLimitRegistry(Environment environment,
+                             MeterRegistry meterRegistry,
+                             BoundedCacheFactory cacheFactory,
+                             DistributedRateLimitStore distributedStore,
+                             @Value("${cyberwallet.ratelimit.enabled:true}") boolean rateLimitEnabled,
+                             @Value("${cyberwallet.ratelimit.distributed.enabled:false}") boolean distributed,
+                             @Value("${cyberwallet.ratelimit.max-buckets:100000}") int maxBuckets) {
+        this.environment = environment;
+        this.distributedStore = distributedStore;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.distributed = distributed;
+        for (RateLimitPolicy policy : RateLimitPolicy.values()) {
+            String prefix = "cyberwallet.ratelimit.policies." + policy.getKey();
+            Limit limit = new Limit(
+                    environment.getProperty(prefix + ".capacity", Integer.class, policy.getDefaultCapacity()),
+                    Duration.ofSeconds(environment.getProperty(prefix + ".period-seconds", Long.class, policy.getDefaultPeriodSeconds())));
+            limits.put(policy, limit);
+            buckets.put(policy, cacheFactory.create("ratelimit." + policy.getKey(), maxBuckets, limit.period()));
+            rejected.put(policy, Counter.builder("ratelimit.rejected").tag("policy", policy.getKey())
+                    .description("Solicitudes rechazadas por rate limiting")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Desactivado por configuración o con los perfiles test/dev activos.
+     */
+    public boolean isEnabled() {
+        return rateLimitEnabled && !isTestProfileActive();
+    }
+
+    /**
+     * @return true si el sujeto todavía tiene cupo en la política (y lo consume).
+     */
+    public boolean tryConsume(RateLimitPolicy policy, String subject) {
+        Limit limit = limits.get(policy);
+        Boolean shared = distributed ? distributedStore.tryConsume(storeKey(policy, subject), limit.capacity(), limit.period()) : null;
+        boolean allowed = shared != null ? shared : buckets.get(policy).get(subject, k -> limit.newBucket()).tryConsume(1);
+        if (!allowed) {
+            rejected.get(policy).increment();
+        }
+        return allowed;
+    }
+
+    public void reset() {
+        buckets.values().forEach(BoundedCache::invalidateAll);
+        if (distributed) {
+            distributedStore.reset();
+        }
+    }
+
+    public void reset(String subject) {
+        buckets.values().forEach(cache -> cache.invalidate(subject));
+        if (distributed) {
+            distributedStore.reset(Arrays.stream(RateLimitPolicy.values()).map(policy -> storeKey(policy, subject)).toList());
+        }
+    }
+
+    /**
+     * En modo distribuido, borra de la base los buckets sin uso durante el período más largo.
+     */
+    public int purgeIdleShared() {
+        if (!distributed) {
+            return 0;
+        }
+        Duration longest = limits.values().stream().map(Limit::period).max(Duration::compareTo).orElse(Duration.ZERO);
+        return distributedStore.purgeIdle(longest);
+    }
+
+    private static String storeKey(RateLimitPolicy policy, String subject) {
+        return policy.getKey() + ":" + subject;
+    }
+
+    private boolean isTestProfileActive() {
+        for (String profile : environment.getActiveProfiles()) {
+            if ("test".equalsIgnoreCase(profile) || "dev".equalsIgnoreCase(profile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Limit(int capacity, Duration period) {
+        private Bucket newBucket() {
+            return Bucket.builder()
+                    .addLimit(Bandwidth.classic(capacity, Refill.intervally(capacity, period)))
+                    .build();
+        }
+    }
+}
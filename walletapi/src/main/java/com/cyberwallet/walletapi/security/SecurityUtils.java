@@ -13,9 +13,9 @@ public class SecurityUtils {
 
     public UUID getCurrentUserIdOrThrow() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !(auth.getPrincipal() instanceof UserDetailsImpl)) {
+        if (auth == null || !(auth.getPrincipal() instanceof JwtPrincipal principal)) {
             throw new BusinessException(ErrorCode.UNAUTHORIZED, "No se pudo determinar el usuario autenticado.");
         }
-        return ((UserDetailsImpl) auth.getPrincipal()).getId();
+        return principal.getId();
     }
 }
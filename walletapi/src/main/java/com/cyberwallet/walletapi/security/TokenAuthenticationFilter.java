@@ -0,0 +1,142 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ProblemDetails;
+import com.cyberwallet.walletapi.security.util.PublicPathMatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Autenticación por JWT en una sola pasada: lee el header Authorization una vez, verifica el token
+ * (o lo toma del cache de claims), rechaza los revocados por jti y arma el principal desde los claims.
+ *
+ * Corre sólo dentro de la cadena de seguridad; su registro como filtro del servlet container está
+ * desactivado en {@code SecurityConfig}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PublicPathMatcher.isPublicPath(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            log.debug("[JWT] Authorization header ausente o mal formado [{} {}]", request.getMethod(), request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final Claims claims;
+        try {
+            claims = jwtService.parseClaims(authHeader.substring(BEARER_PREFIX.length()).trim());
+        } catch (BusinessException | JwtException e) {
+            // Token ilegible o expirado: el request sigue sin autenticar y lo rechaza el entry point si hace falta
+            log.warn("[JWT] Token JWT mal formado o inválido: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (tokenRevocationRegistry.isRevoked(claims.getId())) {
+            log.warn("[SECURITY] Token revocado. Acceso denegado [{} {}]", request.getMethod(), request.getRequestURI());
+            SecurityContextHolder.clearContext();
+            writeAlreadyLoggedOut(request, response);
+            return;
+        }
+
+        String username = claims.getSubject();
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtPrincipal principal = resolvePrincipal(claims, username);
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                log.debug("[JWT] Token válido. Usuario autenticado: {}", username);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Arma el principal desde los claims. Tokens emitidos antes de un cambio de contraseña o de
+     * "cerrar sesión en todos lados" quedan con otra época; usuarios suspendidos o dados de baja no pasan.
+     */
+    private JwtPrincipal resolvePrincipal(Claims claims, String username) {
+        UUID userId = JwtService.userIdOf(claims);
+        if (userId == null) {
+            // Token emitido sin claim uid: se resuelve el usuario una vez desde la base
+            try {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (!(userDetails instanceof UserDetailsImpl details) || !jwtService.isTokenValid(claims, userDetails)) {
+                    log.warn("[JWT] Token inválido para usuario: {}", username);
+                    return null;
+                }
+                userId = details.getId();
+            } catch (BusinessException e) {
+                log.warn("[JWT] Token de un usuario inexistente: {}", username);
+                return null;
+            }
+        }
+        if (!tokenEpochRegistry.isCurrent(userId, JwtService.tokenEpochOf(claims))) {
+            log.warn("[JWT] Token revocado o usuario inactivo: {}", username);
+            return null;
+        }
+        return JwtPrincipal.fromClaims(claims, userId);
+    }
+
+    private void writeAlreadyLoggedOut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemDetails problemDetails = ProblemDetails.builder()
+                .type("https://api.cyberwallet.com/problems/already-logged-out")
+                .title("Sesión ya cerrada")
+                .status(HttpStatus.UNAUTHORIZED.value())
+                .detail("El token ya fue invalidado. Debes volver a iniciar sesión.")
+                .instance(request.getRequestURI())
+                .extensions(Map.of("timestamp", LocalDateTime.now()))
+                .build();
+
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(problemDetails));
+        response.getWriter().flush();
+    }
+}
@@ -0,0 +1,93 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.entity.UserStatus;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Estado de autenticación por usuario: época de tokens (users.token_epoch) y si la cuenta puede operar.
+ *
+ * Un JWT vale sólo si su claim "tep" coincide con la época vigente y el usuario está activo y no
+ * dado de baja. El estado se lee de un cache acotado, así que autenticar un request no va a la base.
+ * {@link #advance} invalida de una vez todos los tokens del usuario; {@link #invalidate} fuerza a
+ * releer el estado tras un cambio de status. En esta instancia el efecto es inmediato; en las demás,
+ * a más tardar al vencer la entrada del cache ({@code cyberwallet.token-epoch.cache-ttl-seconds}).
+ */
+@Component
+@Slf4j
+public class TokenEpochRegistry {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedCache<UUID, AuthState> states;
+
+    public TokenEpochRegistry(JdbcTemplate jdbcTemplate,
+                              BoundedCacheFactory cacheFactory,
+                              @Value("${cyberwallet.token-epoch.cache-size:100000}") int cacheSize,
+                              @Value("${cyberwallet.token-epoch.cache-ttl-seconds:30}") long cacheTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.states = cacheFactory.create("token.epoch", cacheSize, Duration.ofSeconds(cacheTtlSeconds));
+    }
+
+    /**
+     * @return true si el token con esa época sigue valiendo: misma época y usuario activo.
+     */
+    public boolean isCurrent(UUID userId, int tokenEpoch) {
+        AuthState state = states.get(userId, this::load);
+        return state != null && state.active() && state.epoch() == tokenEpoch;
+    }
+
+    /**
+     * Incrementa la época del usuario: todos sus tokens emitidos hasta ahora dejan de valer.
+     *
+     * @return la nueva época.
+     */
+    public int advance(UUID userId) {
+        List<Integer> updated = jdbcTemplate.queryForList(
+                "UPDATE users SET token_epoch = token_epoch + 1 WHERE id = ? RETURNING token_epoch", Integer.class, userId);
+        if (updated.isEmpty()) {
+            throw new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado.");
+        }
+        invalidate(userId);
+        log.info("[TOKEN-EPOCH] Tokens del usuario {} invalidados (época {})", userId, updated.get(0));
+        return updated.get(0);
+    }
+
+    /**
+     * Descarta el estado cacheado del usuario (cambio de status o baja). Dentro de una transacción
+     * se descarta también al terminar, para no quedarse con un valor leído antes del commit.
+     */
+    public void invalidate(UUID userId) {
+        states.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    states.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private AuthState load(UUID userId) {
+        List<AuthState> state = jdbcTemplate.query(
+                "SELECT token_epoch, status FROM users WHERE id = ? AND deleted = false",
+                (rs, rowNum) -> new AuthState(rs.getInt(1), UserStatus.ACTIVE.name().equals(rs.getString(2))),
+                userId);
+        return state.isEmpty() ? null : state.get(0);
+    }
+
+    private record AuthState(int epoch, boolean active) {
+    }
+}
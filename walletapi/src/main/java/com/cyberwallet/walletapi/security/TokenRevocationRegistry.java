@@ -0,0 +1,163 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.entity.BlacklistedToken;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.repository.BlacklistedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocaciones de JWT por jti, en memoria.
+ *
+ * El chequeo por request es un lookup en un hash; blacklisted_tokens sólo se usa para durabilidad,
+ * para la carga al iniciar y para sincronizar las revocaciones hechas en otras instancias.
+ * Una cola ordenada por vencimiento descarta cada jti cuando el JWT revocado expira por sí mismo,
+ * así que el conjunto nunca crece más allá de los tokens revocados todavía vigentes.
+ *
+ * Hasta que termina la primera carga (al arrancar, o en la siguiente sincronización si falló) el
+ * chequeo va a la base: Tomcat ya acepta requests antes de ApplicationReadyEvent.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final JwtService jwtService;
+    private final long syncLagSeconds;
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private final PriorityQueue<Revocation> byExpiry = new PriorityQueue<>(Comparator.comparing(Revocation::expiresAt));
+    private LocalDateTime watermark;
+    private volatile boolean loaded;
+
+    public TokenRevocationRegistry(BlacklistedTokenRepository blacklistedTokenRepository,
+                                   JwtService jwtService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cyberwallet.token-revocation.sync-lag-seconds:60}") long syncLagSeconds) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.jwtService = jwtService;
+        this.syncLagSeconds = syncLagSeconds;
+        Gauge.builder("jwt.revoked.size", revoked, Map::size)
+                .description("JWT revocados todavía vigentes en memoria")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (revoked.containsKey(jti)) {
+            return true;
+        }
+        return !loaded && blacklistedTokenRepository.existsByJti(jti);
+    }
+
+    /**
+     * Revoca el token: lo persiste y, cuando la transacción hace commit, lo agrega al conjunto en
+     * memoria (un rollback no deja una revocación que no está en la base).
+     */
+    @Transactional
+    public void revoke(String jti, String token, LocalDateTime expiresAt) {
+        blacklistedTokenRepository.saveAndFlush(BlacklistedToken.builder()
+                .token(token)
+                .jti(jti)
+                .blacklistedAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(jti, expiresAt);
+                }
+            });
+        } else {
+            remember(jti, expiresAt);
+        }
+    }
+
+    /**
+     * Carga las revocaciones vigentes de todas las instancias.
+     */
+    public synchronized void load() {
+        LocalDateTime started = LocalDateTime.now();
+        int before = revoked.size();
+        blacklistedTokenRepository.findByExpiresAtAfter(started).forEach(this::remember);
+        watermark = started;
+        loaded = true;
+        log.info("[REVOCATION] Revocaciones vigentes cargadas: {}", revoked.size() - before);
+    }
+
+    /**
+     * Incorpora las revocaciones registradas desde la última pasada (con margen para commits tardíos).
+     */
+    public synchronized void sync() {
+        if (watermark == null) {
+            load();
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        blacklistedTokenRepository
+                .findByBlacklistedAtGreaterThanEqualAndExpiresAtAfter(watermark.minusSeconds(syncLagSeconds), started)
+                .forEach(this::remember);
+        watermark = started;
+    }
+
+    /**
+     * Descarta los jti cuyos tokens ya expiraron: el JWT expirado se rechaza sin consultar este registro.
+     */
+    public int evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int evicted = 0;
+        synchronized (byExpiry) {
+            while (!byExpiry.isEmpty() && !byExpiry.peek().expiresAt().isAfter(now)) {
+                Revocation head = byExpiry.poll();
+                revoked.remove(head.jti(), head.expiresAt());
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private void remember(BlacklistedToken row) {
+        String jti = row.getJti();
+        if (jti == null) {
+            jti = legacyJti(row.getToken());
+        }
+        if (jti != null) {
+            remember(jti, row.getExpiresAt());
+        }
+    }
+
+    private void remember(String jti, LocalDateTime expiresAt) {
+        if (revoked.putIfAbsent(jti, expiresAt) == null) {
+            synchronized (byExpiry) {
+                byExpiry.add(new Revocation(jti, expiresAt));
+            }
+        }
+    }
+
+    // Filas anteriores a la columna jti: se toma el claim del token guardado
+    private String legacyJti(String token) {
+        try {
+            return jwtService.extractJti(token);
+        } catch (BusinessException e) {
+            log.debug("[REVOCATION] Token revocado sin jti legible, se ignora: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private record Revocation(String jti, LocalDateTime expiresAt) {
+    }
+}
@@ -7,19 +7,23 @@
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     /**
      * Spring Security usa este método para cargar un usuario por email (username).
+     * Sólo se usa en el login y para tokens emitidos sin claim uid; el resto de los requests
+     * se autentican con {@link JwtPrincipal}.
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -31,7 +35,19 @@ public UserDetails loadUserByUsername(String email) throws UsernameNotFoundExcep
                     return new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado.");
                 });
 
-        log.info("[SECURITY] Usuario encontrado: {} ({})", user.getEmail(), user.getId());
+        log.debug("[SECURITY] Usuario encontrado: {} ({})", user.getEmail(), user.getId());
         return new UserDetailsImpl(user);
     }
+
+    /**
+     * Spring Security lo llama tras un login exitoso cuando el hash guardado tiene un costo menor al
+     * configurado ({@link BoundedPasswordEncoder#upgradeEncoding}): se guarda el hash nuevo.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        log.info("[SECURITY] Hash de contraseña actualizado al costo vigente: {}", user.getUsername());
+        return user;
+    }
 }
@@ -0,0 +1,71 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.exception.FilterExceptionHandler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Rate limiting por usuario autenticado en los endpoints que mueven dinero.
+ * Corre dentro de la cadena de seguridad, después de {@link TokenAuthenticationFilter}; su registro
+ * como filtro del servlet container está desactivado en {@code SecurityConfig}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Map<String, RateLimitPolicy> MONEY_PATHS = Map.of(
+            "/api/v1/wallet/deposit", RateLimitPolicy.DEPOSIT,
+            "/api/v1/wallet/withdraw", RateLimitPolicy.WITHDRAW,
+            "/api/v1/wallet/load-card", RateLimitPolicy.LOAD_CARD
+    );
+    private static final String TRANSFER_PREFIX = "/api/v1/wallet/transfer/";
+
+    private final RateLimitRegistry rateLimitRegistry;
+    private final FilterExceptionHandler filterExceptionHandler;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod()) || policyFor(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (rateLimitRegistry.isEnabled() && authentication != null
+                && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            RateLimitPolicy policy = policyFor(request.getRequestURI());
+            if (!rateLimitRegistry.tryConsume(policy, principal.getId().toString())) {
+                log.warn("[RATE LIMITER] Usuario {} excedió el límite de {}", principal.getId(), policy.getKey());
+                filterExceptionHandler.resolveException(request, response, null,
+                        new BusinessException(ErrorCode.RATE_LIMIT_EXCEEDED, "Demasiadas operaciones. Por favor intente más tarde."));
+                return;
+            }
+        }
+        // Sin usuario autenticado lo rechaza la autorización
+        filterChain.doFilter(request, response);
+    }
+
+    private static RateLimitPolicy policyFor(String path) {
+        RateLimitPolicy policy = MONEY_PATHS.get(path);
+        if (policy == null && path.startsWith(TRANSFER_PREFIX)) {
+            policy = RateLimitPolicy.TRANSFER;
+        }
+        return policy;
+    }
+}
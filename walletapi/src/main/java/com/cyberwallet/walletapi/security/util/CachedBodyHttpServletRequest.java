@@ -0,0 +1,98 @@
+package com.cyberwallet.walletapi.security.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request que lee el body una sola vez y permite volver a leerlo (p. ej. para calcular
+ * un fingerprint en un filtro antes de que el controlador lo deserialice).
+ *
+ * El body se guarda entero en memoria, así que se acota: si supera {@code maxBytes} se rechaza con
+ * PAYLOAD_TOO_LARGE sin terminar de leerlo.
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        if (request.getContentLengthLong() > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        // Content-Length puede faltar (chunked): se lee un byte de más para detectar el exceso
+        byte[] read = request.getInputStream().readNBytes(maxBytes + 1);
+        if (read.length > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        this.body = read;
+    }
+
+    private static BusinessException tooLarge(int maxBytes) {
+        return new BusinessException(ErrorCode.PAYLOAD_TOO_LARGE,
+                "El cuerpo de la solicitud supera el máximo de " + maxBytes + " bytes.");
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // El body ya está en memoria: el listener puede leerlo todo de una vez
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    if (isFinished()) {
+                        readListener.onAllDataRead();
+                    } else {
+                        readListener.onDataAvailable();
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    }
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
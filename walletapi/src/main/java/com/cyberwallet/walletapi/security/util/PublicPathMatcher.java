@@ -3,6 +3,10 @@
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Decide si una ruta es pública con un trie de prefijos precompilado: una sola pasada por los
+ * caracteres de la ruta, sin importar cuántas rutas o prefijos públicos haya.
+ */
 public class PublicPathMatcher {
 
     private PublicPathMatcher() {
@@ -30,11 +34,54 @@ private PublicPathMatcher() {
             "/actuator"
     );
 
+    private static final Node ROOT = compile();
+
     public static boolean isPublicPath(String path) {
-        if (PUBLIC_PATHS.contains(path)) return true;
-        for (String prefix : PUBLIC_PREFIXES) {
-            if (path.startsWith(prefix)) return true;
+        if (path == null) return false;
+        Node node = ROOT;
+        for (int i = 0; i < path.length(); i++) {
+            if (node.prefix) return true;
+            node = node.child(path.charAt(i));
+            if (node == null) return false;
+        }
+        return node.prefix || node.exact;
+    }
+
+    private static Node compile() {
+        Node root = new Node();
+        PUBLIC_PATHS.forEach(path -> root.insert(path).exact = true);
+        PUBLIC_PREFIXES.forEach(prefix -> root.insert(prefix).prefix = true);
+        return root;
+    }
+
+    /**
+     * Nodo del trie. Las rutas son ASCII, así que los hijos se indexan directo por carácter;
+     * cualquier otro carácter no coincide con ninguna ruta pública.
+     */
+    private static final class Node {
+        private static final int ALPHABET = 128;
+
+        private Node[] children;
+        private boolean exact;
+        private boolean prefix;
+
+        private Node child(char c) {
+            return children == null || c >= ALPHABET ? null : children[c];
+        }
+
+        private Node insert(String path) {
+            Node node = this;
+            for (int i = 0; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (node.children == null) {
+                    node.children = new Node[ALPHABET];
+                }
+                if (node.children[c] == null) {
+                    node.children[c] = new Node();
+                }
+                node = node.children[c];
+            }
+            return node;
         }
-        return false;
     }
 }
@@ -9,6 +9,7 @@ public interface AuthService {
     AuthenticationResponse authenticate(AuthenticationRequest request);
     void activateAccount(String token);
     void logout(String token);
+    void logoutAll(String email);
     void sendPasswordResetToken(ForgotPasswordRequest request); // 🔥
     void resetPassword(ResetPasswordRequest request); // 🔥
     void updateProfile(UpdateUserProfileRequestDTO request, String currentUserEmail);
@@ -15,6 +15,10 @@ public class DatabaseCleanupService {
     @Transactional
     public void cleanDatabase() {
         entityManager.createNativeQuery("TRUNCATE TABLE transacciones CASCADE").executeUpdate();
+        entityManager.createNativeQuery("TRUNCATE TABLE daily_outflow CASCADE").executeUpdate();
+        entityManager.createNativeQuery("TRUNCATE TABLE idempotency_keys CASCADE").executeUpdate();
+        entityManager.createNativeQuery("TRUNCATE TABLE ledger_entries").executeUpdate();
+        entityManager.createNativeQuery("TRUNCATE TABLE balance_checkpoints").executeUpdate();
         entityManager.createNativeQuery("TRUNCATE TABLE password_reset_tokens CASCADE").executeUpdate();
         entityManager.createNativeQuery("TRUNCATE TABLE activation_tokens CASCADE").executeUpdate();
         entityManager.createNativeQuery("TRUNCATE TABLE blacklisted_tokens CASCADE").executeUpdate();
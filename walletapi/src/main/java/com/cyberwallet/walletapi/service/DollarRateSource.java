@@ -0,0 +1,14 @@
+package com.cyberwallet.walletapi.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Origen de las cotizaciones del dólar. Se elige con {@code cyberwallet.dollar.source}:
+ * {@code dolarapi} (por defecto, https://dolarapi.com) o {@code stub} (archivo local, para tests y desarrollo).
+ * Cada elemento tiene el formato de dolarapi.com (nombre, compra, venta, ...).
+ */
+public interface DollarRateSource {
+
+    List<Map<String, Object>> fetchRates();
+}
@@ -1,65 +1,118 @@
 package com.cyberwallet.walletapi.service;
 
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.model.DollarRateEntity;
 import com.cyberwallet.walletapi.repository.DollarRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Cotizaciones del dólar servidas desde memoria.
+ *
+ * {@link #refresh()} (tarea programada) consulta el {@link DollarRateSource}, calcula el cambio
+ * (up/down/neutral) contra la última venta conocida, persiste sólo las ventas que cambiaron y publica
+ * una foto inmutable. {@link #getDollarRates()} devuelve esa foto sin I/O; si el upstream falla se
+ * sigue sirviendo la última foto buena hasta el próximo refresco exitoso. En un arranque en frío con el
+ * upstream caído se sirven las últimas ventas guardadas en dollar_rate.
+ */
 @Service
-@RequiredArgsConstructor
 public class DollarService {
-    private final RestTemplate restTemplate;
-    private final DollarRateRepository dollarRateRepository;
+
     private static final Logger log = LoggerFactory.getLogger(DollarService.class);
 
-    public List<Map<String, Object>> getDollarRates() {
-        String apiUrl = "https://dolarapi.com/v1/dolares";
-        log.debug("[DOLLAR] Solicitando cotizaciones desde: {}", apiUrl);
+    private final DollarRateSource dollarRateSource;
+    private final DollarRateRepository dollarRateRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Última venta por nombre; sólo la toca refresh(), que corre en un único hilo
+    private Map<String, Double> lastSales;
 
-        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                apiUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-        );
+    public DollarService(DollarRateSource dollarRateSource,
+                         DollarRateRepository dollarRateRepository,
+                         MeterRegistry meterRegistry) {
+        this.dollarRateSource = dollarRateSource;
+        this.dollarRateRepository = dollarRateRepository;
+        Gauge.builder("dollar.rates.age", snapshot, ref -> ref.get() == null ? Double.NaN
+                        : Duration.between(ref.get().fetchedAt(), Instant.now()).toSeconds())
+                .description("Antigüedad en segundos de las cotizaciones servidas")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return la última foto de cotizaciones (inmutable), sin consultar upstream ni base.
+     */
+    public List<Map<String, Object>> getDollarRates() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "Las cotizaciones todavía no están disponibles.");
+        }
+        return current.rates();
+    }
 
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-            log.error("[DOLLAR] ❌ Error al obtener cotización. Status: {}", response.getStatusCode());
-            throw new RuntimeException("No se pudo obtener la cotización del dólar.");
+    /**
+     * Consulta el origen y publica una foto nueva. Ante un error la foto vigente queda intacta.
+     */
+    public synchronized void refresh() {
+        if (lastSales == null) {
+            lastSales = new HashMap<>();
+            List<Map<String, Object>> persisted = new ArrayList<>();
+            dollarRateRepository.findAll().forEach(rate -> {
+                lastSales.put(rate.getNombre(), rate.getUltimaVenta());
+                Map<String, Object> seeded = new LinkedHashMap<>();
+                seeded.put("nombre", rate.getNombre());
+                seeded.put("venta", rate.getUltimaVenta());
+                seeded.put("change", "neutral");
+                persisted.add(Collections.unmodifiableMap(seeded));
+            });
+            // La base no guarda cuándo se cotizó: la antigüedad queda al máximo hasta el primer refresco exitoso
+            if (!persisted.isEmpty()) {
+                snapshot.compareAndSet(null, new Snapshot(List.copyOf(persisted), Instant.EPOCH));
+                log.info("[DOLLAR] Cotizaciones iniciales tomadas de la base: {}", persisted.size());
+            }
         }
 
-        List<Map<String, Object>> result = response.getBody();
+        List<Map<String, Object>> fetched = dollarRateSource.fetchRates();
+        List<Map<String, Object>> rates = new ArrayList<>(fetched.size());
+        List<DollarRateEntity> changed = new ArrayList<>();
 
-        for (Map<String, Object> rate : result) {
+        for (Map<String, Object> source : fetched) {
+            Map<String, Object> rate = new LinkedHashMap<>(source);
             String nombre = (String) rate.get("nombre");
             double nuevaVenta = toDouble(rate.get("venta"));
-
-            Optional<DollarRateEntity> existente = dollarRateRepository.findById(nombre);
-            double anterior = existente.map(DollarRateEntity::getUltimaVenta).orElse(nuevaVenta);
+            Double anterior = lastSales.get(nombre);
 
             String cambio;
-            if (nuevaVenta > anterior) cambio = "up";
-            else if (nuevaVenta < anterior) cambio = "down";
-            else cambio = "neutral";
-
-            // Actualizar base de datos
-            dollarRateRepository.save(new DollarRateEntity(nombre, nuevaVenta));
+            if (anterior == null || nuevaVenta == anterior) cambio = "neutral";
+            else if (nuevaVenta > anterior) cambio = "up";
+            else cambio = "down";
 
+            if (nombre != null && (anterior == null || nuevaVenta != anterior)) {
+                changed.add(new DollarRateEntity(nombre, nuevaVenta));
+            }
             rate.put("change", cambio);
+            rates.add(Collections.unmodifiableMap(rate));
         }
 
-        log.info("[DOLLAR] Cotizaciones con cambio persistente generadas correctamente.");
-        return result;
+        if (!changed.isEmpty()) {
+            dollarRateRepository.saveAll(changed);
+            changed.forEach(rate -> lastSales.put(rate.getNombre(), rate.getUltimaVenta()));
+        }
+        snapshot.set(new Snapshot(List.copyOf(rates), Instant.now()));
+        log.info("[DOLLAR] Cotizaciones actualizadas: {} ({} con cambios)", rates.size(), changed.size());
     }
 
     private double toDouble(Object value) {
@@ -69,4 +122,7 @@ private double toDouble(Object value) {
             return 0.0;
         }
     }
+
+    private record Snapshot(List<Map<String, Object>> rates, Instant fetchedAt) {
+    }
 }
@@ -0,0 +1,56 @@
+package com.cyberwallet.walletapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Registro de respuestas por Idempotency-Key para los endpoints que mueven dinero.
+ * Las claves se aíslan por usuario: {@code owner} es el usuario autenticado.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Decide qué hacer con una solicitud que trae Idempotency-Key.
+     * Si la clave está siendo ejecutada en esta instancia, espera a que termine esa ejecución.
+     * Cuando devuelve {@link Outcome#PROCEED}, el llamador debe invocar luego
+     * {@link #complete} o {@link #release}.
+     */
+    Decision begin(String owner, String key, String fingerprint);
+
+    /**
+     * Registra la respuesta de la ejecución y despierta a las solicitudes duplicadas en espera.
+     */
+    void complete(String owner, String key, StoredResponse response);
+
+    /**
+     * Libera la clave sin registrar respuesta (la ejecución falló y puede reintentarse).
+     */
+    void release(String owner, String key);
+
+    enum Outcome {
+        /** Primera ejecución: procesar la solicitud. */
+        PROCEED,
+        /** Ya hay respuesta registrada: devolverla sin procesar. */
+        REPLAY,
+        /** La clave se usó antes con otra solicitud. */
+        MISMATCH,
+        /** Otra ejecución con la misma clave sigue en curso. */
+        IN_PROGRESS
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class Decision {
+        private final Outcome outcome;
+        private final StoredResponse response;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String contentType;
+        private final String body;
+    }
+}
@@ -0,0 +1,39 @@
+package com.cyberwallet.walletapi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consultas y mantenimiento sobre el libro mayor (ledger_entries + balance_checkpoints).
+ */
+public interface LedgerService {
+
+    /**
+     * Saldo de la billetera al instante indicado: el último checkpoint anterior más la cola de movimientos.
+     */
+    BigDecimal getBalanceAsOf(UUID walletId, LocalDateTime at);
+
+    /**
+     * Genera checkpoints para las billeteras con movimientos desde la última corrida.
+     *
+     * @return cantidad de checkpoints creados.
+     */
+    int createCheckpoints();
+
+    /**
+     * Billeteras cuyo saldo guardado (wallets.balance más sub-saldos) no coincide con el libro mayor.
+     *
+     * @param limit máximo de billeteras a devolver.
+     */
+    List<UUID> findDriftedWallets(int limit);
+
+    /**
+     * Recalcula el saldo de la billetera desde el libro mayor y lo escribe en wallets.balance.
+     * Pensado para corregir saldos después de un incidente (ver LedgerReconciliationTask).
+     *
+     * @return saldo recalculado.
+     */
+    BigDecimal rebuildWalletBalance(UUID walletId);
+}
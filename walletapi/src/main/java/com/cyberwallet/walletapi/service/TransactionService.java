@@ -1,9 +1,24 @@
 package com.cyberwallet.walletapi.service;
 
-import com.cyberwallet.walletapi.dto.wallet.TransactionResponseDTO;
+import com.cyberwallet.walletapi.dto.wallet.TransactionExportFormat;
+import com.cyberwallet.walletapi.dto.wallet.TransactionPageResponseDTO;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface TransactionService {
-    List<TransactionResponseDTO> getTransactionHistory(String userEmail);
+
+    /**
+     * Devuelve una página del historial, de la transacción más reciente a la más antigua.
+     *
+     * @param limit  tamaño de página; si es nulo se usa el valor por defecto.
+     * @param cursor cursor devuelto por la página anterior, o nulo para la primera página.
+     */
+    TransactionPageResponseDTO getTransactionHistory(String userEmail, Integer limit, String cursor);
+
+    /**
+     * Escribe el historial completo en {@code out}, fila por fila, sin materializarlo en memoria.
+     * No cierra el stream.
+     */
+    void exportTransactions(String userEmail, TransactionExportFormat format, OutputStream out) throws IOException;
 }
@@ -1,11 +1,15 @@
 package com.cyberwallet.walletapi.service;
 
+import com.cyberwallet.walletapi.dto.wallet.BalanceAsOfResponseDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferRequestDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.LoadCardRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransactionResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransferAliasRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.WalletDetailsResponse;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,6 +25,15 @@ public interface WalletService {
      */
     WalletDetailsResponse getWalletDetails(String userEmail);
 
+    /**
+     * Obtiene el saldo que tenía la billetera del usuario en un instante dado.
+     *
+     * @param userEmail Email del usuario.
+     * @param at        Instante a consultar.
+     * @return DTO con el saldo histórico.
+     */
+    BalanceAsOfResponseDTO getBalanceAsOf(String userEmail, LocalDateTime at);
+
     /**
      * Deposita un monto en la billetera de un usuario.
      *
@@ -59,6 +72,18 @@ public interface WalletService {
      */
     WalletDetailsResponse transferByAlias(String senderEmail, TransferAliasRequestDTO requestDTO, String traceId);
 
+    /**
+     * Transfiere fondos a múltiples destinatarios (alias o CVU) en una única transacción.
+     * Los tramos inválidos se rechazan individualmente; el resto se aplica completo o no se aplica
+     * (límite diario combinado y saldo suficiente para el total).
+     *
+     * @param senderEmail Email del usuario que envía los fondos.
+     * @param requestDTO  DTO con los tramos (destino y monto).
+     * @param traceId     Identificador de trazabilidad para logs y auditoría.
+     * @return DTO con el estado de la billetera del emisor y el resultado de cada tramo.
+     */
+    BatchTransferResponseDTO transferBatch(String senderEmail, BatchTransferRequestDTO requestDTO, String traceId);
+
     /**
      * Actualiza el alias (CVU) de la billetera de un usuario.
      *
@@ -9,8 +9,13 @@
 import com.cyberwallet.walletapi.entity.Provincia;
 import com.cyberwallet.walletapi.repository.*;
 import com.cyberwallet.walletapi.security.JwtService;
+import com.cyberwallet.walletapi.security.TokenEpochRegistry;
+import com.cyberwallet.walletapi.security.TokenRevocationRegistry;
 import com.cyberwallet.walletapi.service.*;
+import com.cyberwallet.walletapi.util.AliasPool;
 import com.cyberwallet.walletapi.util.FieldNormalizer;
+import com.cyberwallet.walletapi.util.UserIdentifierFilter;
+import com.cyberwallet.walletapi.util.WalletIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,17 +47,20 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
     private final ActivationTokenRepository activationTokenRepository;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final TokenEpochRegistry tokenEpochRegistry;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final CountryValidationService countryValidationService;
-    private final AliasGeneratorService aliasGeneratorService;
+    private final AliasPool aliasPool;
     private final PasswordResetTokenService passwordResetTokenService;
     private final UserService userService;
     private final WalletService walletService;
     private final PaisRepository paisRepository;
     private final ProvinciaRepository provinciaRepository;
+    private final WalletIdentityCache walletIdentityCache;
+    private final UserIdentifierFilter userIdentifierFilter;
 
     /**
      * Registra un nuevo usuario validando todos los campos requeridos e integrando
@@ -164,31 +172,9 @@ public AuthenticationResponse register(RegisterRequest request) {
             throw new BusinessException(ErrorCode.VALIDATION_ERROR, "El teléfono no puede ser una secuencia de dígitos idénticos (ejemplo: 1111111111).");
         }
 
-        // 🔁 Alias generado y validado
-        String alias;
-        int maxAttempts = 5;
-        int attempts = 0;
-        do {
-            alias = aliasGeneratorService.generateAlias();
-            attempts++;
-            if (!alias.matches("^[a-z.]{6,30}$") || alias.chars().filter(ch -> ch == '.').count() != 2) {
-                log.warn("[ALIAS VALIDATION] Alias inválido generado: {}", alias);
-                continue;
-            }
-            if (!userRepository.existsByWallet_Alias(alias)) {
-                break;
-            }
-            log.warn("[ALIAS VALIDATION] Alias ya en uso, reintentando: {}", alias);
-        } while (attempts < maxAttempts);
-
-        if (attempts == maxAttempts) {
-            throw new BusinessException(ErrorCode.ALIAS_ALREADY_EXISTS, "No se pudo generar un alias único después de varios intentos.");
-        }
-        if (alias == null || alias.isBlank()) {
-            log.error("[ALIAS VALIDATION] Alias nulo o vacío generado en registro.");
-            throw new BusinessException(ErrorCode.INVALID_ALIAS_FORMAT, "El alias generado no puede ser nulo ni vacío.");
-        }
-        log.info("\u001B[32m🟢 Alias final validado y único: {}\u001B[0m", alias);
+        // 🔁 Alias pre-generado y reservado; la restricción UNIQUE de wallets.alias es el árbitro final
+        String alias = aliasPool.take();
+        log.debug("[ALIAS] Alias asignado desde el pool: {}", alias);
 
         // Crear usuario
         User newUser = User.builder()
@@ -218,6 +204,8 @@ public AuthenticationResponse register(RegisterRequest request) {
                 .build());
 
         userRepository.save(newUser);
+        userIdentifierFilter.addEmail(newUser.getEmail());
+        userIdentifierFilter.addUsername(newUser.getUsername());
         log.debug("[DEBUG] Usuario registrado exitosamente: {}", newUser.getEmail());
 
         return AuthenticationResponse.builder()
@@ -252,6 +240,9 @@ public AuthenticationResponse authenticate(AuthenticationRequest request) {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(user.getEmail(), password)
             );
+        } catch (BusinessException ex) {
+            // Hashing saturado (503): no es un problema de credenciales
+            throw ex;
         } catch (Exception ex) {
             log.warn("[SECURITY] Intento de login fallido para: {}", identifier);
             throw new BusinessException(ErrorCode.INVALID_CREDENTIALS, "Credenciales inválidas.");
@@ -266,7 +257,9 @@ public AuthenticationResponse authenticate(AuthenticationRequest request) {
                         user.getEmail(),
                         user.getPassword(),
                         List.of(new SimpleGrantedAuthority("ROLE_USER"))
-                )
+                ),
+                user.getId(),
+                user.getTokenEpoch()
         );
 
         log.info("[SECURITY] Usuario autenticado exitosamente: {}", user.getEmail());
@@ -318,6 +311,7 @@ public void activateAccount(String token) {
             activationToken.setUsed(true);
             userRepository.save(user);
             activationTokenRepository.save(activationToken);
+            tokenEpochRegistry.invalidate(user.getId());
             log.info("\u001B[32m[ACTIVATION] Cuenta activada exitosamente: {}\u001B[0m", user.getEmail());
         }
     }
@@ -461,6 +455,7 @@ public void resetPassword(ResetPasswordRequest request) {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
         passwordResetTokenService.markTokenAsUsed(resetToken);
+        tokenEpochRegistry.advance(user.getId());
 
         log.info("[✅ RESET] Contraseña restablecida exitosamente para: {}", user.getEmail());
     }
@@ -512,7 +507,11 @@ public void logout(String token) {
             token = token.substring(7);
         }
 
-        if (blacklistedTokenRepository.existsByToken(token)) {
+        String jti = jwtService.extractJti(token);
+        if (jti == null) {
+            throw new BusinessException(ErrorCode.INVALID_TOKEN, "El token no tiene identificador (jti).");
+        }
+        if (tokenRevocationRegistry.isRevoked(jti)) {
             log.warn("[⚠️ LOGOUT] Token ya invalidado previamente: {}", token);
             throw new BusinessException(ErrorCode.ALREADY_LOGGED_OUT, "Este token ya fue invalidado anteriormente.");
         }
@@ -526,17 +525,26 @@ public void logout(String token) {
                 .atZone(ZoneId.systemDefault())
                 .toLocalDateTime();
 
-        BlacklistedToken blacklistedToken = BlacklistedToken.builder()
-                .token(token)
-                .blacklistedAt(LocalDateTime.now())
-                .expiresAt(expiresAt)
-                .build();
-
-        blacklistedTokenRepository.saveAndFlush(blacklistedToken);
+        tokenRevocationRegistry.revoke(jti, token, expiresAt);
 
         log.info("[✅ LOGOUT] Token invalidado y almacenado en blacklist: {}", token);
     }
 
+    /**
+     * Cierra todas las sesiones del usuario: incrementa su época de tokens, con lo que todo JWT
+     * emitido hasta ahora deja de ser válido.
+     *
+     * @param email Email del usuario autenticado.
+     */
+    @Override
+    @Transactional
+    public void logoutAll(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "El usuario no existe."));
+        tokenEpochRegistry.advance(user.getId());
+        log.info("[✅ LOGOUT] Todas las sesiones cerradas para: {}", email);
+    }
+
 
     // ====================================
     // ✏️ Actualización de Perfil
@@ -549,9 +557,12 @@ public void logout(String token) {
      * @param currentUserEmail Email actual del usuario autenticado.
      */
     @Override
+    @Transactional
     public void updateProfile(UpdateUserProfileRequestDTO request, String currentUserEmail) {
         User user = userRepository.findByEmail(currentUserEmail)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "El usuario no existe."));
+        // Cambiar email o contraseña invalida todos los tokens emitidos (el "sub" de los JWT es el email)
+        boolean revokeTokens = false;
 
         // ======================
         // ✉️ Email
@@ -567,6 +578,7 @@ public void updateProfile(UpdateUserProfileRequestDTO request, String currentUse
             }
 
             user.setEmail(email);
+            revokeTokens = true;
             log.debug("[PROFILE] Email actualizado a: {}", email);
         }
 
@@ -629,10 +641,18 @@ public void updateProfile(UpdateUserProfileRequestDTO request, String currentUse
             }
 
             user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+            revokeTokens = true;
             log.debug("[PROFILE] Contraseña actualizada correctamente.");
         }
 
         userRepository.save(user);
+        if (revokeTokens) {
+            tokenEpochRegistry.advance(user.getId());
+        }
+        if (!user.getEmail().equals(currentUserEmail)) {
+            walletIdentityCache.evictEmail(currentUserEmail);
+            userIdentifierFilter.addEmail(user.getEmail());
+        }
         log.info("[PROFILE] Perfil actualizado con éxito para: {}", user.getEmail());
     }
 }
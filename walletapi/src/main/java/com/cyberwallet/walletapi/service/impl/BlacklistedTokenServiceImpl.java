@@ -1,9 +1,10 @@
 package com.cyberwallet.walletapi.service.impl;
 
-import com.cyberwallet.walletapi.entity.BlacklistedToken;
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.repository.BlacklistedTokenRepository;
+import com.cyberwallet.walletapi.security.JwtService;
+import com.cyberwallet.walletapi.security.TokenRevocationRegistry;
 import com.cyberwallet.walletapi.service.BlacklistedTokenService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -12,11 +13,11 @@
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 /**
  * Servicio para gestionar tokens JWT en lista negra (BlacklistedToken).
  * Permite bloquear tokens y consultar si están bloqueados, con logs de auditoría.
+ * La consulta se resuelve por jti en {@link TokenRevocationRegistry}, sin ir a la base.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +26,8 @@ public class BlacklistedTokenServiceImpl implements BlacklistedTokenService {
     private static final Logger log = LoggerFactory.getLogger(BlacklistedTokenServiceImpl.class);
 
     private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final JwtService jwtService;
 
     /**
      * Añade un token a la lista negra.
@@ -45,14 +48,7 @@ public void addTokenToBlacklist(String token, LocalDateTime expiresAt) {
             throw new BusinessException(ErrorCode.INVALID_TOKEN, "El token excede la longitud máxima permitida.");
         }
 
-        BlacklistedToken blacklistedToken = BlacklistedToken.builder()
-                .token(token)
-                .blacklistedAt(LocalDateTime.now())
-                .expiresAt(expiresAt)
-                .build();
-
-        blacklistedTokenRepository.save(blacklistedToken);
-        blacklistedTokenRepository.flush(); // <-- ¡NUEVA LÍNEA CLAVE!
+        tokenRevocationRegistry.revoke(jwtService.extractJti(token), token, expiresAt);
         log.info("[BLACKLIST] Token agregado a la lista negra: {}", token);
     }
 
@@ -63,15 +59,13 @@ public void addTokenToBlacklist(String token, LocalDateTime expiresAt) {
      * @return true si está bloqueado, false si no
      */
     @Override
-    @Transactional(readOnly = true)
     public boolean isTokenBlacklisted(String token) {
         if (token == null || token.trim().isEmpty()) {
             log.warn("[BLACKLIST] Intento de verificar un token nulo o vacío.");
             throw new BusinessException(ErrorCode.INVALID_TOKEN, "El token proporcionado es nulo o vacío.");
         }
 
-        Optional<BlacklistedToken> tokenOpt = blacklistedTokenRepository.findByToken(token);
-        boolean isBlacklisted = tokenOpt.isPresent();
+        boolean isBlacklisted = tokenRevocationRegistry.isRevoked(jwtService.extractJti(token));
 
         if (isBlacklisted) {
             log.info("[BLACKLIST] Token está en la lista negra: {}", token);
@@ -3,6 +3,8 @@
 import com.cyberwallet.walletapi.dto.response.ApiResponse;
 import com.cyberwallet.walletapi.dto.wallet.LoadCardRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.LoadCardResponseDTO; // <--- CAMBIO: Importar LoadCardResponseDTO
+import com.cyberwallet.walletapi.engine.BalanceEngine;
+import com.cyberwallet.walletapi.engine.EngineCommand;
 import com.cyberwallet.walletapi.entity.Transaction;
 import com.cyberwallet.walletapi.entity.User;
 import com.cyberwallet.walletapi.entity.Wallet;
@@ -10,8 +12,10 @@
 import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.repository.TransactionRepository;
 import com.cyberwallet.walletapi.repository.UserRepository;
-import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
 import com.cyberwallet.walletapi.service.CardLoadService;
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import com.cyberwallet.walletapi.util.WalletBalanceUpdater;
 import com.cyberwallet.walletapi.validator.CardValidator; // Asegúrate de que CardValidator tenga el método getTypeFromBIN
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -22,6 +26,7 @@
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -31,8 +36,10 @@ public class CardLoadServiceImpl implements CardLoadService {
     private static final Logger logger = LoggerFactory.getLogger(CardLoadServiceImpl.class);
 
     private final UserRepository userRepository;
-    private final WalletRepository walletRepository;
+    private final WalletBalanceUpdater walletBalanceUpdater;
     private final TransactionRepository transactionRepository;
+    private final LedgerWriter ledgerWriter;
+    private final BalanceEngine balanceEngine;
 
     private static final BigDecimal MAX_LOAD_AMOUNT = new BigDecimal("3000000");
 
@@ -80,14 +87,21 @@ public ApiResponse<LoadCardResponseDTO> loadCardFunds(LoadCardRequestDTO request
         CardValidator.validateCardHolderMatchesUserName(request.getCardHolderName(), expectedName);
         logger.debug("✅ Validación nombre PASÓ");
 
-        // 6️⃣ Ajustar saldo y persistir
-        Wallet wallet = walletRepository.findByUser(user)
-                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada: " + userEmail));
+        if (balanceEngine.isEnabled()) {
+            // Saldo, movimiento y asiento los escribe el motor en memoria (write-behind)
+            Wallet userWallet = Optional.ofNullable(user.getWallet())
+                    .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada para el usuario."));
+            BigDecimal balance = balanceEngine.submit(EngineCommand.cardLoad(userWallet.getId(), user.getId(), amount,
+                    "LOAD_FUNDS", "TARJETA VIRTUAL"));
+            return ApiResponse.success("Fondos cargados exitosamente.",
+                    new LoadCardResponseDTO(userWallet.getAlias(), balance, userWallet.getCvu(), CardValidator.getCardTypeFromBIN(cardNumber)));
+        }
 
-        BigDecimal newBalance = wallet.getBalance().add(amount);
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        // 6️⃣ Ajustar saldo y persistir (UPDATE atómico, sin leer la billetera antes)
+        WalletBalanceView wallet = walletBalanceUpdater.creditByUserId(user.getId(), amount);
+        BigDecimal newBalance = wallet.getBalance();
         logger.debug("💰 Nuevo balance: {}", newBalance);
+        ledgerWriter.recordCardLoad(wallet.getId(), amount);
 
         // 7️⃣ Registrar transacción
         Transaction tx = Transaction.builder()
@@ -8,25 +8,34 @@
 import com.cyberwallet.walletapi.repository.PaisRepository;
 import com.cyberwallet.walletapi.repository.ProvinciaRepository;
 import com.cyberwallet.walletapi.service.CountryValidationService;
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
 import com.cyberwallet.walletapi.util.fallback.PaisFallbackLoader;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CountryValidationServiceImpl implements CountryValidationService {
 
     private final PaisRepository paisRepository;
     private final ProvinciaRepository provinciaRepository;
 
-    private final Map<String, Boolean> countryValidationCache = new ConcurrentHashMap<>();
+    // Sólo se cachean países válidos; acotado porque el nombre llega desde un endpoint público
+    private final BoundedCache<String, Boolean> countryValidationCache;
     private final List<String> cachedTopCountries = new ArrayList<>();
 
+    public CountryValidationServiceImpl(PaisRepository paisRepository,
+                                        ProvinciaRepository provinciaRepository,
+                                        BoundedCacheFactory cacheFactory) {
+        this.paisRepository = paisRepository;
+        this.provinciaRepository = provinciaRepository;
+        this.countryValidationCache = cacheFactory.create("validation.countries", 1_000, Duration.ofHours(24));
+    }
+
     @Override
     public Optional<Pais> findPaisById(Long id) {
         return paisRepository.findById(id);
@@ -43,7 +52,7 @@ public boolean validateCountry(String name) {
             throw new BusinessException(ErrorCode.VALIDATION_ERROR, "Nombre de país inválido.");
         }
 
-        return countryValidationCache.computeIfAbsent(name.toLowerCase(), this::validateAgainstLocalData);
+        return countryValidationCache.get(name.toLowerCase(), this::validateAgainstLocalData);
     }
 
     @Override
@@ -0,0 +1,57 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.service.DollarRateSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cotizaciones desde dolarapi.com. Con timeouts propios: corre en el hilo de tareas programadas
+ * y un upstream colgado no debe frenar al resto.
+ */
+@Component
+@ConditionalOnProperty(name = "cyberwallet.dollar.source", havingValue = "dolarapi", matchIfMissing = true)
+@Slf4j
+public class DolarApiRateSource implements DollarRateSource {
+
+    private final RestTemplate restTemplate;
+    private final String apiUrl;
+
+    public DolarApiRateSource(RestTemplateBuilder restTemplateBuilder,
+                              @Value("${cyberwallet.dollar.api-url:https://dolarapi.com/v1/dolares}") String apiUrl,
+                              @Value("${cyberwallet.dollar.timeout-ms:5000}") long timeoutMs) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.apiUrl = apiUrl;
+    }
+
+    @Override
+    public List<Map<String, Object>> fetchRates() {
+        log.debug("[DOLLAR] Solicitando cotizaciones desde: {}", apiUrl);
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+                apiUrl,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new BusinessException(ErrorCode.EXTERNAL_SERVICE_ERROR,
+                    "No se pudo obtener la cotización del dólar. Status: " + response.getStatusCode());
+        }
+        return response.getBody();
+    }
+}
@@ -0,0 +1,192 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.entity.IdempotencyRecord;
+import com.cyberwallet.walletapi.repository.IdempotencyRecordRepository;
+import com.cyberwallet.walletapi.service.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Respuestas idempotentes en dos niveles: un cache acotado en memoria (LRU) para las repeticiones
+ * recientes y la tabla idempotency_keys como fuente de verdad compartida entre instancias.
+ * Las entradas del cache vencen junto con su registro: pasado el TTL la clave se puede reutilizar.
+ * Los duplicados concurrentes dentro de la misma instancia esperan el resultado de la primera
+ * ejecución; entre instancias, la reserva en la tabla decide quién ejecuta.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    // Resultado interno para los duplicados en espera cuando la clave sigue tomada en otra instancia
+    private static final StoredResponse IN_PROGRESS_MARKER = new StoredResponse("", 0, null, null);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Map<String, CachedResponse> recentResponses;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  @Value("${cyberwallet.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${cyberwallet.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                                  @Value("${cyberwallet.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.recentResponses = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public Decision begin(String owner, String key, String fingerprint) {
+        String id = recordId(owner, key);
+        while (true) {
+            StoredResponse cached = recentResponse(id);
+            if (cached != null) {
+                return replay(cached, fingerprint);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                StoredResponse result = await(running, id);
+                if (result == IN_PROGRESS_MARKER) {
+                    return new Decision(Outcome.IN_PROGRESS, null);
+                }
+                if (result != null) {
+                    return replay(result, fingerprint);
+                }
+                continue; // La ejecución anterior se liberó sin respuesta: volver a intentar
+            }
+
+            try {
+                Decision decision = claim(id, fingerprint);
+                if (decision != null) {
+                    finish(id, mine, decision.getOutcome() == Outcome.IN_PROGRESS ? IN_PROGRESS_MARKER : decision.getResponse());
+                    return decision.getOutcome() == Outcome.IN_PROGRESS ? decision : replay(decision.getResponse(), fingerprint);
+                }
+                return new Decision(Outcome.PROCEED, null);
+            } catch (RuntimeException e) {
+                finish(id, mine, null);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void complete(String owner, String key, StoredResponse response) {
+        String id = recordId(owner, key);
+        try {
+            idempotencyRecordRepository.complete(id, response.getStatus(), response.getContentType(), response.getBody());
+        } catch (RuntimeException e) {
+            // La operación ya se aplicó: la clave queda "en curso" en la tabla hasta expirar
+            log.error("[IDEMPOTENCY] No se pudo registrar la respuesta de la clave {}", id, e);
+        }
+        recentResponses.put(id, new CachedResponse(response, LocalDateTime.now().plus(ttl)));
+        finish(id, inFlight.get(id), response);
+    }
+
+    @Override
+    public void release(String owner, String key) {
+        String id = recordId(owner, key);
+        try {
+            idempotencyRecordRepository.release(id);
+        } finally {
+            finish(id, inFlight.get(id), null);
+        }
+    }
+
+    /**
+     * Intenta reservar la clave en la tabla. Devuelve null si esta ejecución quedó a cargo;
+     * si no, la decisión para la solicitud (respuesta existente o ejecución en curso en otra instancia).
+     */
+    private Decision claim(String id, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (idempotencyRecordRepository.claim(id, fingerprint, now, now.plus(ttl)) == 1) {
+                return null;
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+            if (existing.isEmpty()) {
+                continue; // Liberada entre el INSERT y el SELECT
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                idempotencyRecordRepository.deleteById(id);
+                continue;
+            }
+            if (!record.isCompleted()) {
+                return new Decision(Outcome.IN_PROGRESS, null);
+            }
+            StoredResponse response = new StoredResponse(record.getFingerprint(), record.getStatusCode(),
+                    record.getContentType(), record.getResponseBody());
+            recentResponses.put(id, new CachedResponse(response, record.getExpiresAt()));
+            return new Decision(Outcome.REPLAY, response);
+        }
+        return new Decision(Outcome.IN_PROGRESS, null);
+    }
+
+    private StoredResponse recentResponse(String id) {
+        CachedResponse cached = recentResponses.get(id);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt().isBefore(LocalDateTime.now())) {
+            recentResponses.remove(id, cached);
+            return null;
+        }
+        return cached.response();
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running, String id) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("[IDEMPOTENCY] Timeout esperando la ejecución en curso de la clave {}", id);
+            return IN_PROGRESS_MARKER;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IN_PROGRESS_MARKER;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void finish(String id, CompletableFuture<StoredResponse> future, StoredResponse result) {
+        if (future != null) {
+            inFlight.remove(id, future);
+            future.complete(result);
+        }
+    }
+
+    private Decision replay(StoredResponse response, String fingerprint) {
+        if (!response.getFingerprint().equals(fingerprint)) {
+            return new Decision(Outcome.MISMATCH, null);
+        }
+        return new Decision(Outcome.REPLAY, response);
+    }
+
+    private String recordId(String owner, String key) {
+        return owner + "|" + key;
+    }
+
+    private record CachedResponse(StoredResponse response, LocalDateTime expiresAt) {
+    }
+}
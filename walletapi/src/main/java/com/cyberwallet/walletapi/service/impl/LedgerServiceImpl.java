@@ -0,0 +1,122 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.entity.BalanceCheckpoint;
+import com.cyberwallet.walletapi.entity.Wallet;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.BalanceCheckpointRepository;
+import com.cyberwallet.walletapi.repository.LedgerEntryRepository;
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.service.LedgerService;
+import com.cyberwallet.walletapi.util.HotWalletManager;
+import com.cyberwallet.walletapi.util.WalletLockManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class LedgerServiceImpl implements LedgerService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Una sola sentencia: saldo y movimientos se leen de la misma foto, sin falsos positivos por
+    // transacciones en curso (cada camino escribe saldo y asiento en la misma transacción)
+    private static final String DRIFTED_WALLETS_SQL = """
+            SELECT w.id
+              FROM wallets w
+              LEFT JOIN LATERAL (
+                    SELECT c.as_of, c.balance FROM balance_checkpoints c
+                     WHERE c.wallet_id = w.id ORDER BY c.as_of DESC LIMIT 1
+              ) c ON true
+             WHERE w.balance + COALESCE((SELECT SUM(s.balance) FROM wallet_balance_slots s WHERE s.wallet_id = w.id), 0)
+                   <> COALESCE(c.balance, 0) + COALESCE((SELECT SUM(e.amount) FROM ledger_entries e
+                                                          WHERE e.account_id = w.id
+                                                            AND (c.as_of IS NULL OR e.created_at > c.as_of)), 0)
+             LIMIT ?
+            """;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final WalletRepository walletRepository;
+    private final WalletLockManager walletLockManager;
+    private final HotWalletManager hotWalletManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final long checkpointLagSeconds;
+
+    public LedgerServiceImpl(LedgerEntryRepository ledgerEntryRepository,
+                             BalanceCheckpointRepository balanceCheckpointRepository,
+                             WalletRepository walletRepository,
+                             WalletLockManager walletLockManager,
+                             HotWalletManager hotWalletManager,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${cyberwallet.ledger.checkpoint-lag-seconds:60}") long checkpointLagSeconds) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.walletRepository = walletRepository;
+        this.walletLockManager = walletLockManager;
+        this.hotWalletManager = hotWalletManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointLagSeconds = checkpointLagSeconds;
+    }
+
+    @Override
+    public BigDecimal getBalanceAsOf(UUID walletId, LocalDateTime at) {
+        Optional<BalanceCheckpoint> checkpoint =
+                balanceCheckpointRepository.findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, at);
+        if (checkpoint.isEmpty()) {
+            // Billetera creada después del último checkpoint: sólo hay cola
+            return ledgerEntryRepository.sumUntil(walletId, at);
+        }
+        BigDecimal tail = ledgerEntryRepository.sumBetween(walletId, checkpoint.get().getAsOf(), at);
+        return checkpoint.get().getBalance().add(tail);
+    }
+
+    /**
+     * El corte se toma con un retraso (checkpoint-lag-seconds) para que todas las transacciones con
+     * movimientos anteriores al corte ya hayan hecho commit: un checkpoint no puede omitir movimientos.
+     */
+    @Override
+    @Transactional
+    public int createCheckpoints() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(checkpointLagSeconds);
+        LocalDateTime since = balanceCheckpointRepository.findLatestAsOf().orElse(EPOCH);
+        if (!cutoff.isAfter(since)) {
+            return 0;
+        }
+        int created = balanceCheckpointRepository.createCheckpoints(since, cutoff);
+        log.info("[LEDGER] {} checkpoints de saldo creados al {}", created, cutoff);
+        return created;
+    }
+
+    @Override
+    public List<UUID> findDriftedWallets(int limit) {
+        return jdbcTemplate.queryForList(DRIFTED_WALLETS_SQL, UUID.class, limit);
+    }
+
+    @Override
+    @Transactional
+    public BigDecimal rebuildWalletBalance(UUID walletId) {
+        walletLockManager.lockForTransaction(walletId);
+        jdbcTemplate.queryForList("SELECT id FROM wallets WHERE id = ? FOR UPDATE", UUID.class, walletId);
+        // Los sub-saldos de una billetera particionada se vuelcan antes de comparar contra el ledger
+        hotWalletManager.consolidate(walletId);
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada: " + walletId));
+
+        BigDecimal rebuilt = getBalanceAsOf(walletId, LocalDateTime.now());
+        if (rebuilt.compareTo(wallet.getBalance()) != 0) {
+            log.warn("[LEDGER] Saldo corregido para la billetera {}: {} → {}", walletId, wallet.getBalance(), rebuilt);
+            jdbcTemplate.update("UPDATE wallets SET balance = ? WHERE id = ?", rebuilt, walletId);
+        }
+        return rebuilt;
+    }
+}
@@ -4,24 +4,28 @@
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.service.ProvinceValidationService;
+import com.cyberwallet.walletapi.util.BoundedCache;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
 import com.cyberwallet.walletapi.util.fallback.ProvinciaFallbackLoader;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProvinceValidationServiceImpl implements ProvinceValidationService {
 
-    private final Map<String, List<String>> provinceCache = new ConcurrentHashMap<>();
+    private final BoundedCache<String, List<String>> provinceCache;
+
+    public ProvinceValidationServiceImpl(BoundedCacheFactory cacheFactory) {
+        this.provinceCache = cacheFactory.create("validation.provinces", 64, Duration.ofHours(24));
+    }
 
     @Override
     public List<String> listProvinces(String countryIso2) {
@@ -39,7 +43,7 @@ public List<String> listProvinces(String countryIso2) {
                 "País no soportado. Solo se permite Argentina (AR), Brasil (BR) o Uruguay (UY).");
         }
 
-        return provinceCache.computeIfAbsent(normalizedKey, this::fetchProvincesFromLocalData);
+        return provinceCache.get(normalizedKey, this::fetchProvincesFromLocalData);
     }
 
     private List<String> fetchProvincesFromLocalData(String countryKey) {
@@ -0,0 +1,48 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.service.DollarRateSource;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cotizaciones fijas desde un archivo del classpath, sin red. Para tests y desarrollo sin conexión.
+ */
+@Component
+@ConditionalOnProperty(name = "cyberwallet.dollar.source", havingValue = "stub")
+@Slf4j
+public class StubDollarRateSource implements DollarRateSource {
+
+    private final ObjectMapper objectMapper;
+    private final String resource;
+
+    public StubDollarRateSource(ObjectMapper objectMapper,
+                                @Value("${cyberwallet.dollar.stub-file:dollar-rates-stub.json}") String resource) {
+        this.objectMapper = objectMapper;
+        this.resource = resource;
+    }
+
+    @Override
+    public List<Map<String, Object>> fetchRates() {
+        try (InputStream inputStream = StubDollarRateSource.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new BusinessException(ErrorCode.EXTERNAL_SERVICE_ERROR, "Archivo de cotizaciones no encontrado: " + resource);
+            }
+            List<Map<String, Object>> rates = objectMapper.readValue(inputStream, new TypeReference<>() {});
+            log.debug("[DOLLAR] Cotizaciones locales cargadas desde {}: {}", resource, rates.size());
+            return rates;
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.EXTERNAL_SERVICE_ERROR, "Archivo de cotizaciones inválido: " + resource);
+        }
+    }
+}
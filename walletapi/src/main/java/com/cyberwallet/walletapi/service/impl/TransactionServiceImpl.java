@@ -1,5 +1,7 @@
 package com.cyberwallet.walletapi.service.impl;
 
+import com.cyberwallet.walletapi.dto.wallet.TransactionExportFormat;
+import com.cyberwallet.walletapi.dto.wallet.TransactionPageResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransactionResponseDTO;
 import com.cyberwallet.walletapi.entity.Transaction;
 import com.cyberwallet.walletapi.entity.User;
@@ -8,29 +10,73 @@
 import com.cyberwallet.walletapi.repository.TransactionRepository;
 import com.cyberwallet.walletapi.repository.UserRepository;
 import com.cyberwallet.walletapi.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional(readOnly = true)
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_SEPARATOR = "|";
+    private static final String EXPORT_SQL =
+            "SELECT t.date, t.type, t.amount, t.counterpart FROM transacciones t WHERE t.user_id = ? ORDER BY t.date DESC, t.id DESC";
+    private static final String CSV_HEADER = "date,type,amount,counterpart";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cyberwallet.export.fetch-size:500}")
+    private int exportFetchSize;
 
     @Override
-    public List<TransactionResponseDTO> getTransactionHistory(String userEmail) {
+    public TransactionPageResponseDTO getTransactionHistory(String userEmail, Integer limit, String cursor) {
+        int pageSize = resolvePageSize(limit);
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + userEmail));
 
-        List<Transaction> transactions = transactionRepository.findByUserOrderByDateDesc(user);
+        // Se pide una fila de más para saber si existe una página siguiente sin hacer COUNT
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findFirstPageByUserId(user.getId(), pageSize + 1);
+        } else {
+            Transaction position = decodeCursor(cursor);
+            transactions = transactionRepository.findPageByUserIdBefore(user.getId(), position.getDate(), position.getId(), pageSize + 1);
+        }
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<Transaction> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
 
-        return transactions.stream()
+        List<TransactionResponseDTO> items = page.stream()
                 .map(tx -> new TransactionResponseDTO(
                         tx.getType(),
                         tx.getAmount(),
@@ -38,5 +84,108 @@ public List<TransactionResponseDTO> getTransactionHistory(String userEmail) {
                         tx.getDate()
                 ))
                 .collect(Collectors.toList());
+        return new TransactionPageResponseDTO(items, nextCursor);
+    }
+
+    /**
+     * Recorre las filas con un cursor JDBC de sólo avance: con autocommit desactivado (transacción
+     * de lectura) y fetch size fijo, el driver de Postgres trae bloques de filas en lugar del
+     * resultado completo, así que la memoria usada no depende del tamaño del historial.
+     */
+    @Override
+    public void exportTransactions(String userEmail, TransactionExportFormat format, OutputStream out) throws IOException {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + userEmail));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        if (format == TransactionExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            writer.flush(); // Primer byte al cliente antes de ejecutar la consulta
+        }
+
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(exportFetchSize);
+                ps.setObject(1, user.getId());
+                return ps;
+            }, (ResultSet rs) -> {
+                try {
+                    writeRow(writer, format, rs);
+                    if (++rows[0] == 1) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga: se aborta la consulta y se libera el cursor
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("[TRANSACTION] Exportación {} completada para {}: {} filas", format, userEmail, rows[0]);
+    }
+
+    private void writeRow(Writer writer, TransactionExportFormat format, ResultSet rs) throws SQLException, IOException {
+        LocalDateTime date = rs.getObject("date", LocalDateTime.class);
+        String type = rs.getString("type");
+        BigDecimal amount = rs.getBigDecimal("amount");
+        String counterpart = rs.getString("counterpart");
+        if (format == TransactionExportFormat.CSV) {
+            writer.write(date.toString());
+            writer.write(',');
+            writer.write(csvField(type));
+            writer.write(',');
+            writer.write(amount.toPlainString());
+            writer.write(',');
+            writer.write(counterpart == null ? "" : csvField(counterpart));
+        } else {
+            writer.write(objectMapper.writeValueAsString(new TransactionResponseDTO(type, amount, counterpart, date)));
+        }
+        writer.write('\n');
+    }
+
+    // Un campo que empieza con =, +, - o @ se ejecuta como fórmula al abrir el CSV en una planilla:
+    // se antepone un apóstrofo para que quede como texto
+    private String csvField(String value) {
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT, "El parámetro limit debe estar entre 1 y " + MAX_PAGE_SIZE + ".");
+        }
+        return limit;
+    }
+
+    // El cursor es (date, id) de la última fila entregada, en Base64 URL-safe: el cliente lo trata como opaco.
+    private String encodeCursor(Transaction last) {
+        String raw = last.getDate() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Transaction decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(CURSOR_SEPARATOR);
+            return Transaction.builder()
+                    .date(LocalDateTime.parse(raw.substring(0, separator)))
+                    .id(UUID.fromString(raw.substring(separator + 1)))
+                    .build();
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT, "Cursor de paginación inválido.");
+        }
     }
 }
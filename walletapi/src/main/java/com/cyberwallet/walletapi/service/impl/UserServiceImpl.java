@@ -16,6 +16,9 @@
 import com.cyberwallet.walletapi.repository.UserRepository;
 import com.cyberwallet.walletapi.security.SecurityUtils;
 import com.cyberwallet.walletapi.service.*;
+import com.cyberwallet.walletapi.security.TokenEpochRegistry;
+import com.cyberwallet.walletapi.util.UserIdentifierFilter;
+import com.cyberwallet.walletapi.util.WalletIdentityCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -40,6 +43,9 @@ public class UserServiceImpl implements UserService {
     private final SecurityUtils securityUtils;
     private final PaisRepository paisRepository;
     private final ProvinciaRepository provinciaRepository;
+    private final WalletIdentityCache walletIdentityCache;
+    private final UserIdentifierFilter userIdentifierFilter;
+    private final TokenEpochRegistry tokenEpochRegistry;
 
     // Método obsoleto removido - el registro se hace únicamente a través de AuthServiceImpl
 
@@ -110,6 +116,8 @@ public void actualizarPerfilUsuario(String email, UpdateUserProfileRequestDTO dt
 
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + email));
+        // Cambiar email o contraseña invalida todos los tokens emitidos (el "sub" de los JWT es el email)
+        boolean revokeTokens = false;
 
         // 1. Validar EMAIL
         if (dto.getEmail() != null && !dto.getEmail().equalsIgnoreCase(user.getEmail())) {
@@ -121,6 +129,7 @@ public void actualizarPerfilUsuario(String email, UpdateUserProfileRequestDTO dt
                 throw new BusinessException(ErrorCode.DUPLICATE_EMAIL, "El email ya está en uso: " + nuevoEmail);
             }
             user.setEmail(nuevoEmail);
+            revokeTokens = true;
         }
 
         // 2. Validar USERNAME (nuevo agregado)
@@ -163,6 +172,7 @@ public void actualizarPerfilUsuario(String email, UpdateUserProfileRequestDTO dt
 
             validatePasswordStrength(dto.getNewPassword());
             user.setPassword(passwordEncoder.encode(dto.getNewPassword()));
+            revokeTokens = true;
         }
 
         // 5. Validar teléfono (obligatorio y reglas)
@@ -175,6 +185,14 @@ public void actualizarPerfilUsuario(String email, UpdateUserProfileRequestDTO dt
         user.setTelefono(dto.getTelefono());
 
         userRepository.save(user);
+        if (revokeTokens) {
+            tokenEpochRegistry.advance(user.getId());
+        }
+        if (!user.getEmail().equals(email)) {
+            walletIdentityCache.evictEmail(email);
+        }
+        userIdentifierFilter.addEmail(user.getEmail());
+        userIdentifierFilter.addUsername(user.getUsername());
         log.info("[PROFILE] Perfil actualizado correctamente para: {}", email);
     }
 
@@ -217,6 +235,7 @@ public void changeUserPassword(String email, ChangePasswordRequestDTO dto) {
         validatePasswordStrength(dto.getNewPassword());
         user.setPassword(passwordEncoder.encode(dto.getNewPassword()));
         userRepository.save(user);
+        tokenEpochRegistry.advance(user.getId());
 
         log.info("[PASSWORD] Contraseña cambiada correctamente para: {}", email);
     }
@@ -233,5 +252,7 @@ public void deleteAuthenticatedUser() {
                 ));
 
         userRepository.softDeleteById(userId);
+        walletIdentityCache.evictUser(userId);
+        tokenEpochRegistry.advance(userId);
     }
 }
\ No newline at end of file
@@ -1,31 +1,52 @@
 package com.cyberwallet.walletapi.service.impl;
 
+import com.cyberwallet.walletapi.dto.wallet.BalanceAsOfResponseDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferLegDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferLegResultDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferRequestDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.LoadCardRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransactionResponseDTO;
 import com.cyberwallet.walletapi.dto.wallet.TransferAliasRequestDTO;
 import com.cyberwallet.walletapi.dto.wallet.WalletDetailsResponse;
+import com.cyberwallet.walletapi.engine.BalanceEngine;
+import com.cyberwallet.walletapi.engine.EngineCommand;
 import com.cyberwallet.walletapi.entity.Transaction;
 import com.cyberwallet.walletapi.entity.User;
 import com.cyberwallet.walletapi.entity.Wallet;
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.DailyOutflowRepository;
 import com.cyberwallet.walletapi.repository.TransactionRepository;
 import com.cyberwallet.walletapi.repository.UserRepository;
 import com.cyberwallet.walletapi.repository.WalletRepository;
-import com.cyberwallet.walletapi.service.AliasGeneratorService;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import com.cyberwallet.walletapi.service.LedgerService;
 import com.cyberwallet.walletapi.service.WalletService;
+import com.cyberwallet.walletapi.util.AliasPool;
+import com.cyberwallet.walletapi.util.CvuAllocator;
+import com.cyberwallet.walletapi.util.HotWalletManager;
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import com.cyberwallet.walletapi.util.NativeTransferEngine;
 import com.cyberwallet.walletapi.util.TransferUtils;
+import com.cyberwallet.walletapi.util.WalletBalanceUpdater;
+import com.cyberwallet.walletapi.util.WalletIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -38,20 +59,49 @@ public class WalletServiceImpl implements WalletService {
     private static final BigDecimal MAX_DEPOSIT_LIMIT = new BigDecimal("3000000.00");
     private static final BigDecimal MAX_TRANSFER_LIMIT = new BigDecimal("1000000.00");
     private static final BigDecimal MAX_DAILY_LIMIT = new BigDecimal("3000000.00");
-    private static final Random RANDOM = new Random();
 
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
-    private final AliasGeneratorService aliasGeneratorService;
+    private final DailyOutflowRepository dailyOutflowRepository;
+    private final AliasPool aliasPool;
     private final TransferUtils transferUtils;
+    private final WalletBalanceUpdater walletBalanceUpdater;
+    private final NativeTransferEngine nativeTransferEngine;
+    private final LedgerWriter ledgerWriter;
+    private final LedgerService ledgerService;
+    private final HotWalletManager hotWalletManager;
+    private final BalanceEngine balanceEngine;
+    private final WalletIdentityCache walletIdentityCache;
+    private final CvuAllocator cvuAllocator;
+
+    // Si está activo, las transferencias se resuelven en la función cw_transfer (un solo round trip)
+    @Value("${cyberwallet.transfer.native-engine.enabled:false}")
+    private boolean nativeTransferEngineEnabled;
+
+    @Value("${cyberwallet.transfer.batch.max-legs:500}")
+    private int maxBatchLegs;
 
 
     @Override
     public WalletDetailsResponse getWalletDetails(String userEmail) {
         Wallet wallet = getWalletByUserEmail(userEmail);
         log.info("[WALLET] Consulta de detalles realizada para: {}", userEmail);
-        return new WalletDetailsResponse(wallet.getAlias(), wallet.getBalance(), wallet.getCvu());
+        BigDecimal balance = balanceEngine.isEnabled()
+                ? balanceEngine.balanceOf(wallet.getId())
+                : wallet.getBalance().add(hotWalletManager.slotBalance(wallet.getId()));
+        return new WalletDetailsResponse(wallet.getAlias(), balance, wallet.getCvu());
+    }
+
+    @Override
+    public BalanceAsOfResponseDTO getBalanceAsOf(String userEmail, LocalDateTime at) {
+        if (at.isAfter(LocalDateTime.now())) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT, "La fecha consultada no puede ser futura.");
+        }
+        Wallet wallet = getWalletByUserEmail(userEmail);
+        BigDecimal balance = ledgerService.getBalanceAsOf(wallet.getId(), at);
+        log.info("[WALLET] Consulta de saldo histórico al {} para: {}", at, userEmail);
+        return new BalanceAsOfResponseDTO(wallet.getAlias(), wallet.getCvu(), at, balance);
     }
 
     @Override
@@ -61,66 +111,76 @@ public WalletDetailsResponse depositFunds(String userEmail, BigDecimal amount) {
         if (amount.compareTo(MAX_DEPOSIT_LIMIT) > 0) {
             throw new BusinessException(ErrorCode.INVALID_AMOUNT, "El depósito no puede superar los 3 millones.");
         }
+        if (balanceEngine.isEnabled()) {
+            WalletIdentityCache.WalletRef wallet = resolveSender(userEmail);
+            BigDecimal balance = balanceEngine.submit(EngineCommand.deposit(wallet.getId(), wallet.getUserId(), amount));
+            log.info("[WALLET] Depósito realizado (motor en memoria): {} para usuario: {}", amount, userEmail);
+            return new WalletDetailsResponse(wallet.getAlias(), balance, wallet.getCvu());
+        }
 
-        Wallet wallet = getWalletByUserEmail(userEmail);
-        BigDecimal newBalance = wallet.getBalance().add(amount);
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        WalletBalanceView wallet = walletBalanceUpdater.creditByEmail(userEmail, amount);
 
-        registerTransaction("DEPOSIT", amount, null, wallet.getUser());
+        ledgerWriter.recordDeposit(wallet.getId(), amount);
+        registerTransaction("DEPOSIT", amount, null, userRepository.getReferenceById(wallet.getUserId()));
         log.info("[WALLET] Depósito realizado: {} para usuario: {}", amount, userEmail);
-        return new WalletDetailsResponse(wallet.getAlias(), newBalance, wallet.getCvu());
+        return new WalletDetailsResponse(wallet.getAlias(), wallet.getBalance(), wallet.getCvu());
     }
 
     @Override
     @Transactional
     public WalletDetailsResponse withdrawFunds(String userEmail, BigDecimal amount) {
         validateAmount(amount);
-        Wallet wallet = getWalletByUserEmail(userEmail);
-
-        validateSufficientFunds(wallet, amount);
-
-        BigDecimal newBalance = wallet.getBalance().subtract(amount);
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        if (balanceEngine.isEnabled()) {
+            WalletIdentityCache.WalletRef wallet = resolveSender(userEmail);
+            BigDecimal balance = balanceEngine.submit(EngineCommand.withdrawal(wallet.getId(), wallet.getUserId(), amount));
+            log.info("[WALLET] Extracción realizada (motor en memoria): {} para usuario: {}", amount, userEmail);
+            return new WalletDetailsResponse(wallet.getAlias(), balance, wallet.getCvu());
+        }
+        // El chequeo de fondos suficientes va dentro del UPDATE condicional
+        WalletBalanceView wallet = walletBalanceUpdater.debitByEmail(userEmail, amount);
 
-        registerTransaction("WITHDRAW", amount, null, wallet.getUser());
+        ledgerWriter.recordWithdrawal(wallet.getId(), amount);
+        registerTransaction("WITHDRAW", amount, null, userRepository.getReferenceById(wallet.getUserId()));
         log.info("[WALLET] Extracción realizada: {} para usuario: {}", amount, userEmail);
-        return new WalletDetailsResponse(wallet.getAlias(), newBalance, wallet.getCvu());
+        return new WalletDetailsResponse(wallet.getAlias(), wallet.getBalance(), wallet.getCvu());
     }
 
     @Override
-    @Transactional
+    @Transactional(noRollbackFor = BusinessException.OperationPendingException.class)
     public WalletDetailsResponse transferFundsByCvu(String senderEmail, String targetCvu, BigDecimal amount) {
         validateAmount(amount);
         if (amount.compareTo(MAX_TRANSFER_LIMIT) > 0) {
             throw new BusinessException(ErrorCode.INVALID_AMOUNT, "La transferencia no puede superar 1 millón por operación.");
         }
-        Wallet senderWallet = getWalletByUserEmail(senderEmail);
-        Wallet recipientWallet = walletRepository.findByCvu(targetCvu)
+        if (nativeTransferEngineEnabled && !balanceEngine.isEnabled()) {
+            WalletDetailsResponse response = nativeTransferEngine.transferByCvu(senderEmail, targetCvu, amount, MAX_DAILY_LIMIT);
+            log.info("[WALLET] Transferencia por CVU realizada (motor nativo): {} -> {}", senderEmail, targetCvu);
+            return response;
+        }
+        // Emisor y destinatario salen del cache de identidad: sólo quedan las consultas de saldo
+        WalletIdentityCache.WalletRef senderWallet = resolveSender(senderEmail);
+        WalletIdentityCache.WalletRef recipientWallet = walletIdentityCache.byCvu(targetCvu)
                 .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera destino no encontrada para el CVU: " + targetCvu));
         if (senderWallet.getCvu().equalsIgnoreCase(targetCvu)) {
             throw new BusinessException(ErrorCode.SELF_TRANSFER, "No se puede transferir a uno mismo.");
         }
-        validateSufficientFunds(senderWallet, amount);
-        // Validar límite diario del emisor
-        BigDecimal sentToday = transactionRepository.sumTransfersByUserAndDate(senderWallet.getUser().getId(), LocalDate.now());
-        if (sentToday == null) sentToday = BigDecimal.ZERO;
-        if (sentToday.add(amount).compareTo(MAX_DAILY_LIMIT) > 0) {
-            throw new BusinessException(ErrorCode.AMOUNT_EXCEEDS_LIMIT, "Supera el límite diario de 3 millones en transferencias.");
-        }
-        senderWallet.setBalance(senderWallet.getBalance().subtract(amount));
-        recipientWallet.setBalance(recipientWallet.getBalance().add(amount));
-        walletRepository.save(senderWallet);
-        walletRepository.save(recipientWallet);
-        registerTransaction("TRANSFER_OUT", amount, targetCvu, senderWallet.getUser());
-        registerTransaction("TRANSFER_IN", amount, senderWallet.getCvu(), recipientWallet.getUser());
+        reserveDailyOutflow(senderWallet.getUserId(), amount);
+        if (balanceEngine.isEnabled()) {
+            BigDecimal balance = balanceEngine.submit(EngineCommand.transfer(senderWallet.getId(), senderWallet.getUserId(),
+                    List.of(new TransferUtils.TransferLeg(recipientWallet.getId(), recipientWallet.getUserId(), amount,
+                            targetCvu, senderWallet.getCvu()))));
+            log.info("[WALLET] Transferencia por CVU realizada (motor en memoria): {} -> {}", senderEmail, targetCvu);
+            return new WalletDetailsResponse(senderWallet.getAlias(), balance, senderWallet.getCvu());
+        }
+        // Saldo suficiente, lock y orden de actualización quedan a cargo de TransferUtils
+        WalletDetailsResponse response = transferUtils.executeTransfer(senderWallet.getId(), recipientWallet.getId(), amount,
+                targetCvu, senderWallet.getCvu(), UUID.randomUUID().toString());
         log.info("[WALLET] Transferencia por CVU realizada: {} -> {}", senderEmail, targetCvu);
-        return new WalletDetailsResponse(senderWallet.getAlias(), senderWallet.getBalance(), senderWallet.getCvu());
+        return response;
     }
 
     @Override
-    @Transactional
+    @Transactional(noRollbackFor = BusinessException.OperationPendingException.class)
     public WalletDetailsResponse transferByAlias(String senderEmail, TransferAliasRequestDTO requestDTO, String traceId) {
         log.debug("[TRANSFERENCIA-ALIAS] Validando monto: {}", requestDTO.getAmount());
         validateAmount(requestDTO.getAmount());
@@ -128,34 +188,96 @@ public WalletDetailsResponse transferByAlias(String senderEmail, TransferAliasRe
             throw new BusinessException(ErrorCode.INVALID_AMOUNT, "La transferencia no puede superar 1 millón por operación.");
         }
         String aliasDestino = requestDTO.getTargetAlias().trim().toLowerCase();
-        User sender = userRepository.findByEmail(senderEmail)
+        if (nativeTransferEngineEnabled && !balanceEngine.isEnabled()) {
+            WalletDetailsResponse response = nativeTransferEngine.transferByAlias(senderEmail, aliasDestino, requestDTO.getAmount(), MAX_DAILY_LIMIT);
+            log.info("[TRANSFER] Transferencia realizada correctamente (motor nativo). TraceId: {}", traceId);
+            return response;
+        }
+        WalletIdentityCache.WalletRef senderWallet = walletIdentityCache.byEmail(senderEmail)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Emisor no encontrado."));
-        User receiver = userRepository.findByWallet_Alias(aliasDestino)
+        WalletIdentityCache.WalletRef receiverWallet = walletIdentityCache.byAlias(aliasDestino)
                 .orElseThrow(() -> new BusinessException(ErrorCode.RECEIVER_NOT_FOUND, "No se encontró un usuario con el alias especificado."));
-        if (sender.getEmail().equalsIgnoreCase(receiver.getEmail())) {
+        if (senderWallet.getUserId().equals(receiverWallet.getUserId())) {
             throw new BusinessException(ErrorCode.SELF_TRANSFER, "No puedes transferirte fondos a ti mismo.");
         }
-        // Validar límite diario del emisor
-        BigDecimal sentToday = transactionRepository.sumTransfersByUserAndDate(sender.getId(), LocalDate.now());
-        if (sentToday == null) sentToday = BigDecimal.ZERO;
-        if (sentToday.add(requestDTO.getAmount()).compareTo(MAX_DAILY_LIMIT) > 0) {
-            throw new BusinessException(ErrorCode.AMOUNT_EXCEEDS_LIMIT, "Supera el límite diario de 3 millones en transferencias.");
+        reserveDailyOutflow(senderWallet.getUserId(), requestDTO.getAmount());
+        if (balanceEngine.isEnabled()) {
+            BigDecimal balance = balanceEngine.submit(EngineCommand.transfer(senderWallet.getId(), senderWallet.getUserId(),
+                    List.of(new TransferUtils.TransferLeg(receiverWallet.getId(), receiverWallet.getUserId(), requestDTO.getAmount(),
+                            receiverWallet.getAlias(), senderWallet.getAlias()))));
+            log.info("[TRANSFER] Transferencia realizada correctamente (motor en memoria). TraceId: {}", traceId);
+            return new WalletDetailsResponse(senderWallet.getAlias(), balance, senderWallet.getCvu());
         }
-        return transferUtils.executeTransfer(sender, receiver, requestDTO.getAmount(), traceId);
+        return transferUtils.executeTransfer(senderWallet.getId(), receiverWallet.getId(), requestDTO.getAmount(),
+                receiverWallet.getAlias(), senderWallet.getAlias(), traceId);
     }
 
     @Override
-    public String generateCvu() {
-        String cvu;
-        do {
-            StringBuilder cvuBuilder = new StringBuilder();
-            cvuBuilder.append(RANDOM.nextInt(9) + 1);
-            for (int i = 1; i < 22; i++) {
-                cvuBuilder.append(RANDOM.nextInt(10));
+    @Transactional(noRollbackFor = BusinessException.OperationPendingException.class)
+    public BatchTransferResponseDTO transferBatch(String senderEmail, BatchTransferRequestDTO requestDTO, String traceId) {
+        List<BatchTransferLegDTO> legs = requestDTO.getLegs();
+        if (legs.size() > maxBatchLegs) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT,
+                    "Una transferencia múltiple admite como máximo " + maxBatchLegs + " destinatarios.");
+        }
+        WalletIdentityCache.WalletRef senderWallet = resolveSender(senderEmail);
+
+        // Todos los destinatarios se resuelven con una sola consulta IN
+        Set<String> aliases = new HashSet<>();
+        Set<String> cvus = new HashSet<>();
+        for (BatchTransferLegDTO leg : legs) {
+            if (leg == null) continue;
+            if (leg.getTargetAlias() != null && !leg.getTargetAlias().isBlank()) aliases.add(leg.getTargetAlias().trim().toLowerCase());
+            if (leg.getTargetCvu() != null && !leg.getTargetCvu().isBlank()) cvus.add(leg.getTargetCvu().trim());
+        }
+        Map<String, WalletBalanceView> byAlias = new HashMap<>();
+        Map<String, WalletBalanceView> byCvu = new HashMap<>();
+        for (WalletBalanceView recipient : findRecipients(aliases, cvus)) {
+            byAlias.put(recipient.getAlias(), recipient);
+            byCvu.put(recipient.getCvu(), recipient);
+        }
+
+        List<BatchTransferLegResultDTO> results = new ArrayList<>(legs.size());
+        List<TransferUtils.TransferLeg> accepted = new ArrayList<>(legs.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < legs.size(); i++) {
+            BatchTransferLegDTO leg = legs.get(i);
+            String target = leg == null ? null : (leg.getTargetAlias() != null ? leg.getTargetAlias() : leg.getTargetCvu());
+            BigDecimal amount = leg == null ? null : leg.getAmount();
+            try {
+                accepted.add(resolveBatchLeg(leg, senderWallet, byAlias, byCvu));
+                total = total.add(amount);
+                results.add(new BatchTransferLegResultDTO(i, target, amount, BatchTransferLegResultDTO.COMPLETED, null, null));
+            } catch (BusinessException e) {
+                results.add(new BatchTransferLegResultDTO(i, target, amount, BatchTransferLegResultDTO.REJECTED,
+                        e.getErrorCode().name(), e.getDetail()));
+            }
+        }
+
+        WalletDetailsResponse walletDetails;
+        if (accepted.isEmpty()) {
+            log.warn("[TRANSFER-BATCH] Ningún tramo válido para {}. TraceId: {}", senderEmail, traceId);
+            walletDetails = new WalletDetailsResponse(senderWallet.getAlias(), currentBalance(senderWallet.getId()), senderWallet.getCvu());
+        } else {
+            // Límite diario y saldo se validan una sola vez sobre el total de los tramos aceptados
+            reserveDailyOutflow(senderWallet.getUserId(), total);
+            if (balanceEngine.isEnabled()) {
+                BigDecimal balance = balanceEngine.submit(EngineCommand.transfer(senderWallet.getId(), senderWallet.getUserId(), accepted));
+                walletDetails = new WalletDetailsResponse(senderWallet.getAlias(), balance, senderWallet.getCvu());
+            } else {
+                WalletBalanceView senderView = transferUtils.executeBatch(senderWallet.getId(), senderWallet.getUserId(), accepted, traceId);
+                walletDetails = new WalletDetailsResponse(senderView.getAlias(), senderView.getBalance(), senderView.getCvu());
             }
-            cvu = cvuBuilder.toString();
-        } while (walletRepository.existsByCvu(cvu));
-        return cvu;
+        }
+        log.info("[TRANSFER-BATCH] Transferencia múltiple de {}: {} tramos aceptados, {} rechazados. TraceId: {}",
+                senderEmail, accepted.size(), legs.size() - accepted.size(), traceId);
+        return new BatchTransferResponseDTO(walletDetails, accepted.size(), legs.size() - accepted.size(), total, results);
+    }
+
+    @Override
+    @Transactional // nextval no está permitido en transacciones de sólo lectura
+    public String generateCvu() {
+        return cvuAllocator.nextCvu();
     }
 
     @Override
@@ -164,24 +286,12 @@ public WalletDetailsResponse updateAlias(String userEmail, String newAlias) {
         Wallet wallet = getWalletByUserEmail(userEmail);
         String previousAlias = wallet.getAlias();
         String previousCvu = wallet.getCvu(); // Protección
-        String generatedAlias = aliasGeneratorService.generateAlias();
-        validateAliasNotNullOrEmpty(generatedAlias);
-        // Validar formato reforzado
-        boolean formatoValido = generatedAlias.matches("^[a-z]{2,}\\.[a-z]{2,}\\.[a-z]{2,}$")
-            && generatedAlias.length() >= 6 && generatedAlias.length() <= 30
-            && generatedAlias.chars().filter(ch -> ch == '.').count() == 2;
-        if (!formatoValido) {
-            log.error("[ALIAS VALIDATION] Alias generado inválido en updateAlias: {}", generatedAlias);
-            throw new BusinessException(ErrorCode.INVALID_ALIAS_FORMAT, "El alias generado no cumple el formato requerido.");
-        }
-        if (walletRepository.existsByAlias(generatedAlias)) {
-            log.error("[ALIAS VALIDATION] Alias generado ya en uso en updateAlias: {}", generatedAlias);
-            throw new BusinessException(ErrorCode.ALIAS_ALREADY_EXISTS, "El alias generado ya está en uso: " + generatedAlias);
-        }
+        String generatedAlias = aliasPool.take();
         wallet.setAlias(generatedAlias);
         // Protección: el CVU solo se asigna al crear la wallet y nunca debe ser modificado en ningún otro método.
         // No modificar wallet.setCvu() en ningún método salvo en la creación inicial.
         walletRepository.save(wallet);
+        walletIdentityCache.evictWallet(wallet.getId());
         registerTransaction("ALIAS_CHANGE", BigDecimal.ZERO, null, wallet.getUser());
         log.info("[ALIAS] Alias cambiado: {} → {} para usuario: {}", previousAlias, generatedAlias, userEmail);
         return new WalletDetailsResponse(wallet.getAlias(), wallet.getBalance(), wallet.getCvu());
@@ -190,8 +300,6 @@ public WalletDetailsResponse updateAlias(String userEmail, String newAlias) {
     @Override
     @Transactional
     public WalletDetailsResponse loadCardFunds(String userEmail, LoadCardRequestDTO requestDTO) {
-        Wallet wallet = getWalletByUserEmail(userEmail);
-
         if (!isValidCardNumber(requestDTO.getCardNumber())) {
             throw new BusinessException(ErrorCode.INVALID_CARD_NUMBER, "El número de tarjeta es inválido.");
         }
@@ -199,25 +307,45 @@ public WalletDetailsResponse loadCardFunds(String userEmail, LoadCardRequestDTO
         if (isCardExpired(requestDTO.getExpirationDate())) {
             throw new BusinessException(ErrorCode.INVALID_CARD_EXPIRATION, "La tarjeta está vencida.");
         }
+        if (balanceEngine.isEnabled()) {
+            WalletIdentityCache.WalletRef wallet = resolveSender(userEmail);
+            BigDecimal balance = balanceEngine.submit(EngineCommand.cardLoad(wallet.getId(), wallet.getUserId(),
+                    requestDTO.getAmount(), "LOAD_CARD", "SimulatedCard"));
+            log.info("[WALLET] Carga de tarjeta simulada realizada (motor en memoria): {} para usuario: {}", requestDTO.getAmount(), userEmail);
+            return new WalletDetailsResponse(wallet.getAlias(), balance, wallet.getCvu());
+        }
 
-        BigDecimal newBalance = wallet.getBalance().add(requestDTO.getAmount());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
+        WalletBalanceView wallet = walletBalanceUpdater.creditByEmail(userEmail, requestDTO.getAmount());
 
-        registerTransaction("LOAD_CARD", requestDTO.getAmount(), "SimulatedCard", wallet.getUser());
+        ledgerWriter.recordCardLoad(wallet.getId(), requestDTO.getAmount());
+        registerTransaction("LOAD_CARD", requestDTO.getAmount(), "SimulatedCard", userRepository.getReferenceById(wallet.getUserId()));
         log.info("[WALLET] Carga de tarjeta simulada realizada: {} para usuario: {}", requestDTO.getAmount(), userEmail);
-        return new WalletDetailsResponse(wallet.getAlias(), newBalance, wallet.getCvu());
+        return new WalletDetailsResponse(wallet.getAlias(), wallet.getBalance(), wallet.getCvu());
     }
 
     // === Métodos auxiliares ===
 
     private Wallet getWalletByUserEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + email));
-        return walletRepository.findByUser(user)
+        UUID walletId = resolveSender(email).getId();
+        return walletRepository.findById(walletId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada para: " + email));
     }
 
+    private WalletIdentityCache.WalletRef resolveSender(String email) {
+        return walletIdentityCache.byEmail(email)
+                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + email));
+    }
+
+    private BigDecimal currentBalance(UUID walletId) {
+        if (balanceEngine.isEnabled()) {
+            return balanceEngine.balanceOf(walletId);
+        }
+        BigDecimal balance = walletRepository.findById(walletId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada: " + walletId))
+                .getBalance();
+        return balance.add(hotWalletManager.slotBalance(walletId));
+    }
+
     private void validateAmount(BigDecimal amount) {
         if (amount == null) {
             throw new BusinessException(ErrorCode.TRANSACTION_FAILED, "El monto no puede ser nulo.");
@@ -231,11 +359,58 @@ private void validateAmount(BigDecimal amount) {
         }
     }
 
-    private void validateSufficientFunds(Wallet wallet, BigDecimal amount) {
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new BusinessException(ErrorCode.INSUFFICIENT_FUNDS,
-                    "Saldo insuficiente: balance actual " + wallet.getBalance() + ", se pidió " + amount);
+    // Postgres no acepta IN (): sin alias ni CVUs no hay nada que consultar
+    private List<WalletBalanceView> findRecipients(Set<String> aliases, Set<String> cvus) {
+        if (aliases.isEmpty() && cvus.isEmpty()) {
+            return List.of();
+        }
+        if (cvus.isEmpty()) {
+            return walletRepository.findByAliasIn(aliases);
         }
+        if (aliases.isEmpty()) {
+            return walletRepository.findByCvuIn(cvus);
+        }
+        return walletRepository.findByAliasInOrCvuIn(aliases, cvus);
+    }
+
+    private TransferUtils.TransferLeg resolveBatchLeg(BatchTransferLegDTO leg, WalletIdentityCache.WalletRef senderWallet,
+                                                      Map<String, WalletBalanceView> byAlias, Map<String, WalletBalanceView> byCvu) {
+        if (leg == null) {
+            throw new BusinessException(ErrorCode.VALIDATION_ERROR, "Tramo vacío.");
+        }
+        boolean hasAlias = leg.getTargetAlias() != null && !leg.getTargetAlias().isBlank();
+        boolean hasCvu = leg.getTargetCvu() != null && !leg.getTargetCvu().isBlank();
+        if (hasAlias == hasCvu) {
+            throw new BusinessException(ErrorCode.VALIDATION_ERROR, "Cada tramo debe indicar exactamente uno de targetAlias o targetCvu.");
+        }
+        validateAmount(leg.getAmount());
+        if (leg.getAmount().compareTo(MAX_TRANSFER_LIMIT) > 0) {
+            throw new BusinessException(ErrorCode.INVALID_AMOUNT, "La transferencia no puede superar 1 millón por operación.");
+        }
+
+        WalletBalanceView recipient = hasAlias
+                ? byAlias.get(leg.getTargetAlias().trim().toLowerCase())
+                : byCvu.get(leg.getTargetCvu().trim());
+        if (recipient == null) {
+            throw hasAlias
+                    ? new BusinessException(ErrorCode.RECEIVER_NOT_FOUND, "No se encontró un usuario con el alias especificado.")
+                    : new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera destino no encontrada para el CVU: " + leg.getTargetCvu());
+        }
+        if (recipient.getId().equals(senderWallet.getId())) {
+            throw new BusinessException(ErrorCode.SELF_TRANSFER, "No se puede transferir a uno mismo.");
+        }
+        return hasAlias
+                ? new TransferUtils.TransferLeg(recipient.getId(), recipient.getUserId(), leg.getAmount(), recipient.getAlias(), senderWallet.getAlias())
+                : new TransferUtils.TransferLeg(recipient.getId(), recipient.getUserId(), leg.getAmount(), recipient.getCvu(), senderWallet.getCvu());
+    }
+
+    /**
+     * Valida el límite diario del emisor y suma el monto a su contador del día en una sola sentencia.
+     * Si la transferencia falla más adelante, el rollback revierte también el contador.
+     */
+    private void reserveDailyOutflow(UUID userId, BigDecimal amount) {
+        dailyOutflowRepository.addIfWithinLimit(userId, LocalDate.now(), amount, MAX_DAILY_LIMIT)
+                .orElseThrow(() -> new BusinessException(ErrorCode.AMOUNT_EXCEEDS_LIMIT, "Supera el límite diario de 3 millones en transferencias."));
     }
 
     private void registerTransaction(String type, BigDecimal amount, String counterpart, User user) {
@@ -279,11 +454,4 @@ private boolean isCardExpired(String expirationDate) {
         LocalDate expiry = LocalDate.of(year, month, 1).withDayOfMonth(1).plusMonths(1).minusDays(1);
         return expiry.isBefore(LocalDate.now());
     }
-
-    private void validateAliasNotNullOrEmpty(String alias) {
-        if (alias == null || alias.isBlank()) {
-            log.error("[ALIAS VALIDATION] Alias nulo o vacío detectado.");
-            throw new BusinessException(ErrorCode.INVALID_ALIAS_FORMAT, "El alias no puede ser nulo ni vacío.");
-        }
-    }
 }
@@ -0,0 +1,199 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.service.AliasGeneratorService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Pool de alias pre-generados, validados y reservados en alias_reservations.
+ *
+ * Un refresco en segundo plano ({@code AliasPoolRefillTask}) genera candidatos, descarta en memoria
+ * los que el filtro de Bloom marca como posiblemente tomados y reserva el resto con una sola sentencia.
+ * Registro y cambio de alias sacan un alias del pool en O(1), sin consultas.
+ *
+ * El filtro se carga al iniciar con los alias existentes y sólo crece; un falso positivo descarta un
+ * candidato libre, nunca entrega uno tomado. La restricción UNIQUE de wallets.alias es el árbitro final.
+ */
+@Component
+@Slf4j
+public class AliasPool {
+
+    // Mismo formato que valida el registro; el largo máximo es el de la columna wallets.alias
+    private static final Pattern ALIAS_FORMAT = Pattern.compile("^[a-z]{2,}\\.[a-z]{2,}\\.[a-z]{2,}$");
+    private static final int MIN_LENGTH = 6;
+    private static final int MAX_LENGTH = 20;
+    private static final int MAX_CANDIDATE_ROUNDS = 20;
+
+    private static final String RESERVE_SQL = """
+            INSERT INTO alias_reservations (alias, reserved_at)
+            SELECT c.alias, now() FROM unnest(?::varchar[]) AS c(alias)
+            WHERE NOT EXISTS (SELECT 1 FROM wallets w WHERE w.alias = c.alias)
+            ON CONFLICT (alias) DO NOTHING
+            RETURNING alias
+            """;
+
+    private final AliasGeneratorService aliasGeneratorService;
+    private final JdbcTemplate jdbcTemplate;
+    private final BloomFilter taken;
+    private final BlockingQueue<PooledAlias> pool;
+    private final int lowWaterMark;
+    private final long maxAgeMillis;
+    private volatile boolean loaded;
+
+    public AliasPool(AliasGeneratorService aliasGeneratorService,
+                     JdbcTemplate jdbcTemplate,
+                     @Value("${cyberwallet.alias-pool.size:500}") int size,
+                     @Value("${cyberwallet.alias-pool.low-water-mark:100}") int lowWaterMark,
+                     @Value("${cyberwallet.alias-pool.expected-aliases:2000000}") long expectedAliases,
+                     @Value("${cyberwallet.alias-pool.false-positive-rate:0.01}") double falsePositiveRate,
+                     @Value("${cyberwallet.alias-pool.reservation-ttl-hours:24}") long reservationTtlHours) {
+        this.aliasGeneratorService = aliasGeneratorService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taken = new BloomFilter(expectedAliases, falsePositiveRate);
+        this.pool = new ArrayBlockingQueue<>(size);
+        this.lowWaterMark = Math.min(lowWaterMark, size);
+        // Un alias del pool se descarta a la mitad de la vigencia de su reserva, antes de que la purguen
+        this.maxAgeMillis = Duration.ofHours(reservationTtlHours).toMillis() / 2;
+    }
+
+    /**
+     * Carga en el filtro los alias en uso y los reservados por cualquier instancia.
+     */
+    public void loadTakenAliases() {
+        long[] count = {0};
+        jdbcTemplate.query("SELECT alias FROM wallets UNION ALL SELECT alias FROM alias_reservations", rs -> {
+            taken.put(rs.getString(1));
+            count[0]++;
+        });
+        loaded = true;
+        log.info("[ALIAS-POOL] Filtro de alias tomados cargado: {} alias", count[0]);
+    }
+
+    /**
+     * Entrega un alias reservado. Si el pool está vacío lo repone en el momento.
+     */
+    public String take() {
+        String alias = poll();
+        if (alias == null) {
+            refill();
+            alias = poll();
+        }
+        if (alias == null) {
+            log.error("[ALIAS-POOL] No se pudo reservar un alias libre");
+            throw new BusinessException(ErrorCode.ALIAS_ALREADY_EXISTS, "No se pudo generar un alias único. Intenta nuevamente.");
+        }
+        return alias;
+    }
+
+    public boolean needsRefill() {
+        return pool.size() < lowWaterMark;
+    }
+
+    /**
+     * Completa el pool hasta su capacidad.
+     */
+    public synchronized void refill() {
+        if (!loaded) {
+            loadTakenAliases();
+        }
+        int rounds = 0;
+        while (pool.remainingCapacity() > 0 && rounds++ < MAX_CANDIDATE_ROUNDS) {
+            Set<String> candidates = candidates(pool.remainingCapacity());
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            List<String> reserved = reserve(candidates);
+            // Los rechazados ya están tomados o reservados por otra instancia
+            candidates.forEach(taken::put);
+            long now = System.currentTimeMillis();
+            for (String alias : reserved) {
+                if (!pool.offer(new PooledAlias(alias, now))) {
+                    release(List.of(alias));
+                }
+            }
+        }
+    }
+
+    /**
+     * Borra las reservas ya convertidas en alias de billetera y las abandonadas (vencidas).
+     */
+    public int purgeReservations(long reservationTtlHours) {
+        return jdbcTemplate.update("""
+                DELETE FROM alias_reservations r
+                WHERE r.reserved_at < now() - make_interval(hours => ?)
+                   OR EXISTS (SELECT 1 FROM wallets w WHERE w.alias = r.alias)
+                """, (int) reservationTtlHours);
+    }
+
+    @PreDestroy
+    public void releasePooled() {
+        List<PooledAlias> drained = new ArrayList<>();
+        pool.drainTo(drained);
+        if (!drained.isEmpty()) {
+            release(drained.stream().map(PooledAlias::alias).toList());
+            log.info("[ALIAS-POOL] {} reservas liberadas al detener la instancia", drained.size());
+        }
+    }
+
+    private String poll() {
+        long now = System.currentTimeMillis();
+        PooledAlias pooled;
+        while ((pooled = pool.poll()) != null) {
+            if (now - pooled.reservedAt() < maxAgeMillis) {
+                return pooled.alias();
+            }
+        }
+        return null;
+    }
+
+    private Set<String> candidates(int wanted) {
+        Set<String> candidates = new LinkedHashSet<>();
+        int attempts = wanted * 4;
+        while (candidates.size() < wanted && attempts-- > 0) {
+            String alias = aliasGeneratorService.randomAlias();
+            if (alias.length() >= MIN_LENGTH && alias.length() <= MAX_LENGTH
+                    && ALIAS_FORMAT.matcher(alias).matches()
+                    && !taken.mightContain(alias)) {
+                candidates.add(alias);
+            }
+        }
+        return candidates;
+    }
+
+    private List<String> reserve(Set<String> candidates) {
+        String[] values = candidates.toArray(String[]::new);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RESERVE_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", values));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private void release(List<String> aliases) {
+        String[] values = new HashSet<>(aliases).toArray(String[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM alias_reservations WHERE alias = ANY(?)");
+            ps.setArray(1, con.createArrayOf("varchar", values));
+            return ps;
+        });
+    }
+
+    private record PooledAlias(String alias, long reservedAt) {
+    }
+}
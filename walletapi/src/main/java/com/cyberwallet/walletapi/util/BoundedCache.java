@@ -0,0 +1,296 @@
+package com.cyberwallet.walletapi.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache acotado en tamaño y con vencimiento por escritura (TTL), con admisión W-TinyLFU.
+ *
+ * Las entradas nuevas pasan por una ventana LRU chica (1%); al salir de ella compiten con la víctima
+ * del segmento principal (SLRU: prueba + protegido) y se queda la de mayor frecuencia estimada por un
+ * sketch Count-Min que envejece a la mitad periódicamente. Así un barrido de claves únicas (scraping)
+ * no desplaza a las claves frecuentes y la memoria nunca supera {@code maxSize} entradas.
+ *
+ * Las operaciones toman un único lock: los caches de la aplicación son chicos y las secciones críticas
+ * no hacen I/O ({@link #get(Object, Function)} carga fuera del lock).
+ * Se crean con {@link BoundedCacheFactory}, que registra las métricas.
+ */
+public class BoundedCache<K, V> {
+
+    private final int windowMax;
+    private final int protectedMax;
+    private final int mainMax;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    BoundedCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        if (maxSize < 2) {
+            throw new IllegalArgumentException("El cache " + name + " necesita al menos 2 entradas.");
+        }
+        this.windowMax = Math.max(1, maxSize / 100);
+        this.mainMax = maxSize - windowMax;
+        this.protectedMax = Math.max(1, mainMax * 8 / 10);
+        this.ttlNanos = ttl.toNanos();
+        this.sketch = new FrequencySketch(maxSize);
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .description("Lecturas servidas desde el cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .description("Lecturas sin valor vigente en el cache")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name)
+                .description("Entradas descartadas por tamaño o vencimiento")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, BoundedCache::size).tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * @return el valor vigente, o null si no está o venció.
+     */
+    public V getIfPresent(K key) {
+        V value;
+        synchronized (this) {
+            sketch.increment(key);
+            value = lookup(key);
+        }
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Devuelve el valor vigente o lo carga con {@code loader} (fuera del lock) y lo guarda.
+     * Si el loader lanza una excepción o devuelve null, no se cachea nada.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long now = System.nanoTime();
+        Entry<V> existing = find(key);
+        if (existing != null) {
+            existing.value = value;
+            existing.writtenAt = now;
+            return;
+        }
+        window.put(key, new Entry<>(value, now));
+        if (window.size() > windowMax) {
+            admitFromWindow(now);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    /**
+     * Descarta las entradas cuyo valor cumple {@code condition}. Recorre todo el cache: pensado para
+     * invalidaciones poco frecuentes por un atributo del valor.
+     *
+     * @return cantidad de entradas descartadas.
+     */
+    public synchronized int invalidateIf(Predicate<? super V> condition) {
+        int before = size();
+        window.values().removeIf(entry -> condition.test(entry.value));
+        probation.values().removeIf(entry -> condition.test(entry.value));
+        protectedSegment.values().removeIf(entry -> condition.test(entry.value));
+        return before - size();
+    }
+
+    public synchronized void invalidateAll() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    private V lookup(K key) {
+        long now = System.nanoTime();
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = protectedSegment.get(key);
+        }
+        if (entry == null) {
+            entry = probation.remove(key);
+            if (entry != null) {
+                promote(key, entry);
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (expired(entry, now)) {
+            invalidate(key);
+            evictions.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private Entry<V> find(K key) {
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = probation.get(key);
+        }
+        return entry != null ? entry : protectedSegment.get(key);
+    }
+
+    // Un acierto en prueba pasa a protegido; el más viejo de protegido vuelve a prueba
+    private void promote(K key, Entry<V> entry) {
+        protectedSegment.put(key, entry);
+        if (protectedSegment.size() > protectedMax) {
+            Map.Entry<K, Entry<V>> demoted = pollEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private void admitFromWindow(long now) {
+        Map.Entry<K, Entry<V>> candidate = pollEldest(window);
+        purgeExpiredHeads(now);
+        if (probation.size() + protectedSegment.size() < mainMax) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<K, Entry<V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victim = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+        // Si no, se descarta el candidato: es tan o menos frecuente que la víctima
+        evictions.increment();
+    }
+
+    // Las entradas más viejas de cada segmento suelen ser las vencidas; se liberan antes de desalojar vigentes
+    private void purgeExpiredHeads(long now) {
+        purgeExpiredHead(probation, now);
+        purgeExpiredHead(protectedSegment, now);
+    }
+
+    private void purgeExpiredHead(LinkedHashMap<K, Entry<V>> segment, long now) {
+        Iterator<Entry<V>> it = segment.values().iterator();
+        int scanned = 0;
+        while (it.hasNext() && scanned++ < 8) {
+            if (expired(it.next(), now)) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean expired(Entry<V> entry, long now) {
+        return now - entry.writtenAt >= ttlNanos;
+    }
+
+    private static <K, V> Map.Entry<K, Entry<V>> pollEldest(LinkedHashMap<K, Entry<V>> segment) {
+        Iterator<Map.Entry<K, Entry<V>>> it = segment.entrySet().iterator();
+        Map.Entry<K, Entry<V>> eldest = it.next();
+        Map.Entry<K, Entry<V>> polled = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        return polled;
+    }
+
+    private static final class Entry<V> {
+        private V value;
+        private long writtenAt;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Sketch Count-Min de 4 filas con contadores saturados en 15. Cada {@code 10 * maxSize}
+     * incrementos todos los contadores se dividen por 2, para que la historia vieja pierda peso.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize - 1)) << 1;
+            this.table = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (table[row][index] < MAX_COUNT) {
+                    table[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, table[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45d9f3b;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cyberwallet.walletapi.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Crea instancias de {@link BoundedCache} con sus métricas registradas
+ * (cache.gets{cache,result}, cache.evictions{cache}, cache.size{cache}).
+ */
+@Component
+@RequiredArgsConstructor
+public class BoundedCacheFactory {
+
+    private final MeterRegistry meterRegistry;
+
+    public <K, V> BoundedCache<K, V> create(String name, int maxSize, Duration ttl) {
+        return new BoundedCache<>(name, maxSize, ttl, meterRegistry);
+    }
+}
@@ -0,0 +1,80 @@
+package com.cyberwallet.walletapi.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asigna CVU de 22 dígitos con el formato del BCRA:
+ * bloque 1 = "000" + código de PSP (4) + dígito verificador, bloque 2 = cuenta (13) + dígito verificador.
+ *
+ * Los números de cuenta se toman en bloques de la secuencia cvu_account_seq (migración V9), cuyo
+ * INCREMENT BY es el tamaño del bloque: cada nextval le da a este nodo un rango exclusivo, y dentro
+ * del rango los CVU se entregan sin consultar la base.
+ */
+@Component
+@Slf4j
+public class CvuAllocator {
+
+    private static final int[] BLOCK1_WEIGHTS = {7, 1, 3, 9, 7, 1, 3};
+    private static final int[] BLOCK2_WEIGHTS = {3, 9, 7, 1, 3, 9, 7, 1, 3, 9, 7, 1, 3};
+    private static final long MAX_ACCOUNT = 9_999_999_999_999L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String block1;
+    private long next;
+    private long blockEnd;
+
+    public CvuAllocator(JdbcTemplate jdbcTemplate,
+                        @Value("${cyberwallet.cvu.psp-code:0001}") String pspCode) {
+        if (!pspCode.matches("\\d{4}")) {
+            throw new IllegalArgumentException("El código de PSP para CVU debe tener 4 dígitos: " + pspCode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        String entity = "000" + pspCode;
+        this.block1 = entity + checkDigit(entity, BLOCK1_WEIGHTS);
+    }
+
+    public synchronized String nextCvu() {
+        if (next >= blockEnd) {
+            leaseBlock();
+        }
+        String account = String.format("%013d", next++);
+        return block1 + account + checkDigit(account, BLOCK2_WEIGHTS);
+    }
+
+    /**
+     * Verifica longitud y ambos dígitos verificadores.
+     */
+    public static boolean isValid(String cvu) {
+        if (cvu == null || !cvu.matches("\\d{22}")) {
+            return false;
+        }
+        return cvu.charAt(7) == checkDigit(cvu.substring(0, 7), BLOCK1_WEIGHTS)
+                && cvu.charAt(21) == checkDigit(cvu.substring(8, 21), BLOCK2_WEIGHTS);
+    }
+
+    private void leaseBlock() {
+        // nextval y el incremento de la secuencia en una sola consulta
+        long[] lease = jdbcTemplate.queryForObject(
+                "SELECT nextval('cvu_account_seq'), (SELECT increment_by FROM pg_sequences WHERE sequencename = 'cvu_account_seq')",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        long start = lease[0];
+        long end = start + lease[1];
+        if (end - 1 > MAX_ACCOUNT) {
+            throw new IllegalStateException("Se agotaron los números de cuenta para CVU.");
+        }
+        next = start;
+        blockEnd = end;
+        log.info("[CVU] Bloque de cuentas reservado: [{}, {})", start, end);
+    }
+
+    private static char checkDigit(String digits, int[] weights) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += (digits.charAt(i) - '0') * weights[i];
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
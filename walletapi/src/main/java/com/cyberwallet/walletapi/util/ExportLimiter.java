@@ -0,0 +1,75 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cupo de exportaciones simultáneas.
+ *
+ * Cada exportación retiene una conexión del pool de Hikari mientras dura el streaming; sin tope,
+ * unas pocas descargas lentas dejan al resto de la API sin conexiones. Si no hay cupo se rechaza
+ * en el acto con 503, antes de empezar a escribir la respuesta.
+ *
+ * El lugar se devuelve con {@link Permit#release()}, que es idempotente: el controller lo libera
+ * al terminar el streaming y también al cerrar el request asíncrono, por si el cuerpo nunca llega a
+ * ejecutarse (timeout o cliente desconectado antes de empezar).
+ */
+@Component
+@Slf4j
+public class ExportLimiter {
+
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final Counter rejected;
+
+    public ExportLimiter(MeterRegistry meterRegistry,
+                         @Value("${cyberwallet.export.max-concurrent:2}") int maxConcurrent) {
+        this.slots = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.rejected = Counter.builder("export.rejected")
+                .description("Exportaciones rechazadas por falta de cupo")
+                .register(meterRegistry);
+        Gauge.builder("export.active", slots, s -> maxConcurrent - s.availablePermits())
+                .description("Exportaciones en curso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Toma un lugar o falla con SERVICE_UNAVAILABLE. Quien lo obtiene debe llamar a {@link Permit#release()}.
+     */
+    public Permit acquire() {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            log.warn("[EXPORT] Sin cupo para exportar: {} exportaciones en curso", maxConcurrent);
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE,
+                    "Hay demasiadas exportaciones en curso. Intenta nuevamente en unos minutos.");
+        }
+        return new Permit();
+    }
+
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * Devuelve el lugar; las llamadas siguientes no hacen nada.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Billeteras "calientes" con el saldo repartido en sub-saldos (wallet_balance_slots).
+ *
+ * Los créditos entrantes suman en un slot al azar, así que N transferencias concurrentes hacia
+ * la misma billetera se reparten entre N filas en lugar de esperar el lock de una sola. Los débitos
+ * usan wallets.balance y, si no alcanza, barren los slots hacia esa fila. Un consolidador periódico
+ * vuelca los slots en wallets.balance para mantenerlos chicos.
+ *
+ * El registro en memoria se refresca desde la base, de modo que las billeteras habilitadas en
+ * otra instancia se detectan en el siguiente ciclo.
+ */
+@Component
+@Slf4j
+public class HotWalletManager {
+
+    private static final String CREDIT_SLOT_SQL =
+            "UPDATE wallet_balance_slots SET balance = balance + ? WHERE wallet_id = ? AND slot = ?";
+    private static final String SLOT_SUM_SQL =
+            "SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_slots WHERE wallet_id = ?";
+    // Toma los slots con saldo, los pone en cero y suma lo barrido a wallets.balance en una sola sentencia
+    private static final String CONSOLIDATE_SQL = """
+            WITH swept AS (
+                SELECT slot, balance FROM wallet_balance_slots
+                WHERE wallet_id = ? AND balance <> 0
+                FOR UPDATE
+            ), cleared AS (
+                UPDATE wallet_balance_slots s SET balance = 0
+                FROM swept WHERE s.wallet_id = ? AND s.slot = swept.slot
+                RETURNING swept.balance
+            )
+            UPDATE wallets SET balance = balance + (SELECT COALESCE(SUM(balance), 0) FROM cleared)
+            WHERE id = ?
+            RETURNING (SELECT COALESCE(SUM(balance), 0) FROM cleared)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxSlots;
+    private final Map<UUID, HotWallet> hotWallets = new ConcurrentHashMap<>();
+
+    public HotWalletManager(JdbcTemplate jdbcTemplate,
+                            @Value("${cyberwallet.hot-wallets.max-slots:64}") int maxSlots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSlots = maxSlots;
+    }
+
+    public boolean isHot(UUID walletId) {
+        return !hotWallets.isEmpty() && hotWallets.containsKey(walletId);
+    }
+
+    /**
+     * Acredita en un slot al azar. Devuelve false si la billetera ya no está particionada
+     * (deshabilitada desde otra instancia); en ese caso el llamador acredita wallets.balance.
+     */
+    public boolean creditSlot(UUID walletId, BigDecimal amount) {
+        HotWallet hot = hotWallets.get(walletId);
+        if (hot == null) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(hot.slots);
+        return jdbcTemplate.update(CREDIT_SLOT_SQL, amount, walletId, slot) == 1;
+    }
+
+    public BigDecimal slotBalance(UUID walletId) {
+        if (!isHot(walletId)) {
+            return BigDecimal.ZERO;
+        }
+        return jdbcTemplate.queryForObject(SLOT_SUM_SQL, BigDecimal.class, walletId);
+    }
+
+    /**
+     * Vuelca los slots en wallets.balance. Debe correr dentro de una transacción.
+     *
+     * @return monto barrido desde los slots.
+     */
+    public BigDecimal consolidate(UUID walletId) {
+        List<BigDecimal> moved = jdbcTemplate.queryForList(CONSOLIDATE_SQL, BigDecimal.class, walletId, walletId, walletId);
+        return moved.isEmpty() || moved.get(0) == null ? BigDecimal.ZERO : moved.get(0);
+    }
+
+    @Transactional
+    public BigDecimal consolidateInTransaction(UUID walletId) {
+        return consolidate(walletId);
+    }
+
+    /**
+     * Particiona el saldo de la billetera en {@code slots} sub-saldos (o cambia la cantidad).
+     *
+     * La fila de wallets se toma FOR UPDATE para serializar habilitaciones concurrentes (p. ej. varias
+     * instancias arrancando a la vez); si ya tiene esa cantidad de slots no se toca nada. Los slots que
+     * sobran se borran y su saldo se suma a wallets.balance en la misma sentencia: un crédito concurrente
+     * queda incluido en lo borrado o no encuentra el slot y se acredita en wallets.balance.
+     */
+    @Transactional
+    public void enable(UUID walletId, int slots) {
+        if (slots < 1 || slots > maxSlots) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT, "La cantidad de slots debe estar entre 1 y " + maxSlots + ".");
+        }
+        HotWallet current = lockWallet(walletId);
+        if (current.slots == slots) {
+            hotWallets.put(walletId, current);
+            log.debug("[HOT-WALLET] Billetera {} ya particionada en {} slots", walletId, slots);
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(new Object[]{walletId, slot});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (?, ?, 0) "
+                + "ON CONFLICT (wallet_id, slot) DO NOTHING", rows);
+        foldSlots(walletId, slots);
+        hotWallets.put(walletId, new HotWallet(slots, current.userId));
+        log.info("[HOT-WALLET] Billetera {} particionada en {} slots (antes {})", walletId, slots, current.slots);
+    }
+
+    @Transactional
+    public void disable(UUID walletId) {
+        lockWallet(walletId);
+        foldSlots(walletId, 0);
+        hotWallets.remove(walletId);
+        log.info("[HOT-WALLET] Billetera {} vuelve a un único saldo", walletId);
+    }
+
+    private HotWallet lockWallet(UUID walletId) {
+        List<HotWallet> wallet = jdbcTemplate.query("SELECT balance_slots, user_id FROM wallets WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> new HotWallet(rs.getInt("balance_slots"), rs.getObject("user_id", UUID.class)), walletId);
+        if (wallet.isEmpty()) {
+            throw new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada: " + walletId);
+        }
+        return wallet.get(0);
+    }
+
+    // Borra los slots >= keep, suma su saldo a wallets.balance y deja balance_slots = keep, en una sentencia
+    private void foldSlots(UUID walletId, int keep) {
+        jdbcTemplate.update("""
+                WITH removed AS (
+                    DELETE FROM wallet_balance_slots WHERE wallet_id = ? AND slot >= ?
+                    RETURNING balance
+                )
+                UPDATE wallets SET balance = balance + (SELECT COALESCE(SUM(balance), 0) FROM removed), balance_slots = ?
+                WHERE id = ?
+                """, walletId, keep, keep, walletId);
+    }
+
+    /**
+     * Recarga el registro de billeteras particionadas desde la base.
+     */
+    public void refresh() {
+        Map<UUID, HotWallet> current = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, balance_slots FROM wallets WHERE balance_slots > 0", rs -> {
+            current.put(rs.getObject("id", UUID.class),
+                    new HotWallet(rs.getInt("balance_slots"), rs.getObject("user_id", UUID.class)));
+        });
+        hotWallets.keySet().retainAll(current.keySet());
+        hotWallets.putAll(current);
+    }
+
+    public List<UUID> hotWalletIds() {
+        return new ArrayList<>(hotWallets.keySet());
+    }
+
+    public UUID ownerOf(UUID walletId) {
+        HotWallet hot = hotWallets.get(walletId);
+        return hot == null ? null : hot.userId;
+    }
+
+    private record HotWallet(int slots, UUID userId) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.entity.LedgerEntry;
+import com.cyberwallet.walletapi.entity.SystemAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escribe los asientos del libro mayor (ledger_entries). Cada asiento se inserta con un solo
+ * batch JDBC y debe llamarse dentro de la misma transacción que la mutación de saldo.
+ *
+ * created_at es siempre la hora del insert ({@link Batch#flush()}), no la de la operación: los
+ * checkpoints sólo recorren movimientos recientes y un asiento fechado en el pasado quedaría fuera
+ * de todos. Si la operación ocurrió antes (escritura diferida) su hora queda en occurred_at.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_entries (journal_id, account_id, account_type, entry_type, amount, created_at, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void recordDeposit(UUID walletId, BigDecimal amount) {
+        batch().deposit(walletId, amount, LocalDateTime.now()).flush();
+    }
+
+    public void recordWithdrawal(UUID walletId, BigDecimal amount) {
+        batch().withdrawal(walletId, amount, LocalDateTime.now()).flush();
+    }
+
+    public void recordCardLoad(UUID walletId, BigDecimal amount) {
+        batch().cardLoad(walletId, amount, LocalDateTime.now()).flush();
+    }
+
+    public void recordTransfer(UUID senderWalletId, UUID receiverWalletId, BigDecimal amount) {
+        batch().transfers(senderWalletId, Map.of(receiverWalletId, amount), LocalDateTime.now()).flush();
+    }
+
+    /**
+     * Asiento de una transferencia múltiple: un débito al emisor por el total y un crédito por billetera destino.
+     */
+    public void recordTransfers(UUID senderWalletId, Map<UUID, BigDecimal> creditsByWallet) {
+        batch().transfers(senderWalletId, creditsByWallet, LocalDateTime.now()).flush();
+    }
+
+    /**
+     * Acumula asientos de varias operaciones para insertarlos en un único batch.
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    public final class Batch {
+
+        private final List<Row> rows = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        public Batch deposit(UUID walletId, BigDecimal amount, LocalDateTime at) {
+            return external("DEPOSIT", walletId, amount, SystemAccount.CASH_IN, at);
+        }
+
+        public Batch withdrawal(UUID walletId, BigDecimal amount, LocalDateTime at) {
+            return external("WITHDRAW", walletId, amount.negate(), SystemAccount.CASH_OUT, at);
+        }
+
+        public Batch cardLoad(UUID walletId, BigDecimal amount, LocalDateTime at) {
+            return external("LOAD_CARD", walletId, amount, SystemAccount.CARD_SETTLEMENT, at);
+        }
+
+        public Batch transfers(UUID senderWalletId, Map<UUID, BigDecimal> creditsByWallet, LocalDateTime at) {
+            UUID journalId = UUID.randomUUID();
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<UUID, BigDecimal> credit : creditsByWallet.entrySet()) {
+                total = total.add(credit.getValue());
+                rows.add(new Row(journalId, credit.getKey(), LedgerEntry.ACCOUNT_WALLET, "TRANSFER", credit.getValue(), at));
+            }
+            rows.add(new Row(journalId, senderWalletId, LedgerEntry.ACCOUNT_WALLET, "TRANSFER", total.negate(), at));
+            return this;
+        }
+
+        /**
+         * Operación contra el exterior: el movimiento de la billetera y su contrapartida en una cuenta del sistema.
+         */
+        private Batch external(String entryType, UUID walletId, BigDecimal signedAmount, SystemAccount counterpart, LocalDateTime at) {
+            UUID journalId = UUID.randomUUID();
+            rows.add(new Row(journalId, walletId, LedgerEntry.ACCOUNT_WALLET, entryType, signedAmount, at));
+            rows.add(new Row(journalId, counterpart.getId(), LedgerEntry.ACCOUNT_SYSTEM, entryType, signedAmount.negate(), at));
+            return this;
+        }
+
+        /**
+         * Inserta los asientos acumulados con created_at = ahora y occurred_at = hora de cada operación.
+         */
+        public void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                args.add(new Object[]{row.journalId(), row.accountId(), row.accountType(), row.entryType(), row.amount(),
+                        createdAt, Timestamp.valueOf(row.at())});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            rows.clear();
+        }
+    }
+
+    private record Row(UUID journalId, UUID accountId, String accountType, String entryType, BigDecimal amount, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.dto.wallet.WalletDetailsResponse;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Ejecuta transferencias con la función Postgres {@code cw_transfer} (migración V2).
+ * Emisor, receptor, límite diario, saldo, ambos UPDATE y ambos movimientos se resuelven
+ * en una sola llamada; los errores de negocio vuelven como SQLSTATE propios (CWxxx).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NativeTransferEngine {
+
+    private static final String TRANSFER_SQL =
+            "SELECT new_balance, sender_alias, sender_cvu FROM cw_transfer(?::varchar, ?::varchar, ?::varchar, ?::numeric, ?::numeric, ?::timestamp)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalletDetailsResponse transferByCvu(String senderEmail, String targetCvu, BigDecimal amount, BigDecimal dailyLimit) {
+        return execute(senderEmail, targetCvu, null, amount, dailyLimit);
+    }
+
+    public WalletDetailsResponse transferByAlias(String senderEmail, String targetAlias, BigDecimal amount, BigDecimal dailyLimit) {
+        return execute(senderEmail, null, targetAlias, amount, dailyLimit);
+    }
+
+    private WalletDetailsResponse execute(String senderEmail, String targetCvu, String targetAlias,
+                                          BigDecimal amount, BigDecimal dailyLimit) {
+        try {
+            return jdbcTemplate.queryForObject(TRANSFER_SQL,
+                    (rs, rowNum) -> new WalletDetailsResponse(
+                            rs.getString("sender_alias"),
+                            rs.getBigDecimal("new_balance"),
+                            rs.getString("sender_cvu")),
+                    senderEmail, targetCvu, targetAlias, amount, dailyLimit, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DataAccessException ex) {
+            throw translate(ex, targetCvu, targetAlias);
+        }
+    }
+
+    private RuntimeException translate(DataAccessException ex, String targetCvu, String targetAlias) {
+        String sqlState = sqlState(ex);
+        if (sqlState == null) {
+            return ex;
+        }
+        return switch (sqlState) {
+            case "CW400" -> new BusinessException(ErrorCode.SELF_TRANSFER, "No se puede transferir a uno mismo.");
+            case "CW402" -> new BusinessException(ErrorCode.INSUFFICIENT_FUNDS, "Saldo insuficiente para realizar la transferencia.");
+            case "CW404" -> new BusinessException(ErrorCode.USER_NOT_FOUND, "Emisor no encontrado.");
+            case "CW405" -> new BusinessException(ErrorCode.RECEIVER_NOT_FOUND,
+                    "No se encontró un usuario con el alias especificado: " + targetAlias);
+            case "CW406" -> new BusinessException(ErrorCode.WALLET_NOT_FOUND,
+                    "Billetera destino no encontrada para el CVU: " + targetCvu);
+            case "CW429" -> new BusinessException(ErrorCode.AMOUNT_EXCEEDS_LIMIT, "Supera el límite diario de 3 millones en transferencias.");
+            default -> {
+                log.error("[TRANSFER-NATIVE] Error inesperado en cw_transfer (SQLSTATE {})", sqlState, ex);
+                yield ex;
+            }
+        };
+    }
+
+    private String sqlState(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return sqlException.getSQLState();
+            }
+        }
+        return null;
+    }
+}
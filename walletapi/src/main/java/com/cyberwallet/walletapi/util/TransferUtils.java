@@ -7,57 +7,182 @@
 import com.cyberwallet.walletapi.exception.BusinessException;
 import com.cyberwallet.walletapi.exception.ErrorCode;
 import com.cyberwallet.walletapi.repository.TransactionRepository;
-import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.UserRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TransferUtils {
 
-    private final WalletRepository walletRepository;
+    private static final int JDBC_BATCH_SIZE = 100;
+    private static final String LOCK_WALLETS_SQL = "SELECT id FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    private static final String CREDIT_SQL = "UPDATE wallets SET balance = balance + ? WHERE id = ?";
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transacciones (id, type, amount, counterpart, date, user_id) VALUES (?, ?, ?, ?, ?, ?)";
+
     private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final WalletBalanceUpdater walletBalanceUpdater;
+    private final WalletLockManager walletLockManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final LedgerWriter ledgerWriter;
+    private final HotWalletManager hotWalletManager;
 
     @Transactional
     public WalletDetailsResponse executeTransfer(User sender, User receiver, BigDecimal amount, String traceId) {
         Wallet senderWallet = sender.getWallet();
         Wallet receiverWallet = receiver.getWallet();
+        return executeTransfer(senderWallet.getId(), receiverWallet.getId(), amount,
+                receiverWallet.getAlias(), senderWallet.getAlias(), traceId);
+    }
 
-        if (senderWallet.getBalance().compareTo(amount) < 0) {
-            throw new BusinessException(ErrorCode.INSUFFICIENT_FUNDS, "Saldo insuficiente.");
+    /**
+     * Ejecuta una transferencia entre dos billeteras identificadas por id.
+     * Las billeteras se bloquean en orden canónico hasta el fin de la transacción y los UPDATE
+     * se emiten en ese mismo orden, para no generar deadlocks ni en la JVM ni en Postgres.
+     *
+     * @param outCounterpart contraparte registrada en el TRANSFER_OUT del emisor.
+     * @param inCounterpart  contraparte registrada en el TRANSFER_IN del receptor.
+     */
+    @Transactional
+    public WalletDetailsResponse executeTransfer(UUID senderWalletId, UUID receiverWalletId, BigDecimal amount,
+                                                 String outCounterpart, String inCounterpart, String traceId) {
+        WalletBalanceView senderView;
+        UUID receiverUserId = hotWalletManager.isHot(receiverWalletId) ? hotWalletManager.ownerOf(receiverWalletId) : null;
+        // El sub-saldo se acredita antes de tomar locks: si la billetera dejó de estar particionada
+        // (desde otra instancia) no queda ningún lock tomado y se sigue por el camino normal, que
+        // bloquea emisor y receptor en orden canónico
+        if (receiverUserId != null && hotWalletManager.creditSlot(receiverWalletId, amount)) {
+            // Receptor particionado: sólo se serializa el emisor; si el débito falla se revierte también el crédito
+            walletLockManager.lockForTransaction(senderWalletId);
+            senderView = walletBalanceUpdater.applyDelta(senderWalletId, amount.negate());
+        } else {
+            walletLockManager.lockForTransaction(senderWalletId, receiverWalletId);
+            WalletBalanceView receiverView;
+            if (WalletLockManager.DB_ORDER.compare(senderWalletId, receiverWalletId) < 0) {
+                senderView = walletBalanceUpdater.applyDelta(senderWalletId, amount.negate());
+                receiverView = walletBalanceUpdater.applyDelta(receiverWalletId, amount);
+            } else {
+                // Si el débito falla, la excepción revierte también el crédito ya aplicado
+                receiverView = walletBalanceUpdater.applyDelta(receiverWalletId, amount);
+                senderView = walletBalanceUpdater.applyDelta(senderWalletId, amount.negate());
+            }
+            receiverUserId = receiverView.getUserId();
         }
 
-        senderWallet.setBalance(senderWallet.getBalance().subtract(amount));
-        receiverWallet.setBalance(receiverWallet.getBalance().add(amount));
-
-        walletRepository.save(senderWallet);
-        walletRepository.save(receiverWallet);
+        ledgerWriter.recordTransfer(senderWalletId, receiverWalletId, amount);
 
+        LocalDateTime now = LocalDateTime.now();
         transactionRepository.save(Transaction.builder()
                 .type("TRANSFER_OUT")
                 .amount(amount)
-                .counterpart(receiverWallet.getAlias())
-                .date(LocalDateTime.now())
-                .user(sender)
+                .counterpart(outCounterpart)
+                .date(now)
+                .user(userRepository.getReferenceById(senderView.getUserId()))
                 .build());
 
         transactionRepository.save(Transaction.builder()
                 .type("TRANSFER_IN")
                 .amount(amount)
-                .counterpart(senderWallet.getAlias())
-                .date(LocalDateTime.now())
-                .user(receiver)
+                .counterpart(inCounterpart)
+                .date(now)
+                .user(userRepository.getReferenceById(receiverUserId))
                 .build());
 
         log.info("[TRANSFER] Transferencia realizada correctamente. TraceId: {}", traceId);
 
-        return new WalletDetailsResponse(senderWallet.getAlias(), senderWallet.getBalance(), senderWallet.getCvu());
+        return new WalletDetailsResponse(senderView.getAlias(), senderView.getBalance(), senderView.getCvu());
+    }
+
+    /**
+     * Ejecuta una transferencia múltiple ya validada: un único débito al emisor por el total,
+     * los créditos agrupados por billetera y los movimientos, todo con JDBC batching.
+     * Las filas de wallets se bloquean con un solo SELECT ... FOR UPDATE ordenado por id; las billeteras
+     * particionadas reciben el crédito en un sub-saldo, igual que en {@link #executeTransfer}.
+     *
+     * @return estado de la billetera del emisor tras el débito.
+     */
+    @Transactional
+    public WalletBalanceView executeBatch(UUID senderWalletId, UUID senderUserId, List<TransferLeg> legs, String traceId) {
+        BigDecimal total = BigDecimal.ZERO;
+        Map<UUID, BigDecimal> credits = new HashMap<>();
+        for (TransferLeg leg : legs) {
+            total = total.add(leg.getAmount());
+            credits.merge(leg.getReceiverWalletId(), leg.getAmount(), BigDecimal::add);
+        }
+
+        // Los receptores particionados no se bloquean: su crédito va a un sub-saldo. Se acreditan antes
+        // de tomar locks para que los que dejaron de estar particionados (desde otra instancia) entren
+        // en el lock canónico junto con el resto
+        Map<UUID, BigDecimal> rowCredits = new HashMap<>();
+        credits.forEach((walletId, amount) -> {
+            if (!hotWalletManager.isHot(walletId) || !hotWalletManager.creditSlot(walletId, amount)) {
+                rowCredits.put(walletId, amount);
+            }
+        });
+
+        Set<UUID> walletIds = new HashSet<>(rowCredits.keySet());
+        walletIds.add(senderWalletId);
+        walletLockManager.lockForTransaction(walletIds.toArray(UUID[]::new));
+        namedParameterJdbcTemplate.queryForList(LOCK_WALLETS_SQL, Map.of("ids", walletIds), UUID.class);
+
+        WalletBalanceView senderView = walletBalanceUpdater.applyDelta(senderWalletId, total.negate());
+
+        jdbcTemplate.batchUpdate(CREDIT_SQL, rowCredits.entrySet(), JDBC_BATCH_SIZE, (ps, credit) -> {
+            ps.setBigDecimal(1, credit.getValue());
+            ps.setObject(2, credit.getKey());
+        });
+
+        ledgerWriter.recordTransfers(senderWalletId, credits);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(legs.size() * 2);
+        for (TransferLeg leg : legs) {
+            rows.add(new Object[]{UUID.randomUUID(), "TRANSFER_OUT", leg.getAmount(), leg.getOutCounterpart(), now, senderUserId});
+            rows.add(new Object[]{UUID.randomUUID(), "TRANSFER_IN", leg.getAmount(), leg.getInCounterpart(), now, leg.getReceiverUserId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, rows, JDBC_BATCH_SIZE, (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setObject(i + 1, row[i]);
+            }
+        });
+
+        log.info("[TRANSFER-BATCH] {} tramos por {} aplicados. TraceId: {}", legs.size(), total, traceId);
+        return senderView;
+    }
+
+    /**
+     * Tramo de una transferencia múltiple con el destinatario ya resuelto.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TransferLeg {
+        private final UUID receiverWalletId;
+        private final UUID receiverUserId;
+        private final BigDecimal amount;
+        private final String outCounterpart;
+        private final String inCounterpart;
     }
 
     public static void validateAmount(BigDecimal amount) {
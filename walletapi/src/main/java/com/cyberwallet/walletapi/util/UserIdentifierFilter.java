@@ -0,0 +1,136 @@
+package com.cyberwallet.walletapi.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filtros de Bloom de usernames y emails tomados, para los endpoints de disponibilidad del registro.
+ *
+ * Si el filtro no contiene el valor, está libre con certeza y no se consulta la base; sólo los
+ * posibles positivos llegan a existsByUsername/existsByEmail. Los valores se normalizan a minúsculas,
+ * así que una diferencia de mayúsculas cae en la base, que decide.
+ *
+ * Se cargan al iniciar, se alimentan en el registro y los cambios de perfil de esta instancia y se
+ * sincronizan periódicamente con users.updated_at para ver los de otras instancias.
+ */
+@Component
+@Slf4j
+public class UserIdentifierFilter {
+
+    private static final String CHANGED_SINCE_SQL = "SELECT email, username FROM users WHERE updated_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long syncLagSeconds;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Counter definiteCounter;
+    private final Counter fallThroughCounter;
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    private volatile boolean loaded;
+    private LocalDateTime watermark;
+
+    public UserIdentifierFilter(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${cyberwallet.identifier-filter.expected-users:2000000}") long expectedUsers,
+                                @Value("${cyberwallet.identifier-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${cyberwallet.identifier-filter.sync-lag-seconds:60}") long syncLagSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncLagSeconds = syncLagSeconds;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.definiteCounter = Counter.builder("identifier.filter.lookups")
+                .tag("result", "available")
+                .description("Consultas de disponibilidad resueltas en memoria")
+                .register(meterRegistry);
+        this.fallThroughCounter = Counter.builder("identifier.filter.lookups")
+                .tag("result", "maybe_taken")
+                .description("Consultas de disponibilidad que requieren la base")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstruye ambos filtros desde cero. También descarta valores que ya se liberaron
+     * (cambios de email o username), que el filtro no puede borrar.
+     */
+    public synchronized void rebuild() {
+        BloomFilter newUsernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        BloomFilter newEmails = new BloomFilter(expectedUsers, falsePositiveRate);
+        LocalDateTime started = LocalDateTime.now();
+        long[] count = {0};
+        jdbcTemplate.query("SELECT email, username FROM users", rs -> {
+            newEmails.put(normalize(rs.getString(1)));
+            newUsernames.put(normalize(rs.getString(2)));
+            count[0]++;
+        });
+        usernames = newUsernames;
+        emails = newEmails;
+        // Lo registrado durante la carga entra en la próxima sincronización (se relee desde started - lag)
+        watermark = started;
+        loaded = true;
+        log.info("[IDENTIFIER-FILTER] Filtros de username/email cargados: {} usuarios", count[0]);
+    }
+
+    /**
+     * Agrega los usuarios creados o modificados desde la última pasada (con margen para
+     * transacciones que commitearon tarde o relojes desfasados).
+     */
+    public synchronized void sync() {
+        if (!loaded) {
+            rebuild();
+            return;
+        }
+        LocalDateTime since = watermark.minusSeconds(syncLagSeconds);
+        LocalDateTime started = LocalDateTime.now();
+        jdbcTemplate.query(CHANGED_SINCE_SQL, rs -> {
+            emails.put(normalize(rs.getString(1)));
+            usernames.put(normalize(rs.getString(2)));
+        }, Timestamp.valueOf(since));
+        watermark = started;
+    }
+
+    public void addUsername(String username) {
+        if (username != null) {
+            usernames.put(normalize(username));
+        }
+    }
+
+    public void addEmail(String email) {
+        if (email != null) {
+            emails.put(normalize(email));
+        }
+    }
+
+    /**
+     * @return false si el username seguro no está tomado; true si hay que confirmarlo en la base.
+     */
+    public boolean mightHaveUsername(String username) {
+        return record(!loaded || usernames.mightContain(normalize(username)));
+    }
+
+    /**
+     * @return false si el email seguro no está tomado; true si hay que confirmarlo en la base.
+     */
+    public boolean mightHaveEmail(String email) {
+        return record(!loaded || emails.mightContain(normalize(email)));
+    }
+
+    private boolean record(boolean maybeTaken) {
+        (maybeTaken ? fallThroughCounter : definiteCounter).increment();
+        return maybeTaken;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,112 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.entity.Wallet;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.UserRepository;
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Punto único para modificar saldos de billeteras.
+ * Usa las mutaciones condicionales de {@link WalletRepository}: una sola sentencia por operación,
+ * sin leer la entidad antes y sin pérdida de actualizaciones bajo concurrencia.
+ * Las consultas adicionales sólo se hacen en el camino de error, para informar el motivo.
+ *
+ * Para billeteras particionadas ({@link HotWalletManager}) el saldo informado incluye los sub-saldos,
+ * y un débito que no alcanza con wallets.balance barre los slots antes de rechazarse.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletBalanceUpdater {
+
+    private final WalletRepository walletRepository;
+    private final UserRepository userRepository;
+    private final HotWalletManager hotWalletManager;
+
+    public WalletBalanceView creditByEmail(String email, BigDecimal amount) {
+        Optional<WalletBalanceView> view = walletRepository.applyBalanceDeltaByEmail(email, amount);
+        if (view.isPresent()) {
+            return withSlots(view.get());
+        }
+        throw failure(resolveByEmail(email), amount);
+    }
+
+    public WalletBalanceView debitByEmail(String email, BigDecimal amount) {
+        Optional<WalletBalanceView> view = walletRepository.applyBalanceDeltaByEmail(email, amount.negate());
+        if (view.isPresent()) {
+            return withSlots(view.get());
+        }
+        return retryAfterSweep(resolveByEmail(email), amount.negate());
+    }
+
+    public WalletBalanceView creditByUserId(UUID userId, BigDecimal amount) {
+        return walletRepository.applyBalanceDeltaByUserId(userId, amount)
+                .map(this::withSlots)
+                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada para el usuario."));
+    }
+
+    /**
+     * Aplica un delta (positivo o negativo) sobre una billetera identificada por su id.
+     */
+    public WalletBalanceView applyDelta(UUID walletId, BigDecimal delta) {
+        Optional<WalletBalanceView> view = walletRepository.applyBalanceDelta(walletId, delta);
+        if (view.isPresent()) {
+            return withSlots(view.get());
+        }
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada para: " + walletId));
+        return retryAfterSweep(wallet, delta);
+    }
+
+    private Wallet resolveByEmail(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new BusinessException(ErrorCode.USER_NOT_FOUND, "Usuario no encontrado: " + email);
+        }
+        return walletRepository.findByUser_Email(email)
+                .orElseThrow(() -> new BusinessException(ErrorCode.WALLET_NOT_FOUND, "Billetera no encontrada para: " + email));
+    }
+
+    /**
+     * Si la billetera está particionada, vuelca los slots en wallets.balance y reintenta el débito una vez.
+     */
+    private WalletBalanceView retryAfterSweep(Wallet wallet, BigDecimal delta) {
+        if (hotWalletManager.isHot(wallet.getId())
+                && hotWalletManager.consolidate(wallet.getId()).signum() > 0) {
+            Optional<WalletBalanceView> view = walletRepository.applyBalanceDelta(wallet.getId(), delta);
+            if (view.isPresent()) {
+                return withSlots(view.get());
+            }
+        }
+        throw failure(wallet, delta);
+    }
+
+    private BusinessException failure(Wallet wallet, BigDecimal delta) {
+        log.debug("[WALLET] Mutación de saldo rechazada por fondos insuficientes: {}", wallet.getId());
+        BigDecimal current = wallet.getBalance().add(hotWalletManager.slotBalance(wallet.getId()));
+        return new BusinessException(ErrorCode.INSUFFICIENT_FUNDS,
+                "Saldo insuficiente: balance actual " + current + ", se pidió " + delta.negate());
+    }
+
+    private WalletBalanceView withSlots(WalletBalanceView view) {
+        if (!hotWalletManager.isHot(view.getId())) {
+            return view;
+        }
+        BigDecimal total = view.getBalance().add(hotWalletManager.slotBalance(view.getId()));
+        return new WalletBalanceView() {
+            @Override public UUID getId() { return view.getId(); }
+            @Override public UUID getUserId() { return view.getUserId(); }
+            @Override public BigDecimal getBalance() { return total; }
+            @Override public String getAlias() { return view.getAlias(); }
+            @Override public String getCvu() { return view.getCvu(); }
+        };
+    }
+}
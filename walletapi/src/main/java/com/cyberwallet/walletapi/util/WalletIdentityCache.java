@@ -0,0 +1,144 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletIdentityView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache acotado ({@link BoundedCache}) de resolución de identidad: email, alias y CVU → billetera.
+ *
+ * Sólo se cachean resultados positivos. Quien cambia un alias o un email, o da de baja un usuario,
+ * invalida las claves afectadas; la invalidación se repite al commit para que una lectura concurrente
+ * no vuelva a cargar el valor viejo. Las demás instancias se enteran en {@link #sync()}, que lee los
+ * cambios recientes de wallets.identity_updated_at y users.updated_at; el TTL queda como respaldo.
+ */
+@Component
+@Slf4j
+public class WalletIdentityCache {
+
+    // Alias/CVU cambiados, o usuario modificado (email, baja)
+    private static final String CHANGED_SINCE_SQL = """
+            SELECT id FROM wallets WHERE identity_updated_at >= ?
+            UNION
+            SELECT w.id FROM wallets w JOIN users u ON u.id = w.user_id WHERE u.updated_at >= ?
+            """;
+
+    private final WalletRepository walletRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long syncLagSeconds;
+    private LocalDateTime watermark = LocalDateTime.now();
+    private final BoundedCache<String, WalletRef> entries;
+
+    public WalletIdentityCache(WalletRepository walletRepository,
+                               JdbcTemplate jdbcTemplate,
+                               BoundedCacheFactory cacheFactory,
+                               @Value("${cyberwallet.identity-cache.max-entries:50000}") int maxEntries,
+                               @Value("${cyberwallet.identity-cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${cyberwallet.identity-cache.sync-lag-seconds:30}") long syncLagSeconds) {
+        this.walletRepository = walletRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncLagSeconds = syncLagSeconds;
+        this.entries = cacheFactory.create("wallet.identity", maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public Optional<WalletRef> byEmail(String email) {
+        return resolve("e:" + email, email, walletRepository::findIdentityByEmail);
+    }
+
+    public Optional<WalletRef> byAlias(String alias) {
+        return resolve("a:" + alias, alias, walletRepository::findIdentityByAlias);
+    }
+
+    public Optional<WalletRef> byCvu(String cvu) {
+        return resolve("c:" + cvu, cvu, walletRepository::findIdentityByCvu);
+    }
+
+    /**
+     * El email dejó de pertenecer al usuario (cambio de email).
+     */
+    public void evictEmail(String email) {
+        evictNowAndAfterCommit(() -> entries.invalidate("e:" + email));
+    }
+
+    /**
+     * La billetera cambió de alias: se descartan el alias anterior y las demás claves de esa billetera.
+     */
+    public void evictWallet(UUID walletId) {
+        evictNowAndAfterCommit(() -> entries.invalidateIf(ref -> ref.getId().equals(walletId)));
+    }
+
+    /**
+     * Baja de un usuario: ninguna de sus claves debe seguir resolviendo.
+     */
+    public void evictUser(UUID userId) {
+        evictNowAndAfterCommit(() -> entries.invalidateIf(ref -> ref.getUserId().equals(userId)));
+    }
+
+    /**
+     * Descarta las billeteras cuya identidad cambió desde la última pasada, en esta u otra instancia
+     * (con margen para transacciones que commitearon tarde o relojes desfasados).
+     */
+    public synchronized void sync() {
+        LocalDateTime since = watermark.minusSeconds(syncLagSeconds);
+        LocalDateTime started = LocalDateTime.now();
+        Set<UUID> changed = new HashSet<>();
+        jdbcTemplate.query(CHANGED_SINCE_SQL, rs -> {
+            changed.add(rs.getObject(1, UUID.class));
+        }, Timestamp.valueOf(since), Timestamp.valueOf(since));
+        if (!changed.isEmpty()) {
+            entries.invalidateIf(ref -> changed.contains(ref.getId()));
+            log.debug("[IDENTITY-CACHE] {} billeteras con identidad modificada descartadas", changed.size());
+        }
+        watermark = started;
+    }
+
+    private Optional<WalletRef> resolve(String key, String value, Function<String, Optional<WalletIdentityView>> loader) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        // Un resultado vacío no se cachea: la próxima resolución vuelve a la base
+        return Optional.ofNullable(entries.get(key, k -> loader.apply(value)
+                .map(view -> new WalletRef(view.getId(), view.getUserId(), view.getAlias(), view.getCvu()))
+                .orElse(null)));
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Identidad resuelta de una billetera; inmutable, segura para compartir entre hilos.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class WalletRef implements WalletIdentityView {
+        private final UUID id;
+        private final UUID userId;
+        private final String alias;
+        private final String cvu;
+    }
+}
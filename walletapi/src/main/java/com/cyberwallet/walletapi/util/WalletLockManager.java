@@ -0,0 +1,163 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks en memoria por billetera, agrupados en franjas (striping) por UUID.
+ *
+ * Las franjas se adquieren siempre en orden ascendente de índice, de modo que dos
+ * transferencias cruzadas (A→B y B→A) nunca se bloquean mutuamente. Serializar en la JVM
+ * evita que las operaciones concurrentes se apilen sobre los row locks de Postgres.
+ */
+@Component
+@Slf4j
+public class WalletLockManager {
+
+    /**
+     * Orden de billeteras idéntico al {@code ORDER BY id} de Postgres: los 16 bytes del UUID comparados
+     * sin signo. {@link UUID#compareTo} compara con signo y no coincide, así que todo código Java que
+     * ordene UPDATEs o row locks de wallets debe usar este comparador.
+     */
+    public static final Comparator<UUID> DB_ORDER = (a, b) -> {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private final ReentrantLock[] stripes;
+    private final long acquireTimeoutMs;
+    private final Timer waitTimer;
+    private final Counter contendedCounter;
+    private final Counter timeoutCounter;
+
+    public WalletLockManager(@Value("${cyberwallet.wallet-locks.stripes:1024}") int stripeCount,
+                             @Value("${cyberwallet.wallet-locks.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                             MeterRegistry meterRegistry) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("La cantidad de franjas de locks debe ser positiva.");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.waitTimer = Timer.builder("wallet.lock.wait")
+                .description("Tiempo de espera para adquirir los locks de billeteras")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.contendedCounter = Counter.builder("wallet.lock.contended")
+                .description("Adquisiciones que encontraron el lock ocupado")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("wallet.lock.timeouts")
+                .description("Adquisiciones abandonadas por timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bloquea las billeteras indicadas hasta que termine la transacción actual (commit o rollback).
+     * Debe llamarse dentro de un método @Transactional.
+     */
+    public void lockForTransaction(UUID... walletIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("lockForTransaction requiere una transacción activa.");
+        }
+        WalletLocks locks = acquire(walletIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.close();
+            }
+        });
+    }
+
+    /**
+     * Adquiere las franjas de las billeteras indicadas en orden canónico.
+     * El llamador es responsable de cerrar el resultado (try-with-resources).
+     */
+    public WalletLocks acquire(UUID... walletIds) {
+        int[] order = stripeOrder(walletIds);
+        int acquired = 0;
+        long start = System.nanoTime();
+        try {
+            for (int index : order) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock()) {
+                    contendedCounter.increment();
+                    long remaining = acquireTimeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (remaining <= 0 || !lock.tryLock(remaining, TimeUnit.MILLISECONDS)) {
+                        timeoutCounter.increment();
+                        log.warn("[WALLET-LOCK] Timeout esperando lock de billetera tras {} ms", acquireTimeoutMs);
+                        throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE,
+                                "La billetera está procesando otra operación. Intenta nuevamente.");
+                    }
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SERVICE_UNAVAILABLE, "Operación interrumpida esperando el lock de la billetera.", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (acquired < order.length) {
+                release(order, acquired);
+            }
+        }
+        return new WalletLocks(order);
+    }
+
+    private int[] stripeOrder(UUID... walletIds) {
+        return Arrays.stream(walletIds)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int stripeIndex(UUID walletId) {
+        long bits = walletId.getMostSignificantBits() ^ walletId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private void release(int[] order, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[order[i]].unlock();
+        }
+    }
+
+    /**
+     * Conjunto de franjas adquiridas; se liberan en orden inverso al cerrar.
+     */
+    public final class WalletLocks implements AutoCloseable {
+
+        private final int[] order;
+        private boolean released;
+
+        private WalletLocks(int[] order) {
+            this.order = order;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(order, order.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+-- Motor de transferencias nativo: una transferencia completa en un solo round trip.
+-- Valida emisor/receptor, límite diario (contador daily_outflow) y saldo, actualiza ambas billeteras
+-- e inserta los dos movimientos en transacciones y el asiento en ledger_entries, todo en la misma llamada.
+-- p_now es el reloj de la aplicación: las fechas quedan en la misma serie que las del camino Java.
+--
+-- Migración repetible: Flyway la vuelve a aplicar cada vez que cambia, después de las versionadas.
+-- Los cambios a la función se hacen acá, no en una migración nueva.
+--
+-- Códigos SQLSTATE propios (traducidos a ErrorCode en NativeTransferEngine):
+--   CW400 transferencia a uno mismo
+--   CW402 saldo insuficiente
+--   CW404 emisor no encontrado
+--   CW405 alias destino no encontrado
+--   CW406 CVU destino no encontrado
+--   CW429 límite diario superado
+--
+-- La fila del contador diario se toma antes que las de wallets, igual que en el camino Java
+-- (WalletServiceImpl → TransferUtils). Las billeteras particionadas se tratan como en HotWalletManager:
+-- los créditos van a un sub-saldo y un débito que no alcanza barre los sub-saldos antes de rechazarse.
+
+CREATE OR REPLACE FUNCTION cw_transfer(
+    p_sender_email VARCHAR,
+    p_target_cvu   VARCHAR,
+    p_target_alias VARCHAR,
+    p_amount       NUMERIC,
+    p_daily_limit  NUMERIC,
+    p_now          TIMESTAMP
+) RETURNS TABLE (new_balance NUMERIC, sender_alias VARCHAR, sender_cvu VARCHAR)
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_sender   wallets%ROWTYPE;
+    v_receiver wallets%ROWTYPE;
+    v_balance  NUMERIC;
+    v_out_cp   VARCHAR;
+    v_in_cp    VARCHAR;
+    v_journal  UUID := gen_random_uuid();
+    v_credited BOOLEAN;
+BEGIN
+    SELECT w.* INTO v_sender
+      FROM wallets w JOIN users u ON u.id = w.user_id
+     WHERE u.email = p_sender_email AND u.deleted = false;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Emisor no encontrado' USING ERRCODE = 'CW404';
+    END IF;
+
+    IF p_target_cvu IS NOT NULL THEN
+        SELECT w.* INTO v_receiver FROM wallets w WHERE w.cvu = p_target_cvu;
+        IF NOT FOUND THEN
+            RAISE EXCEPTION 'CVU destino no encontrado' USING ERRCODE = 'CW406';
+        END IF;
+        v_out_cp := p_target_cvu;
+        v_in_cp := v_sender.cvu;
+    ELSE
+        SELECT w.* INTO v_receiver
+          FROM wallets w JOIN users u ON u.id = w.user_id
+         WHERE w.alias = p_target_alias AND u.deleted = false;
+        IF NOT FOUND THEN
+            RAISE EXCEPTION 'Alias destino no encontrado' USING ERRCODE = 'CW405';
+        END IF;
+        v_out_cp := v_receiver.alias;
+        v_in_cp := v_sender.alias;
+    END IF;
+
+    IF v_sender.id = v_receiver.id THEN
+        RAISE EXCEPTION 'Transferencia a uno mismo' USING ERRCODE = 'CW400';
+    END IF;
+
+    IF p_amount > p_daily_limit THEN
+        RAISE EXCEPTION 'Límite diario superado' USING ERRCODE = 'CW429';
+    END IF;
+    INSERT INTO daily_outflow AS d (user_id, day, total)
+    VALUES (v_sender.user_id, p_now::date, p_amount)
+    ON CONFLICT (user_id, day) DO UPDATE SET total = d.total + EXCLUDED.total
+     WHERE d.total + EXCLUDED.total <= p_daily_limit;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Límite diario superado' USING ERRCODE = 'CW429';
+    END IF;
+
+    -- Row locks en orden canónico para evitar deadlocks entre transferencias cruzadas. Un receptor
+    -- particionado (balance_slots > 0) no se bloquea: el crédito va a uno de sus sub-saldos.
+    IF v_receiver.balance_slots > 0 THEN
+        PERFORM 1 FROM wallets WHERE id = v_sender.id FOR UPDATE;
+    ELSE
+        PERFORM 1 FROM wallets WHERE id IN (v_sender.id, v_receiver.id) ORDER BY id FOR UPDATE;
+    END IF;
+
+    UPDATE wallets SET balance = balance - p_amount
+     WHERE id = v_sender.id AND balance >= p_amount
+    RETURNING balance INTO v_balance;
+    IF NOT FOUND AND v_sender.balance_slots > 0 THEN
+        -- Emisor particionado: se barren los sub-saldos hacia wallets.balance y se reintenta una vez
+        WITH swept AS (
+            SELECT slot, balance FROM wallet_balance_slots
+             WHERE wallet_id = v_sender.id AND balance <> 0
+            FOR UPDATE
+        ), cleared AS (
+            UPDATE wallet_balance_slots s SET balance = 0
+              FROM swept WHERE s.wallet_id = v_sender.id AND s.slot = swept.slot
+            RETURNING swept.balance
+        )
+        UPDATE wallets SET balance = balance + (SELECT COALESCE(SUM(balance), 0) FROM cleared)
+         WHERE id = v_sender.id;
+
+        UPDATE wallets SET balance = balance - p_amount
+         WHERE id = v_sender.id AND balance >= p_amount
+        RETURNING balance INTO v_balance;
+    END IF;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Saldo insuficiente' USING ERRCODE = 'CW402';
+    END IF;
+    IF v_sender.balance_slots > 0 THEN
+        v_balance := v_balance + (SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_slots WHERE wallet_id = v_sender.id);
+    END IF;
+
+    v_credited := false;
+    IF v_receiver.balance_slots > 0 THEN
+        UPDATE wallet_balance_slots SET balance = balance + p_amount
+         WHERE wallet_id = v_receiver.id AND slot = floor(random() * v_receiver.balance_slots)::int;
+        v_credited := FOUND;
+    END IF;
+    IF NOT v_credited THEN
+        -- También si la billetera dejó de estar particionada entre la lectura y el crédito
+        UPDATE wallets SET balance = balance + p_amount WHERE id = v_receiver.id;
+    END IF;
+
+    INSERT INTO transacciones (id, type, amount, counterpart, date, user_id) VALUES
+        (gen_random_uuid(), 'TRANSFER_OUT', p_amount, v_out_cp, p_now, v_sender.user_id),
+        (gen_random_uuid(), 'TRANSFER_IN',  p_amount, v_in_cp,  p_now, v_receiver.user_id);
+
+    INSERT INTO ledger_entries (journal_id, account_id, account_type, entry_type, amount, created_at) VALUES
+        (v_journal, v_sender.id,   'WALLET', 'TRANSFER', -p_amount, p_now),
+        (v_journal, v_receiver.id, 'WALLET', 'TRANSFER',  p_amount, p_now);
+
+    RETURN QUERY SELECT v_balance, v_sender.alias, v_sender.cvu;
+END;
+$$;
@@ -0,0 +1,9 @@
+-- Alias reservados por el pool de alias pre-generados (AliasPool) de cada instancia.
+-- Una fila impide que otra instancia reserve el mismo alias mientras está en un pool;
+-- la restricción UNIQUE de wallets.alias sigue siendo la garantía final.
+CREATE TABLE IF NOT EXISTS alias_reservations (
+    alias       VARCHAR(20) PRIMARY KEY,
+    reserved_at TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_alias_reservations_reserved_at ON alias_reservations (reserved_at);
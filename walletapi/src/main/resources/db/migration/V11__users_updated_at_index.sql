@@ -0,0 +1,3 @@
+-- Sincronización incremental de los filtros de username/email tomados (UserIdentifierFilter):
+-- cada instancia lee sólo los usuarios creados o modificados desde su última pasada.
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users (updated_at);
@@ -0,0 +1,8 @@
+-- Revocación de JWT por jti (TokenRevocationRegistry). La tabla queda para durabilidad y para que
+-- cada instancia cargue al iniciar y sincronice las revocaciones hechas en otras; el chequeo por
+-- request se resuelve en memoria. Las filas previas quedan con jti NULL y se resuelven desde el token.
+ALTER TABLE blacklisted_tokens ADD COLUMN IF NOT EXISTS jti VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_blacklisted_tokens_jti ON blacklisted_tokens (jti);
+CREATE INDEX IF NOT EXISTS idx_blacklisted_tokens_blacklisted_at ON blacklisted_tokens (blacklisted_at);
+CREATE INDEX IF NOT EXISTS idx_blacklisted_tokens_expires_at ON blacklisted_tokens (expires_at);
@@ -0,0 +1,4 @@
+-- Época de tokens por usuario. Cada JWT lleva la época vigente al emitirse (claim "tep");
+-- incrementarla invalida de una vez todos los tokens emitidos antes (cambio de contraseña,
+-- "cerrar sesión en todos los dispositivos") sin agregar filas a blacklisted_tokens.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch INTEGER NOT NULL DEFAULT 0;
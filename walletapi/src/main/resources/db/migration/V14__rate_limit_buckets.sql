@@ -0,0 +1,12 @@
+-- Estado compartido de rate limiting para el modo distribuido (DistributedRateLimitStore).
+-- Cada fila es un bucket (política + sujeto): tokens disponibles en la ventana vigente.
+-- Las instancias toman lotes de tokens con compare-and-swap sobre version, sin locks.
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key      VARCHAR(80) PRIMARY KEY,
+    tokens          BIGINT      NOT NULL,
+    window_start_ms BIGINT      NOT NULL,
+    version         BIGINT      NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_updated_at ON rate_limit_buckets (updated_at);
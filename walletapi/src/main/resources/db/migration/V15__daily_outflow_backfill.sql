@@ -0,0 +1,9 @@
+-- Carga única de daily_outflow con las transferencias previas a su introducción. Para el límite
+-- diario sólo cuenta el día en curso; se toma también el anterior por si la JVM y la base no usan
+-- la misma zona horaria. GREATEST no pisa incrementos hechos por transferencias concurrentes.
+INSERT INTO daily_outflow AS d (user_id, day, total)
+SELECT t.user_id, CAST(t.date AS DATE), SUM(t.amount)
+  FROM transacciones t
+ WHERE t.type = 'TRANSFER_OUT' AND t.date >= CURRENT_DATE - 1
+ GROUP BY t.user_id, CAST(t.date AS DATE)
+ON CONFLICT (user_id, day) DO UPDATE SET total = GREATEST(d.total, EXCLUDED.total);
@@ -0,0 +1,20 @@
+-- Invalidación entre instancias del cache de identidad (WalletIdentityCache): cada instancia lee
+-- las billeteras cuyo alias o CVU cambió desde su última pasada. Lo mantiene un trigger para que
+-- cubra cualquier camino de escritura; las actualizaciones de saldo no lo modifican.
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS identity_updated_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_wallets_identity_updated_at ON wallets (identity_updated_at);
+
+CREATE OR REPLACE FUNCTION cw_touch_wallet_identity() RETURNS trigger AS $$
+BEGIN
+    NEW.identity_updated_at := LOCALTIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_wallets_identity_updated_at ON wallets;
+CREATE TRIGGER trg_wallets_identity_updated_at
+    BEFORE UPDATE ON wallets
+    FOR EACH ROW
+    WHEN (OLD.alias IS DISTINCT FROM NEW.alias OR OLD.cvu IS DISTINCT FROM NEW.cvu)
+EXECUTE FUNCTION cw_touch_wallet_identity();
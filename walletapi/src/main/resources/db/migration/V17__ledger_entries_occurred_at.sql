@@ -0,0 +1,4 @@
+-- created_at pasa a ser cuándo se insertó el asiento y es lo que recorren los checkpoints; occurred_at
+-- guarda el instante de la operación, que con el motor de saldos (escritura diferida) puede ser
+-- minutos anterior. NULL cuando ambos coinciden (asientos previos a esta migración y los de cw_transfer).
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS occurred_at TIMESTAMP;
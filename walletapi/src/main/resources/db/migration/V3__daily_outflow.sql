@@ -0,0 +1,9 @@
+-- Contador materializado de salidas diarias por usuario (límite diario de transferencias).
+-- Reemplaza el SUM sobre transacciones con DATE(date), que no puede usar índices.
+-- Lo usan el camino Java y cw_transfer (R__cw_transfer.sql) con un upsert condicional.
+CREATE TABLE IF NOT EXISTS daily_outflow (
+    user_id UUID           NOT NULL REFERENCES users (id),
+    day     DATE           NOT NULL,
+    total   NUMERIC(38, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day)
+);
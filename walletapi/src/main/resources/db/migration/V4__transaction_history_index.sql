@@ -0,0 +1,4 @@
+-- Índice para la paginación por cursor del historial: WHERE user_id = ? AND (date, id) < (?, ?)
+-- ORDER BY date DESC, id DESC se resuelve recorriendo el índice, sin ordenar el historial completo.
+CREATE INDEX IF NOT EXISTS idx_transacciones_user_date_id
+    ON transacciones (user_id, date DESC, id DESC);
@@ -0,0 +1,14 @@
+-- Respuestas registradas por Idempotency-Key en los endpoints que mueven dinero.
+-- id = "<usuario>|<clave>"; completed = false mientras la primera ejecución está en curso.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id            VARCHAR(400) PRIMARY KEY,
+    fingerprint   VARCHAR(64)  NOT NULL,
+    completed     BOOLEAN      NOT NULL DEFAULT false,
+    status_code   INTEGER,
+    content_type  VARCHAR(100),
+    response_body TEXT,
+    created_at    TIMESTAMP    NOT NULL,
+    expires_at    TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,65 @@
+-- Libro mayor de doble entrada, append-only.
+-- Cada operación genera un asiento (journal_id) con movimientos que suman cero: los depósitos,
+-- extracciones y cargas con tarjeta tienen como contrapartida una cuenta del sistema.
+-- amount es con signo: positivo acredita la cuenta, negativo la debita.
+
+CREATE TABLE IF NOT EXISTS system_accounts (
+    id   UUID PRIMARY KEY,
+    code VARCHAR(40) NOT NULL UNIQUE
+);
+
+INSERT INTO system_accounts (id, code) VALUES
+    ('00000000-0000-0000-0000-000000000001', 'CASH_IN'),
+    ('00000000-0000-0000-0000-000000000002', 'CASH_OUT'),
+    ('00000000-0000-0000-0000-000000000003', 'CARD_SETTLEMENT'),
+    ('00000000-0000-0000-0000-000000000004', 'OPENING_BALANCE')
+ON CONFLICT (id) DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS ledger_entries (
+    id           BIGSERIAL PRIMARY KEY,
+    journal_id   UUID           NOT NULL,
+    account_id   UUID           NOT NULL,
+    account_type VARCHAR(10)    NOT NULL,
+    entry_type   VARCHAR(30)    NOT NULL,
+    amount       NUMERIC(38, 2) NOT NULL,
+    created_at   TIMESTAMP      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_created ON ledger_entries (account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_created ON ledger_entries (created_at);
+
+CREATE OR REPLACE FUNCTION ledger_entries_append_only() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    RAISE EXCEPTION 'ledger_entries es append-only';
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_ledger_entries_append_only ON ledger_entries;
+CREATE TRIGGER trg_ledger_entries_append_only
+    BEFORE UPDATE OR DELETE ON ledger_entries
+    FOR EACH ROW EXECUTE FUNCTION ledger_entries_append_only();
+
+-- Saldo de cada billetera a un instante: cubre todos los movimientos con created_at <= as_of.
+CREATE TABLE IF NOT EXISTS balance_checkpoints (
+    id        BIGSERIAL PRIMARY KEY,
+    wallet_id UUID           NOT NULL REFERENCES wallets (id),
+    as_of     TIMESTAMP      NOT NULL,
+    balance   NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT uk_balance_checkpoints_wallet_as_of UNIQUE (wallet_id, as_of)
+);
+
+-- Saldos de apertura: el historial previo sólo existe como saldo, se asienta contra OPENING_BALANCE.
+-- Se fechan en 1970-01-01 (LedgerServiceImpl.EPOCH) y no con el reloj de la base: todos los demás
+-- movimientos llevan la hora de la aplicación y la apertura tiene que quedar antes que cualquiera.
+WITH opening AS (
+    SELECT id, balance, gen_random_uuid() AS journal_id FROM wallets WHERE balance <> 0
+)
+INSERT INTO ledger_entries (journal_id, account_id, account_type, entry_type, amount, created_at)
+SELECT journal_id, id, 'WALLET', 'OPENING_BALANCE', balance, TIMESTAMP '1970-01-01 00:00:00' FROM opening
+UNION ALL
+SELECT journal_id, '00000000-0000-0000-0000-000000000004', 'SYSTEM', 'OPENING_BALANCE', -balance, TIMESTAMP '1970-01-01 00:00:00' FROM opening;
+
+INSERT INTO balance_checkpoints (wallet_id, as_of, balance)
+SELECT id, TIMESTAMP '1970-01-01 00:00:00', balance FROM wallets
+ON CONFLICT (wallet_id, as_of) DO NOTHING;
@@ -0,0 +1,11 @@
+-- Sub-saldos para billeteras con mucho tráfico entrante (p. ej. comercios).
+-- Con balance_slots = N > 0, los créditos por transferencia van a uno de N slots al azar en lugar
+-- de actualizar siempre la misma fila de wallets. Saldo total = wallets.balance + SUM(slots).
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS balance_slots INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS wallet_balance_slots (
+    wallet_id UUID           NOT NULL REFERENCES wallets (id),
+    slot      INTEGER        NOT NULL,
+    balance   NUMERIC(38, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (wallet_id, slot)
+);
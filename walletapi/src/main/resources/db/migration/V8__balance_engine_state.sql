@@ -0,0 +1,9 @@
+-- Estado del motor de saldos en memoria (cyberwallet.balance-engine).
+-- last_seq es la última secuencia del journal local ya volcada a wallets/transacciones/ledger_entries;
+-- al arrancar se reaplican sólo las operaciones del journal con secuencia mayor.
+CREATE TABLE IF NOT EXISTS balance_engine_state (
+    id       SMALLINT PRIMARY KEY CHECK (id = 1),
+    last_seq BIGINT   NOT NULL
+);
+
+INSERT INTO balance_engine_state (id, last_seq) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,5 @@
+-- Números de cuenta para CVU. Cada nextval reserva un bloque de 1000 números para el nodo que lo
+-- pide (INCREMENT BY = tamaño de bloque), así que los nodos asignan CVU sin consultar la base.
+-- Los CVU nuevos empiezan con 000 (prefijo de PSP); los generados antes al azar empiezan con 1-9,
+-- por lo que no pueden colisionar.
+CREATE SEQUENCE IF NOT EXISTS cvu_account_seq START WITH 1 INCREMENT BY 1000 MINVALUE 1;
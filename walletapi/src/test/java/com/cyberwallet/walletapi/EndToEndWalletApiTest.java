@@ -394,7 +394,7 @@ private JsonNode getMovimientos(String token) throws Exception {
         assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
         JsonNode root = mapper.readTree(resp.getBody());
         System.out.println("[DEBUG] Movimientos: " + root.path("data").toString());
-        return root.path("data");
+        return root.path("data").path("items");
     }
 
     private void logout(String token) {
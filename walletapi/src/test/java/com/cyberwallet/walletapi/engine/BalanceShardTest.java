@@ -0,0 +1,109 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import com.cyberwallet.walletapi.util.TransferUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BalanceShardTest {
+
+    @TempDir
+    Path dir;
+
+    private final UUID walletId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private BalanceEngine engine;
+    private CommandJournal journal;
+    private WriteBehindWriter writer;
+    private BalanceShard shard;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = mock(BalanceEngine.class);
+        journal = new CommandJournal(dir.resolve("journal.log"));
+        journal.recover();
+        writer = new WriteBehindWriter(mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+                new LedgerWriter(mock(JdbcTemplate.class)), journal, 0, 100, 10, Long.MAX_VALUE, 3, 10,
+                new SimpleMeterRegistry().counter("balance.engine.write_behind.failures"));
+        shard = new BalanceShard(0, engine, journal, writer, id -> null, 64, 16);
+        shard.preload(walletId, 1_000, 0);
+        shard.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        shard.close();
+        shard.awaitStopped();
+        journal.close();
+    }
+
+    @Test
+    void appliesOperationsAndRejectsOverdraft() throws Exception {
+        assertThat(await(shard.submit(EngineCommand.deposit(walletId, userId, new BigDecimal("5.00"))))).isEqualTo(1_500);
+        assertThat(await(shard.submit(EngineCommand.withdrawal(walletId, userId, new BigDecimal("2.50"))))).isEqualTo(1_250);
+
+        CompletableFuture<Long> overdraft = shard.submit(EngineCommand.withdrawal(walletId, userId, new BigDecimal("100")));
+        assertThatThrownBy(() -> await(overdraft))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INSUFFICIENT_FUNDS);
+
+        assertThat(await(shard.query(walletId))).isEqualTo(1_250);
+        // Sólo las operaciones aceptadas pasan al volcado
+        assertThat(writer.backlog()).isEqualTo(2);
+    }
+
+    @Test
+    void transferRoutesCreditForEachLeg() throws Exception {
+        UUID receiver = UUID.randomUUID();
+        EngineCommand transfer = EngineCommand.transfer(walletId, userId, List.of(
+                new TransferUtils.TransferLeg(receiver, UUID.randomUUID(), new BigDecimal("2.50"), "a", "b")));
+
+        assertThat(await(shard.submit(transfer))).isEqualTo(750);
+        verify(engine).routeCredit(receiver, 250, transfer.getSeq());
+    }
+
+    @Test
+    void closeDrainsQueuedOperationsAndRejectsNewOnes() throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(shard.submit(EngineCommand.deposit(walletId, userId, BigDecimal.ONE)));
+        }
+        shard.close();
+        shard.awaitStopped();
+
+        assertThat(futures).allMatch(future -> future.isDone() && !future.isCompletedExceptionally());
+        assertThat(await(futures.get(futures.size() - 1))).isEqualTo(1_000 + 50 * 100);
+        assertThatThrownBy(() -> shard.submit(EngineCommand.deposit(walletId, userId, BigDecimal.ONE)))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getErrorCode())
+                .isEqualTo(ErrorCode.SERVICE_UNAVAILABLE);
+    }
+
+    private static long await(CompletableFuture<Long> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,75 @@
+package com.cyberwallet.walletapi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoverReturnsAppendedCommandsInOrder() throws IOException {
+        Path path = dir.resolve("journal.log");
+        UUID walletId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        try (CommandJournal journal = new CommandJournal(path)) {
+            journal.recover();
+            journal.append(List.of(
+                    EngineCommand.deposit(walletId, userId, new BigDecimal("10.50")),
+                    EngineCommand.cardLoad(walletId, userId, new BigDecimal("3"), "LOAD_CARD", "SimulatedCard")));
+        }
+
+        try (CommandJournal journal = new CommandJournal(path)) {
+            List<EngineCommand> recovered = journal.recover();
+            assertThat(recovered).extracting(EngineCommand::getSeq).containsExactly(1L, 2L);
+            assertThat(recovered.get(0).getKind()).isEqualTo(EngineCommand.Kind.DEPOSIT);
+            assertThat(recovered.get(0).getWalletId()).isEqualTo(walletId);
+            assertThat(recovered.get(0).getAmountCents()).isEqualTo(1050);
+            assertThat(recovered.get(1).getCounterpart()).isEqualTo("SimulatedCard");
+        }
+    }
+
+    @Test
+    void recoverDropsTornTailAndKeepsNumbering() throws IOException {
+        Path path = dir.resolve("journal.log");
+        UUID walletId = UUID.randomUUID();
+        try (CommandJournal journal = new CommandJournal(path)) {
+            journal.recover();
+            journal.append(List.of(EngineCommand.deposit(walletId, UUID.randomUUID(), BigDecimal.ONE)));
+        }
+        long validSize = Files.size(path);
+        // Registro cortado a mitad de escritura: encabezado que promete más bytes de los que hay
+        Files.write(path, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (CommandJournal journal = new CommandJournal(path)) {
+            assertThat(journal.recover()).hasSize(1);
+            assertThat(Files.size(path)).isEqualTo(validSize);
+
+            EngineCommand next = EngineCommand.deposit(walletId, UUID.randomUUID(), BigDecimal.ONE);
+            journal.append(List.of(next));
+            assertThat(next.getSeq()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void startAfterContinuesFromPersistedSequence() throws IOException {
+        try (CommandJournal journal = new CommandJournal(dir.resolve("journal.log"))) {
+            journal.recover();
+            journal.startAfter(41);
+            EngineCommand command = EngineCommand.deposit(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE);
+            journal.append(List.of(command));
+            assertThat(command.getSeq()).isEqualTo(42);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cyberwallet.walletapi.engine;
+
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class WriteBehindWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private CommandJournal journal;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate ledgerJdbc;
+    private Counter failures;
+    private WriteBehindWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = new CommandJournal(dir.resolve("journal.log"));
+        journal.recover();
+        transactionTemplate = mock(TransactionTemplate.class);
+        ledgerJdbc = mock(JdbcTemplate.class);
+        failures = new SimpleMeterRegistry().counter("balance.engine.write_behind.failures");
+        writer = new WriteBehindWriter(mock(JdbcTemplate.class), transactionTemplate, new LedgerWriter(ledgerJdbc),
+                journal, 0, 100, 5, Long.MAX_VALUE, 3, 5, failures);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.stop();
+        journal.close();
+    }
+
+    @Test
+    void flushesOnlyTheContiguousPrefix() throws Exception {
+        List<EngineCommand> commands = journaled(2);
+        writer.start();
+
+        writer.enqueue(List.of(commands.get(1)));
+        Thread.sleep(100);
+        assertThat(writer.getFlushedSeq()).isZero();
+
+        writer.enqueue(List.of(commands.get(0)));
+        awaitCondition(() -> writer.getFlushedSeq() == 2);
+        assertThat(writer.backlog()).isZero();
+    }
+
+    @Test
+    void stallsAfterRetryLimitAndRecoversWhenTheDatabaseComesBack() throws Exception {
+        doThrow(new CannotGetJdbcConnectionException("sin conexión")).when(transactionTemplate).executeWithoutResult(any());
+        writer.enqueue(journaled(1));
+        writer.start();
+
+        awaitCondition(writer::isStalled);
+        assertThat(failures.count()).isGreaterThanOrEqualTo(3);
+        assertThat(writer.getFlushedSeq()).isZero();
+
+        doNothing().when(transactionTemplate).executeWithoutResult(any());
+        awaitCondition(() -> !writer.isStalled() && writer.getFlushedSeq() == 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lateFlushStampsLedgerAtFlushTimeAndKeepsTheOperationTime() throws Exception {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // Operación confirmada hace diez minutos: más vieja que el lag de los checkpoints
+        LocalDateTime occurredAt = LocalDateTime.now().minusMinutes(10).truncatedTo(ChronoUnit.MILLIS);
+        EngineCommand command = new EngineCommand(0, EngineCommand.Kind.DEPOSIT, occurredAt, UUID.randomUUID(),
+                UUID.randomUUID(), 100, "DEPOSIT", null, List.of());
+        journal.append(List.of(command));
+
+        writer.enqueue(List.of(command));
+        writer.start();
+        awaitCondition(() -> writer.getFlushedSeq() == 1);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(ledgerJdbc).batchUpdate(startsWith("INSERT INTO ledger_entries"), rows.capture());
+        assertThat(rows.getValue()).hasSize(2).allSatisfy(row -> {
+            assertThat(((Timestamp) row[5]).toLocalDateTime()).isCloseTo(LocalDateTime.now(), within(5, ChronoUnit.SECONDS));
+            assertThat(((Timestamp) row[6]).toLocalDateTime()).isEqualTo(occurredAt);
+        });
+    }
+
+    private List<EngineCommand> journaled(int count) throws Exception {
+        UUID walletId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        List<EngineCommand> commands = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            commands.add(EngineCommand.deposit(walletId, userId, BigDecimal.ONE));
+        }
+        journal.append(commands);
+        return commands;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condición no alcanzada a tiempo").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitRegistryTest {
+
+    private MockEnvironment environment;
+    private DistributedRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment().withProperty("cyberwallet.ratelimit.policies.login.capacity", "2");
+        store = mock(DistributedRateLimitStore.class);
+    }
+
+    @Test
+    void limitsEachSubjectIndependently() {
+        RateLimitRegistry registry = registry(false);
+
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "10.0.0.1")).isTrue();
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "10.0.0.1")).isTrue();
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "10.0.0.1")).isFalse();
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "10.0.0.2")).isTrue();
+
+        registry.reset("10.0.0.1");
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void disabledWithTestProfile() {
+        assertThat(registry(false).isEnabled()).isTrue();
+
+        environment.setActiveProfiles("test");
+        assertThat(registry(false).isEnabled()).isFalse();
+    }
+
+    @Test
+    void distributedDecisionWinsAndLocalBucketsBackItUp() {
+        RateLimitRegistry registry = registry(true);
+
+        when(store.tryConsume(eq("login:a"), eq(2), any(Duration.class))).thenReturn(false);
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "a")).isFalse();
+
+        when(store.tryConsume(eq("login:b"), eq(2), any(Duration.class))).thenReturn(true);
+        for (int i = 0; i < 5; i++) {
+            assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "b")).isTrue();
+        }
+
+        // Store no disponible: se usan los buckets locales
+        when(store.tryConsume(eq("login:c"), eq(2), any(Duration.class))).thenReturn(null);
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "c")).isTrue();
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "c")).isTrue();
+        assertThat(registry.tryConsume(RateLimitPolicy.LOGIN, "c")).isFalse();
+    }
+
+    private RateLimitRegistry registry(boolean distributed) {
+        return new RateLimitRegistry(environment, new SimpleMeterRegistry(),
+                new BoundedCacheFactory(new SimpleMeterRegistry()), store, true, distributed, 1_000);
+    }
+}
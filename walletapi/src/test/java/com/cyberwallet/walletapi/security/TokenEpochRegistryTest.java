@@ -0,0 +1,89 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.util.BoundedCacheFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenEpochRegistryTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private TokenEpochRegistry registry;
+    private int epoch;
+    private String status;
+    private boolean exists;
+
+    @BeforeEach
+    void setUp() {
+        epoch = 0;
+        status = "ACTIVE";
+        exists = true;
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), eq(userId))).thenAnswer(invocation -> {
+            if (!exists) {
+                return List.of();
+            }
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getInt(1)).thenReturn(epoch);
+            when(rs.getString(2)).thenReturn(status);
+            RowMapper<?> mapper = invocation.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0));
+        });
+        registry = new TokenEpochRegistry(jdbcTemplate, new BoundedCacheFactory(new SimpleMeterRegistry()), 100, 60);
+    }
+
+    @Test
+    void cachesStateBetweenChecks() {
+        assertThat(registry.isCurrent(userId, 0)).isTrue();
+        assertThat(registry.isCurrent(userId, 0)).isTrue();
+        assertThat(registry.isCurrent(userId, 1)).isFalse();
+
+        verify(jdbcTemplate, times(1)).query(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), eq(userId));
+    }
+
+    @Test
+    void advanceRevokesPreviouslyIssuedTokens() {
+        assertThat(registry.isCurrent(userId, 0)).isTrue();
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(userId))).thenReturn(List.of(1));
+
+        assertThat(registry.advance(userId)).isEqualTo(1);
+        epoch = 1;
+
+        assertThat(registry.isCurrent(userId, 0)).isFalse();
+        assertThat(registry.isCurrent(userId, 1)).isTrue();
+    }
+
+    @Test
+    void advanceFailsForUnknownUser() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(userId))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> registry.advance(userId)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void rejectsInactiveOrDeletedUsers() {
+        status = "SUSPENDED";
+        assertThat(registry.isCurrent(userId, 0)).isFalse();
+
+        registry.invalidate(userId);
+        exists = false;
+        assertThat(registry.isCurrent(userId, 0)).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.cyberwallet.walletapi.security;
+
+import com.cyberwallet.walletapi.repository.BlacklistedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private final BlacklistedTokenRepository repository = mock(BlacklistedTokenRepository.class);
+    private final TokenRevocationRegistry registry =
+            new TokenRevocationRegistry(repository, mock(JwtService.class), new SimpleMeterRegistry(), 60);
+    private final LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void checksTheDatabaseUntilTheFirstLoadCompletes() {
+        when(repository.existsByJti("jti-1")).thenReturn(true);
+        assertThat(registry.isRevoked("jti-1")).isTrue();
+
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        registry.load();
+
+        assertThat(registry.isRevoked("jti-2")).isFalse();
+        verify(repository, never()).existsByJti("jti-2");
+    }
+
+    @Test
+    void revocationIsVisibleOnlyAfterCommit() {
+        loadEmpty();
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.revoke("jti-1", "token", expiresAt);
+        assertThat(registry.isRevoked("jti-1")).isFalse();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(registry.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void rolledBackRevocationLeavesNothingInMemory() {
+        loadEmpty();
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.revoke("jti-1", "token", expiresAt);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(registry.isRevoked("jti-1")).isFalse();
+        verify(repository, never()).existsByJti(anyString());
+    }
+
+    private void loadEmpty() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        registry.load();
+    }
+}
@@ -0,0 +1,51 @@
+package com.cyberwallet.walletapi.service;
+
+import com.cyberwallet.walletapi.model.DollarRateEntity;
+import com.cyberwallet.walletapi.repository.DollarRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DollarServiceTest {
+
+    private final DollarRateSource source = mock(DollarRateSource.class);
+    private final DollarRateRepository repository = mock(DollarRateRepository.class);
+    private final DollarService dollarService = new DollarService(source, repository, new SimpleMeterRegistry());
+
+    @Test
+    void coldStartWithUpstreamDownServesThePersistedRates() {
+        when(repository.findAll()).thenReturn(List.of(new DollarRateEntity("Blue", 1200.0)));
+        when(source.fetchRates()).thenThrow(new IllegalStateException("upstream caído"));
+
+        assertThatThrownBy(dollarService::refresh).isInstanceOf(IllegalStateException.class);
+
+        assertThat(dollarService.getDollarRates()).containsExactly(Map.of("nombre", "Blue", "venta", 1200.0, "change", "neutral"));
+    }
+
+    @Test
+    void freshRatesReplaceTheSeededOnes() {
+        when(repository.findAll()).thenReturn(List.of(new DollarRateEntity("Blue", 1200.0)));
+        when(source.fetchRates()).thenReturn(List.of(Map.of("nombre", "Blue", "compra", 1190.0, "venta", 1210.0)));
+
+        dollarService.refresh();
+
+        assertThat(dollarService.getDollarRates()).singleElement()
+                .satisfies(rate -> assertThat(rate).containsEntry("venta", 1210.0).containsEntry("change", "up").containsKey("compra"));
+    }
+
+    @Test
+    void coldStartWithoutPersistedRatesStaysUnavailable() {
+        when(repository.findAll()).thenReturn(List.of());
+        when(source.fetchRates()).thenThrow(new IllegalStateException("upstream caído"));
+
+        assertThatThrownBy(dollarService::refresh).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(dollarService::getDollarRates).hasMessageContaining("todavía no están disponibles");
+    }
+}
@@ -0,0 +1,89 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.entity.BalanceCheckpoint;
+import com.cyberwallet.walletapi.repository.BalanceCheckpointRepository;
+import com.cyberwallet.walletapi.repository.LedgerEntryRepository;
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.util.HotWalletManager;
+import com.cyberwallet.walletapi.util.WalletLockManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerServiceImplTest {
+
+    private static final long LAG_SECONDS = 60;
+
+    private final LedgerEntryRepository ledgerEntryRepository = mock(LedgerEntryRepository.class);
+    private final BalanceCheckpointRepository balanceCheckpointRepository = mock(BalanceCheckpointRepository.class);
+    private final LedgerServiceImpl ledgerService = new LedgerServiceImpl(ledgerEntryRepository, balanceCheckpointRepository,
+            mock(WalletRepository.class), mock(WalletLockManager.class), mock(HotWalletManager.class), mock(JdbcTemplate.class), LAG_SECONDS);
+
+    private final UUID walletId = UUID.randomUUID();
+    private final LocalDateTime at = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    @Test
+    void balanceAsOfIsTheCheckpointPlusTheTailAfterIt() {
+        LocalDateTime asOf = at.minusHours(1);
+        when(balanceCheckpointRepository.findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, at))
+                .thenReturn(Optional.of(BalanceCheckpoint.builder().walletId(walletId).asOf(asOf).balance(new BigDecimal("100.00")).build()));
+        when(ledgerEntryRepository.sumBetween(walletId, asOf, at)).thenReturn(new BigDecimal("-25.50"));
+
+        assertThat(ledgerService.getBalanceAsOf(walletId, at)).isEqualByComparingTo("74.50");
+        verify(ledgerEntryRepository, never()).sumUntil(any(), any());
+    }
+
+    @Test
+    void balanceAsOfWithoutCheckpointSumsTheWholeLedger() {
+        when(balanceCheckpointRepository.findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, at)).thenReturn(Optional.empty());
+        when(ledgerEntryRepository.sumUntil(walletId, at)).thenReturn(new BigDecimal("42.00"));
+
+        assertThat(ledgerService.getBalanceAsOf(walletId, at)).isEqualByComparingTo("42.00");
+        verify(ledgerEntryRepository, never()).sumBetween(any(), any(), any());
+    }
+
+    @Test
+    void checkpointWindowStartsAtTheLatestCheckpointAndEndsLagSecondsAgo() {
+        LocalDateTime latest = LocalDateTime.now().minusMinutes(10);
+        when(balanceCheckpointRepository.findLatestAsOf()).thenReturn(Optional.of(latest));
+
+        ledgerService.createCheckpoints();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(balanceCheckpointRepository).createCheckpoints(eq(latest), cutoff.capture());
+        assertThat(cutoff.getValue()).isCloseTo(LocalDateTime.now().minusSeconds(LAG_SECONDS), within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void firstCheckpointRunScansFromTheEpoch() {
+        when(balanceCheckpointRepository.findLatestAsOf()).thenReturn(Optional.empty());
+
+        ledgerService.createCheckpoints();
+
+        verify(balanceCheckpointRepository).createCheckpoints(eq(LocalDateTime.of(1970, 1, 1, 0, 0)), any());
+    }
+
+    @Test
+    void noCheckpointWhileTheCutoffHasNotPassedTheLatestOne() {
+        // El último checkpoint quedó dentro del lag: la ventana (since, cutoff] estaría vacía
+        when(balanceCheckpointRepository.findLatestAsOf()).thenReturn(Optional.of(LocalDateTime.now().minusSeconds(LAG_SECONDS / 2)));
+
+        assertThat(ledgerService.createCheckpoints()).isZero();
+        verify(balanceCheckpointRepository, never()).createCheckpoints(any(), any());
+    }
+}
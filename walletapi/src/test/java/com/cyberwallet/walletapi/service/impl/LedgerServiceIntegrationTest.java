@@ -0,0 +1,132 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.repository.BalanceCheckpointRepository;
+import com.cyberwallet.walletapi.service.LedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consultas del ledger contra la base real. Cada test corre en una transacción que se revierte al
+ * final, así que los asientos (append-only) no quedan en la base.
+ */
+@SpringBootTest
+@Transactional
+class LedgerServiceIntegrationTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime base = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void checkpointWindowExcludesSinceAndIncludesCutoff() {
+        UUID walletId = createWallet("10.00", 0);
+        LocalDateTime since = base;
+        LocalDateTime cutoff = base.plusMinutes(10);
+        entry(walletId, "5.00", since);              // ya contado por el checkpoint en since
+        entry(walletId, "10.00", since.plusSeconds(1));
+        entry(walletId, "-3.00", cutoff);
+        entry(walletId, "7.00", cutoff.plusSeconds(1)); // queda para el próximo checkpoint
+        checkpoint(walletId, since, "5.00");
+
+        balanceCheckpointRepository.createCheckpoints(since, cutoff);
+
+        assertThat(checkpointBalance(walletId, cutoff)).isEqualByComparingTo("12.00");
+        assertThat(ledgerService.getBalanceAsOf(walletId, cutoff)).isEqualByComparingTo("12.00");
+        assertThat(ledgerService.getBalanceAsOf(walletId, cutoff.plusSeconds(1))).isEqualByComparingTo("19.00");
+        assertThat(ledgerService.getBalanceAsOf(walletId, since)).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void balanceAsOfWithoutCheckpointSumsEntriesUpToTheInstant() {
+        UUID walletId = createWallet("0.00", 0);
+        entry(walletId, "8.00", base);
+        entry(walletId, "2.00", base.plusMinutes(1));
+
+        assertThat(ledgerService.getBalanceAsOf(walletId, base.minusSeconds(1))).isEqualByComparingTo("0.00");
+        assertThat(ledgerService.getBalanceAsOf(walletId, base)).isEqualByComparingTo("8.00");
+        assertThat(ledgerService.getBalanceAsOf(walletId, base.plusMinutes(1))).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void driftCountsHotWalletSlotsOnTopOfTheRowBalance() {
+        // Fila 70 + slots 30 = 100 = checkpoint 60 + cola 40
+        UUID consistent = createWallet("70.00", 2);
+        slot(consistent, 0, "10.00");
+        slot(consistent, 1, "20.00");
+        checkpoint(consistent, base, "60.00");
+        entry(consistent, "60.00", base);
+        entry(consistent, "40.00", base.plusMinutes(1));
+
+        // Mismos sub-saldos pero el ledger sólo explica 90
+        UUID drifted = createWallet("70.00", 2);
+        slot(drifted, 0, "10.00");
+        slot(drifted, 1, "20.00");
+        entry(drifted, "90.00", base);
+
+        assertThat(ledgerService.findDriftedWallets(Integer.MAX_VALUE)).contains(drifted).doesNotContain(consistent);
+    }
+
+    private UUID createWallet(String balance, int slots) {
+        UUID userId = UUID.randomUUID();
+        String suffix = userId.toString().substring(0, 8);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, nombre, apellido, email, username, password, dni, calle, numero, fecha_nacimiento,
+                                   genero, status, deleted, enabled, created_at, updated_at)
+                VALUES (?, 'Test', 'Ledger', ?, ?, 'x', ?, 'Calle', 1, ?, 'OTRO', 'ACTIVE', false, true, LOCALTIMESTAMP, LOCALTIMESTAMP)
+                """, userId, "ledger-" + suffix + "@cyberwallet.test", "l" + suffix, digits(8), LocalDate.of(1990, 1, 1));
+        UUID walletId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, cvu, alias, balance_slots, user_id, created_at) VALUES (?, ?, ?, ?, ?, ?, LOCALTIMESTAMP)",
+                walletId, new BigDecimal(balance), digits(22), "ledger." + suffix, slots, userId);
+        return walletId;
+    }
+
+    private static String digits(int length) {
+        StringBuilder digits = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            digits.append(ThreadLocalRandom.current().nextInt(10));
+        }
+        return digits.toString();
+    }
+
+    private void entry(UUID walletId, String amount, LocalDateTime createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO ledger_entries (journal_id, account_id, account_type, entry_type, amount, created_at)
+                VALUES (?, ?, 'WALLET', 'DEPOSIT', ?, ?)
+                """, UUID.randomUUID(), walletId, new BigDecimal(amount), Timestamp.valueOf(createdAt));
+    }
+
+    private void checkpoint(UUID walletId, LocalDateTime asOf, String balance) {
+        jdbcTemplate.update("INSERT INTO balance_checkpoints (wallet_id, as_of, balance) VALUES (?, ?, ?)",
+                walletId, Timestamp.valueOf(asOf), new BigDecimal(balance));
+    }
+
+    private BigDecimal checkpointBalance(UUID walletId, LocalDateTime asOf) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM balance_checkpoints WHERE wallet_id = ? AND as_of = ?",
+                BigDecimal.class, walletId, Timestamp.valueOf(asOf));
+    }
+
+    private void slot(UUID walletId, int slot, String balance) {
+        jdbcTemplate.update("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (?, ?, ?)",
+                walletId, slot, new BigDecimal(balance));
+    }
+}
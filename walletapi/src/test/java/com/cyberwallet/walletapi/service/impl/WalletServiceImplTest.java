@@ -0,0 +1,150 @@
+package com.cyberwallet.walletapi.service.impl;
+
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferLegDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferLegResultDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferRequestDTO;
+import com.cyberwallet.walletapi.dto.wallet.BatchTransferResponseDTO;
+import com.cyberwallet.walletapi.engine.BalanceEngine;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.DailyOutflowRepository;
+import com.cyberwallet.walletapi.repository.TransactionRepository;
+import com.cyberwallet.walletapi.repository.UserRepository;
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import com.cyberwallet.walletapi.service.LedgerService;
+import com.cyberwallet.walletapi.util.AliasPool;
+import com.cyberwallet.walletapi.util.CvuAllocator;
+import com.cyberwallet.walletapi.util.HotWalletManager;
+import com.cyberwallet.walletapi.util.LedgerWriter;
+import com.cyberwallet.walletapi.util.NativeTransferEngine;
+import com.cyberwallet.walletapi.util.TransferUtils;
+import com.cyberwallet.walletapi.util.WalletBalanceUpdater;
+import com.cyberwallet.walletapi.util.WalletIdentityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WalletServiceImplTest {
+
+    private static final String SENDER_EMAIL = "emisor@cyberwallet.test";
+    private static final String SENDER_CVU = "0000001700000000000017";
+    private static final String RECEIVER_CVU = "0000001700000000000024";
+
+    @Mock private UserRepository userRepository;
+    @Mock private WalletRepository walletRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private DailyOutflowRepository dailyOutflowRepository;
+    @Mock private AliasPool aliasPool;
+    @Mock private TransferUtils transferUtils;
+    @Mock private WalletBalanceUpdater walletBalanceUpdater;
+    @Mock private NativeTransferEngine nativeTransferEngine;
+    @Mock private LedgerWriter ledgerWriter;
+    @Mock private LedgerService ledgerService;
+    @Mock private HotWalletManager hotWalletManager;
+    @Mock private BalanceEngine balanceEngine;
+    @Mock private WalletIdentityCache walletIdentityCache;
+    @Mock private CvuAllocator cvuAllocator;
+
+    @InjectMocks
+    private WalletServiceImpl walletService;
+
+    private final WalletBalanceView sender = view(UUID.randomUUID(), "emisor.alias", SENDER_CVU, "100.00");
+    private final WalletBalanceView receiver = view(UUID.randomUUID(), "ana.sol", RECEIVER_CVU, "0.00");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(walletService, "maxBatchLegs", 50);
+        when(walletIdentityCache.byEmail(SENDER_EMAIL)).thenReturn(Optional.of(
+                new WalletIdentityCache.WalletRef(sender.getId(), sender.getUserId(), sender.getAlias(), sender.getCvu())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acceptsDuplicateRecipientsAndRejectsLegsToTheOwnWallet() {
+        when(walletRepository.findByAliasInOrCvuIn(Set.of("ana.sol", "emisor.alias"), Set.of(SENDER_CVU)))
+                .thenReturn(List.of(receiver, sender));
+        when(dailyOutflowRepository.addIfWithinLimit(eq(sender.getUserId()), any(), any(), any()))
+                .thenReturn(Optional.of(new BigDecimal("15.00")));
+        when(transferUtils.executeBatch(eq(sender.getId()), eq(sender.getUserId()), anyList(), anyString())).thenReturn(sender);
+
+        BatchTransferResponseDTO response = walletService.transferBatch(SENDER_EMAIL, new BatchTransferRequestDTO(List.of(
+                new BatchTransferLegDTO("Ana.Sol", null, new BigDecimal("10.00")),
+                new BatchTransferLegDTO("ana.sol", null, new BigDecimal("5.00")),
+                new BatchTransferLegDTO(null, SENDER_CVU, new BigDecimal("3.00")),
+                new BatchTransferLegDTO("emisor.alias", null, new BigDecimal("2.00")))), "trace");
+
+        assertThat(response.getCompleted()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getTotalTransferred()).isEqualByComparingTo("15.00");
+        assertThat(response.getResults()).extracting(BatchTransferLegResultDTO::getErrorCode)
+                .containsExactly(null, null, ErrorCode.SELF_TRANSFER.name(), ErrorCode.SELF_TRANSFER.name());
+
+        ArgumentCaptor<List<TransferUtils.TransferLeg>> legs = ArgumentCaptor.forClass(List.class);
+        verify(transferUtils).executeBatch(eq(sender.getId()), eq(sender.getUserId()), legs.capture(), eq("trace"));
+        assertThat(legs.getValue()).extracting(TransferUtils.TransferLeg::getReceiverWalletId)
+                .containsExactly(receiver.getId(), receiver.getId());
+    }
+
+    @Test
+    void cvuOnlyBatchQueriesOnlyByCvu() {
+        when(walletRepository.findByCvuIn(Set.of(RECEIVER_CVU))).thenReturn(List.of(receiver));
+        when(dailyOutflowRepository.addIfWithinLimit(eq(sender.getUserId()), any(), any(), any()))
+                .thenReturn(Optional.of(BigDecimal.TEN));
+        when(transferUtils.executeBatch(eq(sender.getId()), eq(sender.getUserId()), anyList(), anyString())).thenReturn(sender);
+
+        BatchTransferResponseDTO response = walletService.transferBatch(SENDER_EMAIL, new BatchTransferRequestDTO(List.of(
+                new BatchTransferLegDTO(null, RECEIVER_CVU, BigDecimal.TEN))), "trace");
+
+        assertThat(response.getCompleted()).isEqualTo(1);
+        verify(walletRepository, never()).findByAliasInOrCvuIn(any(), any());
+        verify(walletRepository, never()).findByAliasIn(any());
+    }
+
+    @Test
+    void insufficientFundsFailsTheWholeBatch() {
+        when(walletRepository.findByAliasIn(Set.of("ana.sol"))).thenReturn(List.of(receiver));
+        when(dailyOutflowRepository.addIfWithinLimit(eq(sender.getUserId()), any(), any(), any()))
+                .thenReturn(Optional.of(new BigDecimal("500.00")));
+        when(transferUtils.executeBatch(eq(sender.getId()), eq(sender.getUserId()), anyList(), anyString()))
+                .thenThrow(new BusinessException(ErrorCode.INSUFFICIENT_FUNDS, "Saldo insuficiente"));
+
+        assertThatThrownBy(() -> walletService.transferBatch(SENDER_EMAIL, new BatchTransferRequestDTO(List.of(
+                new BatchTransferLegDTO("ana.sol", null, new BigDecimal("500.00")))), "trace"))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.INSUFFICIENT_FUNDS);
+    }
+
+    private static WalletBalanceView view(UUID id, String alias, String cvu, String balance) {
+        UUID userId = UUID.randomUUID();
+        return new WalletBalanceView() {
+            @Override public UUID getId() { return id; }
+            @Override public UUID getUserId() { return userId; }
+            @Override public BigDecimal getBalance() { return new BigDecimal(balance); }
+            @Override public String getAlias() { return alias; }
+            @Override public String getCvu() { return cvu; }
+        };
+    }
+}
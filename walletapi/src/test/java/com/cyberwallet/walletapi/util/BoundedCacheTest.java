@@ -0,0 +1,72 @@
+package com.cyberwallet.walletapi.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    private final BoundedCacheFactory factory = new BoundedCacheFactory(new SimpleMeterRegistry());
+
+    @Test
+    void storesLoadsAndInvalidates() {
+        BoundedCache<String, String> cache = factory.create("test", 10, Duration.ofMinutes(1));
+
+        assertThat(cache.get("a", key -> "valor-" + key)).isEqualTo("valor-a");
+        assertThat(cache.getIfPresent("a")).isEqualTo("valor-a");
+        assertThat(cache.get("b", key -> null)).isNull();
+        assertThat(cache.getIfPresent("b")).isNull();
+
+        cache.invalidate("a");
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    void invalidatesByValueInEverySegment() {
+        BoundedCache<Integer, Integer> cache = factory.create("test", 100, Duration.ofMinutes(1));
+        IntStream.range(0, 60).forEach(i -> cache.put(i, i));
+        // Una segunda lectura pasa las entradas de prueba a protegido
+        IntStream.range(0, 30).forEach(cache::getIfPresent);
+
+        assertThat(cache.invalidateIf(value -> value % 2 == 0)).isEqualTo(30);
+        assertThat(cache.size()).isEqualTo(30);
+        assertThat(cache.getIfPresent(4)).isNull();
+        assertThat(cache.getIfPresent(5)).isEqualTo(5);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        BoundedCache<String, String> cache = factory.create("test", 10, Duration.ofMillis(50));
+        cache.put("a", "1");
+
+        Thread.sleep(100);
+
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void neverExceedsMaxSize() {
+        BoundedCache<Integer, Integer> cache = factory.create("test", 100, Duration.ofMinutes(1));
+        IntStream.range(0, 10_000).forEach(i -> cache.get(i, key -> key));
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void scanOfUniqueKeysDoesNotEvictFrequentKeys() {
+        BoundedCache<String, String> cache = factory.create("test", 1_000, Duration.ofMinutes(1));
+        for (int i = 0; i < 20_000; i++) {
+            String hot = "hot-" + (i % 50);
+            cache.get(hot, key -> key);
+            cache.get("scan-" + i, key -> key);
+        }
+
+        long hotPresent = IntStream.range(0, 50).filter(i -> cache.getIfPresent("hot-" + i) != null).count();
+        assertThat(hotPresent).isGreaterThanOrEqualTo(45);
+    }
+}
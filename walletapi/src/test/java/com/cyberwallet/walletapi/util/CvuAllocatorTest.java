@@ -0,0 +1,47 @@
+package com.cyberwallet.walletapi.util;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CvuAllocatorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void allocatesConsecutiveAccountsWithCheckDigitsAndLeasesNewBlocks() {
+        when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<long[]>>any()))
+                .thenReturn(new long[]{1, 2}, new long[]{101, 2});
+        CvuAllocator allocator = new CvuAllocator(jdbcTemplate, "0001");
+
+        assertThat(allocator.nextCvu()).isEqualTo("0000001700000000000017");
+        assertThat(allocator.nextCvu()).isEqualTo("0000001700000000000024");
+        assertThat(allocator.nextCvu()).isEqualTo("0000001700000000001010");
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), ArgumentMatchers.<RowMapper<long[]>>any());
+    }
+
+    @Test
+    void validatesLengthAndBothCheckDigits() {
+        assertThat(CvuAllocator.isValid("0000001700000000000017")).isTrue();
+        assertThat(CvuAllocator.isValid("0000001700000000000018")).isFalse();
+        assertThat(CvuAllocator.isValid("0000001800000000000017")).isFalse();
+        assertThat(CvuAllocator.isValid("000000170000000000001")).isFalse();
+        assertThat(CvuAllocator.isValid("00000017000000000000a7")).isFalse();
+        assertThat(CvuAllocator.isValid(null)).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedPspCode() {
+        assertThatThrownBy(() -> new CvuAllocator(jdbcTemplate, "12"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExportLimiter limiter = new ExportLimiter(meterRegistry, 1);
+
+    @Test
+    void rejectsWhenFullAndReleasingTwiceReturnsOnlyOneSlot() {
+        ExportLimiter.Permit permit = limiter.acquire();
+        assertThatThrownBy(limiter::acquire).isInstanceOf(BusinessException.class);
+
+        // Fin del streaming y cierre del request asíncrono liberan el mismo permiso
+        permit.release();
+        permit.release();
+
+        limiter.acquire();
+        assertThatThrownBy(limiter::acquire).isInstanceOf(BusinessException.class);
+        assertThat(meterRegistry.get("export.rejected").counter().count()).isEqualTo(2);
+    }
+}
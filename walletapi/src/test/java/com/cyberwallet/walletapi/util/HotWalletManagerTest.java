@@ -0,0 +1,88 @@
+package com.cyberwallet.walletapi.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotWalletManagerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final HotWalletManager manager = new HotWalletManager(jdbcTemplate, 64);
+    private final UUID walletId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void enableAfterAnotherInstanceAlreadyPartitionedOnlyRegistersLocally() {
+        // La fila ya tiene 4 slots cuando se obtiene el FOR UPDATE: la otra habilitación ganó la carrera
+        lockedWalletHasSlots(4);
+
+        manager.enable(walletId, 4);
+
+        assertThat(manager.isHot(walletId)).isTrue();
+        assertThat(manager.ownerOf(walletId)).isEqualTo(userId);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void enableCreatesTheSlotsAndFoldsTheRestUnderTheRowLock() {
+        lockedWalletHasSlots(0);
+
+        manager.enable(walletId, 4);
+
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO wallet_balance_slots"), anyList());
+        verify(jdbcTemplate).update(startsWith("WITH removed AS"), eq(walletId), eq(4), eq(4), eq(walletId));
+        assertThat(manager.isHot(walletId)).isTrue();
+    }
+
+    @Test
+    void slotCreditFailsWhenTheWalletIsNotPartitionedOrTheSlotIsGone() {
+        assertThat(manager.creditSlot(walletId, BigDecimal.TEN)).isFalse();
+
+        lockedWalletHasSlots(0);
+        manager.enable(walletId, 2);
+        when(jdbcTemplate.update(startsWith("UPDATE wallet_balance_slots"), eq(BigDecimal.TEN), eq(walletId), anyInt()))
+                .thenReturn(1, 0);
+
+        assertThat(manager.creditSlot(walletId, BigDecimal.TEN)).isTrue();
+        // Deshabilitada desde otra instancia: el slot ya no existe y el llamador acredita wallets.balance
+        assertThat(manager.creditSlot(walletId, BigDecimal.TEN)).isFalse();
+    }
+
+    @Test
+    void consolidateReturnsTheSweptAmount() {
+        when(jdbcTemplate.queryForList(startsWith("WITH swept AS"), eq(BigDecimal.class), eq(walletId), eq(walletId), eq(walletId)))
+                .thenReturn(List.of(new BigDecimal("35.00")), List.of());
+
+        assertThat(manager.consolidate(walletId)).isEqualByComparingTo("35.00");
+        assertThat(manager.consolidate(walletId)).isEqualByComparingTo("0");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void lockedWalletHasSlots(int slots) {
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getInt("balance_slots")).thenReturn(slots);
+            when(rs.getObject("user_id", UUID.class)).thenReturn(userId);
+            return List.of(((RowMapper<Object>) inv.getArgument(1)).mapRow(rs, 0));
+        }).when(jdbcTemplate).query(startsWith("SELECT balance_slots"), any(RowMapper.class), eq(walletId));
+    }
+}
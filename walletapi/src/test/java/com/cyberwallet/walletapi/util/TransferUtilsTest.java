@@ -0,0 +1,112 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.TransactionRepository;
+import com.cyberwallet.walletapi.repository.UserRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferUtilsTest {
+
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private WalletBalanceUpdater walletBalanceUpdater;
+    @Mock private WalletLockManager walletLockManager;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Mock private LedgerWriter ledgerWriter;
+    @Mock private HotWalletManager hotWalletManager;
+
+    @InjectMocks
+    private TransferUtils transferUtils;
+
+    private final UUID senderId = UUID.randomUUID();
+    private final UUID senderUserId = UUID.randomUUID();
+    private final UUID receiverId = UUID.randomUUID();
+    private final UUID receiverUserId = UUID.randomUUID();
+
+    @Test
+    void hotReceiverIsCreditedInASlotBeforeLockingOnlyTheSender() {
+        when(hotWalletManager.isHot(receiverId)).thenReturn(true);
+        when(hotWalletManager.ownerOf(receiverId)).thenReturn(receiverUserId);
+        when(hotWalletManager.creditSlot(receiverId, BigDecimal.TEN)).thenReturn(true);
+        when(walletBalanceUpdater.applyDelta(senderId, BigDecimal.TEN.negate())).thenReturn(view(senderId, senderUserId));
+
+        transferUtils.executeTransfer(senderId, receiverId, BigDecimal.TEN, "ana.sol", "emisor", "trace");
+
+        InOrder order = inOrder(hotWalletManager, walletLockManager);
+        order.verify(hotWalletManager).creditSlot(receiverId, BigDecimal.TEN);
+        order.verify(walletLockManager).lockForTransaction(senderId);
+        verify(walletBalanceUpdater, never()).applyDelta(eq(receiverId), any());
+        verify(userRepository).getReferenceById(receiverUserId);
+    }
+
+    @Test
+    void receiverNoLongerHotIsLockedAndCreditedOnItsRow() {
+        // Otra instancia la deshabilitó: el registro local todavía la ve particionada pero el slot ya no existe
+        when(hotWalletManager.isHot(receiverId)).thenReturn(true);
+        when(hotWalletManager.ownerOf(receiverId)).thenReturn(receiverUserId);
+        when(hotWalletManager.creditSlot(receiverId, BigDecimal.TEN)).thenReturn(false);
+        when(walletBalanceUpdater.applyDelta(senderId, BigDecimal.TEN.negate())).thenReturn(view(senderId, senderUserId));
+        when(walletBalanceUpdater.applyDelta(receiverId, BigDecimal.TEN)).thenReturn(view(receiverId, receiverUserId));
+
+        transferUtils.executeTransfer(senderId, receiverId, BigDecimal.TEN, "ana.sol", "emisor", "trace");
+
+        InOrder order = inOrder(hotWalletManager, walletLockManager, walletBalanceUpdater);
+        order.verify(hotWalletManager).creditSlot(receiverId, BigDecimal.TEN);
+        order.verify(walletLockManager).lockForTransaction(senderId, receiverId);
+        order.verify(walletBalanceUpdater).applyDelta(receiverId, BigDecimal.TEN);
+        verify(walletLockManager, never()).lockForTransaction(senderId);
+    }
+
+    @Test
+    void batchWithoutFundsPersistsNoLegs() {
+        when(walletBalanceUpdater.applyDelta(senderId, new BigDecimal("-30.00")))
+                .thenThrow(new BusinessException(ErrorCode.INSUFFICIENT_FUNDS, "Saldo insuficiente"));
+
+        assertThatThrownBy(() -> transferUtils.executeBatch(senderId, senderUserId, List.of(
+                new TransferUtils.TransferLeg(receiverId, UUID.randomUUID(), new BigDecimal("10.00"), "ana.sol", "emisor"),
+                new TransferUtils.TransferLeg(receiverId, UUID.randomUUID(), new BigDecimal("20.00"), "ana.sol", "emisor")), "trace"))
+                .isInstanceOf(BusinessException.class);
+
+        // El débito falla antes de cualquier crédito, asiento o movimiento
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+        verify(hotWalletManager, never()).creditSlot(any(), any());
+        verifyNoInteractions(ledgerWriter, transactionRepository);
+    }
+
+    private static WalletBalanceView view(UUID id, UUID userId) {
+        return new WalletBalanceView() {
+            @Override public UUID getId() { return id; }
+            @Override public UUID getUserId() { return userId; }
+            @Override public BigDecimal getBalance() { return BigDecimal.ZERO; }
+            @Override public String getAlias() { return "alias"; }
+            @Override public String getCvu() { return "cvu"; }
+        };
+    }
+}
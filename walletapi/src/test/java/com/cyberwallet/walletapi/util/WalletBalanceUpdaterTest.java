@@ -0,0 +1,79 @@
+package com.cyberwallet.walletapi.util;
+
+import com.cyberwallet.walletapi.entity.Wallet;
+import com.cyberwallet.walletapi.exception.BusinessException;
+import com.cyberwallet.walletapi.exception.ErrorCode;
+import com.cyberwallet.walletapi.repository.UserRepository;
+import com.cyberwallet.walletapi.repository.WalletRepository;
+import com.cyberwallet.walletapi.repository.projection.WalletBalanceView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WalletBalanceUpdaterTest {
+
+    private static final BigDecimal DEBIT = new BigDecimal("-50.00");
+
+    @Mock private WalletRepository walletRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private HotWalletManager hotWalletManager;
+
+    @InjectMocks
+    private WalletBalanceUpdater walletBalanceUpdater;
+
+    private final UUID walletId = UUID.randomUUID();
+
+    @Test
+    void debitThatDoesNotFitTheRowSweepsTheSlotsAndRetries() {
+        WalletBalanceView afterSweep = view(new BigDecimal("10.00"));
+        when(walletRepository.applyBalanceDelta(walletId, DEBIT)).thenReturn(Optional.empty(), Optional.of(afterSweep));
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet("20.00")));
+        when(hotWalletManager.isHot(walletId)).thenReturn(true);
+        when(hotWalletManager.consolidate(walletId)).thenReturn(new BigDecimal("40.00"));
+        when(hotWalletManager.slotBalance(walletId)).thenReturn(BigDecimal.ZERO);
+
+        assertThat(walletBalanceUpdater.applyDelta(walletId, DEBIT).getBalance()).isEqualByComparingTo("10.00");
+        verify(walletRepository, times(2)).applyBalanceDelta(walletId, DEBIT);
+    }
+
+    @Test
+    void debitIsRejectedWhenThereIsNothingToSweep() {
+        when(walletRepository.applyBalanceDelta(walletId, DEBIT)).thenReturn(Optional.empty());
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet("20.00")));
+        when(hotWalletManager.isHot(walletId)).thenReturn(true);
+        when(hotWalletManager.consolidate(walletId)).thenReturn(BigDecimal.ZERO);
+        when(hotWalletManager.slotBalance(walletId)).thenReturn(BigDecimal.ZERO);
+
+        assertThatThrownBy(() -> walletBalanceUpdater.applyDelta(walletId, DEBIT))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.INSUFFICIENT_FUNDS);
+        verify(walletRepository, times(1)).applyBalanceDelta(walletId, DEBIT);
+    }
+
+    private Wallet wallet(String balance) {
+        return Wallet.builder().id(walletId).balance(new BigDecimal(balance)).build();
+    }
+
+    private WalletBalanceView view(BigDecimal balance) {
+        return new WalletBalanceView() {
+            @Override public UUID getId() { return walletId; }
+            @Override public UUID getUserId() { return UUID.randomUUID(); }
+            @Override public BigDecimal getBalance() { return balance; }
+            @Override public String getAlias() { return "alias"; }
+            @Override public String getCvu() { return "cvu"; }
+        };
+    }
+}